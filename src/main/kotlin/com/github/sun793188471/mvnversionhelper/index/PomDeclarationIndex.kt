@@ -0,0 +1,143 @@
+package com.github.sun793188471.mvnversionhelper.index
+
+import com.intellij.ide.highlighter.XmlFileType
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.xml.XmlFile
+import com.intellij.psi.xml.XmlTag
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.FileContent
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.IOUtil
+import com.intellij.util.io.KeyDescriptor
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * POM 文件中的构件声明索引，key 为 groupId:artifactId
+ *
+ * 记录每个 pom.xml 自身的坐标、parent 坐标、dependencies 和 dependencyManagement 中的依赖，
+ * 以及版本号和标签的位置。文件修改后由平台增量更新，查询时不再遍历 PSI。
+ */
+class PomDeclarationIndex : FileBasedIndexExtension<String, List<PomDeclarationIndex.Declaration>>() {
+
+    enum class Kind {
+        PROJECT,             // 文件自身的坐标，未声明 groupId 时继承 parent
+        PARENT,              // parent 坐标
+        DEPENDENCY,          // dependencies 中的依赖
+        MANAGED_DEPENDENCY   // dependencyManagement 中的依赖
+    }
+
+    /**
+     * 一处声明：offset 为声明所在标签的起始位置，versionOffset 为 version 标签的起始位置，没有 version 时为 -1
+     */
+    data class Declaration(
+        val kind: Kind,
+        val version: String?,
+        val offset: Int,
+        val versionOffset: Int
+    )
+
+    override fun getName(): ID<String, List<Declaration>> = NAME
+
+    override fun getIndexer(): DataIndexer<String, List<Declaration>, FileContent> = DataIndexer { inputData ->
+        val rootTag = (inputData.psiFile as? XmlFile)?.rootTag
+        if (rootTag == null || rootTag.name != "project") return@DataIndexer emptyMap()
+
+        val result = HashMap<String, MutableList<Declaration>>()
+        fun add(tag: XmlTag, kind: Kind, defaultGroupId: String? = null) {
+            val groupId = tag.findFirstSubTag("groupId")?.value?.trimmedText ?: defaultGroupId ?: return
+            val artifactId = tag.findFirstSubTag("artifactId")?.value?.trimmedText ?: return
+            val versionTag = tag.findFirstSubTag("version")
+            result.getOrPut("$groupId:$artifactId") { ArrayList(1) }.add(
+                Declaration(
+                    kind,
+                    versionTag?.value?.trimmedText,
+                    tag.textRange.startOffset,
+                    versionTag?.textRange?.startOffset ?: -1
+                )
+            )
+        }
+
+        val parentTag = rootTag.findFirstSubTag("parent")
+        parentTag?.let { add(it, Kind.PARENT) }
+        add(rootTag, Kind.PROJECT, parentTag?.findFirstSubTag("groupId")?.value?.trimmedText)
+        rootTag.findFirstSubTag("dependencies")?.findSubTags("dependency")?.forEach { add(it, Kind.DEPENDENCY) }
+        rootTag.findFirstSubTag("dependencyManagement")?.findFirstSubTag("dependencies")
+            ?.findSubTags("dependency")?.forEach { add(it, Kind.MANAGED_DEPENDENCY) }
+        result
+    }
+
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+    override fun getValueExternalizer(): DataExternalizer<List<Declaration>> = DeclarationsExternalizer
+
+    override fun getVersion(): Int = 1
+
+    override fun getInputFilter(): FileBasedIndex.InputFilter = POM_INPUT_FILTER
+
+    override fun dependsOnFileContent(): Boolean = true
+
+    private object DeclarationsExternalizer : DataExternalizer<List<Declaration>> {
+        private val kinds = Kind.values()
+
+        override fun save(out: DataOutput, value: List<Declaration>) {
+            DataInputOutputUtil.writeINT(out, value.size)
+            value.forEach { declaration ->
+                out.writeByte(declaration.kind.ordinal)
+                out.writeBoolean(declaration.version != null)
+                declaration.version?.let { IOUtil.writeUTF(out, it) }
+                DataInputOutputUtil.writeINT(out, declaration.offset)
+                DataInputOutputUtil.writeINT(out, declaration.versionOffset)
+            }
+        }
+
+        override fun read(input: DataInput): List<Declaration> {
+            return List(DataInputOutputUtil.readINT(input)) {
+                val kind = kinds[input.readByte().toInt()]
+                val version = if (input.readBoolean()) IOUtil.readUTF(input) else null
+                Declaration(kind, version, DataInputOutputUtil.readINT(input), DataInputOutputUtil.readINT(input))
+            }
+        }
+    }
+
+    companion object {
+        val NAME: ID<String, List<Declaration>> = ID.create("mvnversionhelper.pom.declarations")
+
+        // 只索引名为 pom.xml 的 XML 文件
+        internal val POM_INPUT_FILTER = object : DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE) {
+            override fun acceptInput(file: VirtualFile): Boolean = file.name == "pom.xml"
+        }
+
+        /**
+         * 声明了该构件的所有 POM 文件及各自的声明，需要在智能模式的读操作中调用
+         */
+        fun findDeclarations(
+            project: Project,
+            groupId: String,
+            artifactId: String,
+            scope: GlobalSearchScope = GlobalSearchScope.projectScope(project)
+        ): Map<VirtualFile, List<Declaration>> {
+            val result = LinkedHashMap<VirtualFile, List<Declaration>>()
+            FileBasedIndex.getInstance().processValues(NAME, "$groupId:$artifactId", null, { file, value ->
+                result[file] = value
+                true
+            }, scope)
+            return result
+        }
+
+        /**
+         * 单个 POM 文件中的全部声明，key 为 groupId:artifactId，需要在智能模式的读操作中调用
+         */
+        fun getFileDeclarations(project: Project, file: VirtualFile): Map<String, List<Declaration>> {
+            return FileBasedIndex.getInstance().getFileData(NAME, file, project)
+        }
+    }
+}
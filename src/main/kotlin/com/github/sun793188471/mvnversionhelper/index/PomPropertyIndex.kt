@@ -0,0 +1,101 @@
+package com.github.sun793188471.mvnversionhelper.index
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.xml.XmlFile
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.FileBasedIndex
+import com.intellij.util.indexing.FileBasedIndexExtension
+import com.intellij.util.indexing.FileContent
+import com.intellij.util.indexing.ID
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.IOUtil
+import com.intellij.util.io.KeyDescriptor
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * POM 文件中 properties 的索引，key 为属性名
+ *
+ * 与 DependencyVersionCheckDialog 原先的解析一致，项目自身的 version 记为 project.version。
+ * 用于回答“这个版本号定义在哪里”：值和所在标签的位置都可以直接从索引取得。
+ */
+class PomPropertyIndex : FileBasedIndexExtension<String, PomPropertyIndex.Property>() {
+
+    /**
+     * 属性值和所在标签的起始位置
+     */
+    data class Property(
+        val value: String,
+        val offset: Int
+    )
+
+    override fun getName(): ID<String, Property> = NAME
+
+    override fun getIndexer(): DataIndexer<String, Property, FileContent> = DataIndexer { inputData ->
+        val rootTag = (inputData.psiFile as? XmlFile)?.rootTag
+        if (rootTag == null || rootTag.name != "project") return@DataIndexer emptyMap()
+
+        val result = HashMap<String, Property>()
+        rootTag.findFirstSubTag("properties")?.subTags?.forEach { tag ->
+            result[tag.name] = Property(tag.value.trimmedText, tag.textRange.startOffset)
+        }
+        rootTag.findFirstSubTag("version")?.let { tag ->
+            result[PROJECT_VERSION] = Property(tag.value.trimmedText, tag.textRange.startOffset)
+        }
+        result
+    }
+
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+    override fun getValueExternalizer(): DataExternalizer<Property> = PropertyExternalizer
+
+    override fun getVersion(): Int = 1
+
+    override fun getInputFilter(): FileBasedIndex.InputFilter = PomDeclarationIndex.POM_INPUT_FILTER
+
+    override fun dependsOnFileContent(): Boolean = true
+
+    private object PropertyExternalizer : DataExternalizer<Property> {
+        override fun save(out: DataOutput, value: Property) {
+            IOUtil.writeUTF(out, value.value)
+            DataInputOutputUtil.writeINT(out, value.offset)
+        }
+
+        override fun read(input: DataInput): Property {
+            return Property(IOUtil.readUTF(input), DataInputOutputUtil.readINT(input))
+        }
+    }
+
+    companion object {
+        val NAME: ID<String, Property> = ID.create("mvnversionhelper.pom.properties")
+
+        const val PROJECT_VERSION = "project.version"
+
+        /**
+         * 定义了该属性的所有 POM 文件，需要在智能模式的读操作中调用
+         */
+        fun findDefinitions(
+            project: Project,
+            propertyKey: String,
+            scope: GlobalSearchScope = GlobalSearchScope.projectScope(project)
+        ): Map<VirtualFile, Property> {
+            val result = LinkedHashMap<VirtualFile, Property>()
+            FileBasedIndex.getInstance().processValues(NAME, propertyKey, null, { file, value ->
+                result[file] = value
+                true
+            }, scope)
+            return result
+        }
+
+        /**
+         * 单个 POM 文件中的全部属性，需要在智能模式的读操作中调用
+         */
+        fun getFileProperties(project: Project, file: VirtualFile): Map<String, Property> {
+            return FileBasedIndex.getInstance().getFileData(NAME, file, project)
+        }
+    }
+}
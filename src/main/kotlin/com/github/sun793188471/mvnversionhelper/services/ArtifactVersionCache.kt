@@ -0,0 +1,199 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.util.containers.Interner
+import java.util.concurrent.TimeUnit
+
+/**
+ * 应用级的构件版本索引内存缓存，所有打开的项目共享
+ *
+ * 采用分段 LRU：新条目先进入试用段，再次命中后晋升到保护段，只被访问一次的条目优先淘汰。
+ * 按估算的内存占用限制总大小；正式版、快照版和查询不到的构件（否定条目）分别使用不同的有效期。
+ * 条目按查询所用的仓库集合区分，只有仓库配置相同的项目才共享结果，否定条目不会影响配置了其他仓库的项目。
+ */
+@Service(Service.Level.APP)
+class ArtifactVersionCache {
+
+    private data class CacheKey(val repositories: String, val groupId: String, val artifactId: String, val scope: String)
+
+    private class Entry(val index: ArtifactVersionIndex?, val expiresAt: Long, val weight: Long)
+
+    /**
+     * 缓存命中结果，index 为 null 表示否定条目（之前查询不到该构件）
+     */
+    class CachedIndex(val index: ArtifactVersionIndex?)
+
+    data class Stats(
+        val hits: Long,
+        val misses: Long,
+        val evictions: Long,
+        val expirations: Long,
+        val entries: Int,
+        val weightBytes: Long,
+        val maxWeightBytes: Long
+    ) {
+        val hitRatio: Double get() = if (hits + misses == 0L) 0.0 else hits.toDouble() / (hits + misses)
+    }
+
+    private val lock = Any()
+    private val interner = Interner.createWeakInterner<String>()
+
+    // accessOrder = true，迭代顺序即从最久未访问到最近访问
+    private val probation = LinkedHashMap<CacheKey, Entry>(16, 0.75f, true)
+    private val protected = LinkedHashMap<CacheKey, Entry>(16, 0.75f, true)
+    private var probationWeight = 0L
+    private var protectedWeight = 0L
+
+    private var hits = 0L
+    private var misses = 0L
+    private var evictions = 0L
+    private var expirations = 0L
+
+    /**
+     * repositories 为查询所用仓库集合的标识（见 repositorySetKey），
+     * scope 区分不同的查询条件（如分支类别），同一构件不同条件的结果分别缓存
+     */
+    fun get(repositories: String, groupId: String, artifactId: String, scope: String): CachedIndex? {
+        val key = CacheKey(repositories, groupId, artifactId, scope)
+        synchronized(lock) {
+            val now = System.currentTimeMillis()
+
+            protected[key]?.let { entry ->
+                if (entry.expiresAt <= now) {
+                    protected.remove(key)
+                    protectedWeight -= entry.weight
+                    expirations++
+                    misses++
+                    return null
+                }
+                hits++
+                return CachedIndex(entry.index)
+            }
+
+            val entry = probation.remove(key)
+            if (entry == null) {
+                misses++
+                return null
+            }
+            probationWeight -= entry.weight
+            if (entry.expiresAt <= now) {
+                expirations++
+                misses++
+                return null
+            }
+
+            // 第二次命中，晋升到保护段；保护段超出配额时把最久未访问的条目降回试用段
+            protected[key] = entry
+            protectedWeight += entry.weight
+            demoteProtectedOverflow()
+            hits++
+            return CachedIndex(entry.index)
+        }
+    }
+
+    fun put(repositories: String, groupId: String, artifactId: String, scope: String, index: ArtifactVersionIndex?) {
+        val ttlMillis = ttlFor(index)
+        if (ttlMillis <= 0) return
+
+        synchronized(lock) {
+            val key = CacheKey(
+                interner.intern(repositories), interner.intern(groupId), interner.intern(artifactId), scope
+            )
+            removeKey(key)
+            val entry = Entry(index, System.currentTimeMillis() + ttlMillis, weightOf(index))
+            probation[key] = entry
+            probationWeight += entry.weight
+            evictOverflow()
+        }
+    }
+
+    fun invalidateAll() {
+        synchronized(lock) {
+            probation.clear()
+            protected.clear()
+            probationWeight = 0
+            protectedWeight = 0
+        }
+    }
+
+    fun getStats(): Stats {
+        synchronized(lock) {
+            return Stats(
+                hits, misses, evictions, expirations,
+                probation.size + protected.size,
+                probationWeight + protectedWeight,
+                maxWeightBytes()
+            )
+        }
+    }
+
+    private fun removeKey(key: CacheKey) {
+        probation.remove(key)?.let { probationWeight -= it.weight }
+        protected.remove(key)?.let { protectedWeight -= it.weight }
+    }
+
+    private fun demoteProtectedOverflow() {
+        val protectedLimit = maxWeightBytes() * PROTECTED_PERCENT / 100
+        val iterator = protected.entries.iterator()
+        while (protectedWeight > protectedLimit && iterator.hasNext()) {
+            val (key, entry) = iterator.next()
+            iterator.remove()
+            protectedWeight -= entry.weight
+            probation[key] = entry
+            probationWeight += entry.weight
+        }
+    }
+
+    /**
+     * 超出内存上限时先淘汰试用段中最久未访问的条目，试用段为空时再淘汰保护段
+     */
+    private fun evictOverflow() {
+        val maxWeight = maxWeightBytes()
+        while (probationWeight + protectedWeight > maxWeight) {
+            val segment = if (probation.isNotEmpty()) probation else protected
+            val iterator = segment.entries.iterator()
+            if (!iterator.hasNext()) break
+            val entry = iterator.next().value
+            iterator.remove()
+            if (segment === probation) probationWeight -= entry.weight else protectedWeight -= entry.weight
+            evictions++
+        }
+    }
+
+    private fun ttlFor(index: ArtifactVersionIndex?): Long {
+        val settings = MavenVersionHelperAppSettings.getInstance()
+        val minutes = when {
+            index == null -> settings.getNegativeCacheTtlMinutes()
+            index.sortedVersions(ArtifactVersionIndex.VersionCategory.SNAPSHOT).isNotEmpty() ->
+                settings.getSnapshotCacheTtlMinutes()
+            else -> settings.getReleaseCacheTtlMinutes()
+        }
+        return TimeUnit.MINUTES.toMillis(minutes.toLong())
+    }
+
+    private fun weightOf(index: ArtifactVersionIndex?): Long {
+        return ENTRY_OVERHEAD_BYTES + (index?.estimatedBytes() ?: 0)
+    }
+
+    private fun maxWeightBytes(): Long {
+        return MavenVersionHelperAppSettings.getInstance().getVersionCacheMaxMemoryMb().toLong() * 1024 * 1024
+    }
+
+    companion object {
+        private const val PROTECTED_PERCENT = 80
+        private const val ENTRY_OVERHEAD_BYTES = 160L
+
+        /**
+         * 仓库集合的标识，与仓库顺序无关
+         */
+        fun repositorySetKey(repositoryUrls: Collection<String>): String {
+            return repositoryUrls.sorted().joinToString("|")
+        }
+
+        fun getInstance(): ArtifactVersionCache {
+            return service<ArtifactVersionCache>()
+        }
+    }
+}
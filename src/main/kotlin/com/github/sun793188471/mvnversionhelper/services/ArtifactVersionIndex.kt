@@ -0,0 +1,195 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+/**
+ * 单个构件（groupId:artifactId）的完整版本索引
+ *
+ * 解析元数据时把全部版本按类别（正式版、SNAPSHOT、qa、uat、任务号）分组并预先排序，
+ * 任意分支类型的最新版本、最新 N 个版本、某版本是否已发布都可以直接从内存中得到，
+ * 不必为不同的分支类型重新下载或解析元数据。
+ */
+class ArtifactVersionIndex private constructor(
+    // 元数据中的 <release>
+    val release: String?,
+    // 全部版本（去重），保持元数据中的原始顺序
+    val versions: List<String>,
+    private val sorted: Map<VersionCategory, List<String>>,
+    private val taskSnapshots: Map<String, List<String>>,
+    private val published: Set<String>,
+    private val latest: Map<VersionCategory, String>
+) {
+
+    /**
+     * 版本类别，SNAPSHOT 包含所有快照版本，QA/UAT/TASK 是其中的子集
+     */
+    enum class VersionCategory {
+        RELEASE,
+        SNAPSHOT,
+        QA,
+        UAT,
+        TASK
+    }
+
+    val size: Int get() = versions.size
+
+    fun isEmpty(): Boolean = release == null && versions.isEmpty()
+
+    /**
+     * 按分支类型取 Pair<release, snapshot>，与原先按分支过滤的查询结果一致
+     */
+    fun select(branchType: MavenVersionService.BranchType?): Pair<String?, String?> {
+        return Pair(release, latestSnapshot(branchType))
+    }
+
+    /**
+     * 分支类型对应的最新快照版本
+     */
+    fun latestSnapshot(branchType: MavenVersionService.BranchType?): String? {
+        return latest[categoryOf(branchType)]
+    }
+
+    /**
+     * 某类别中最新的 n 个版本，从新到旧
+     */
+    fun latest(category: VersionCategory, n: Int): List<String> {
+        val versions = sorted[category] ?: return emptyList()
+        return versions.takeLast(n.coerceAtLeast(0)).asReversed()
+    }
+
+    /**
+     * 某类别的全部版本，从旧到新
+     */
+    fun sortedVersions(category: VersionCategory): List<String> = sorted[category] ?: emptyList()
+
+    /**
+     * 某任务号下的全部快照版本，从旧到新
+     */
+    fun snapshotsForTask(taskNumber: String): List<String> = taskSnapshots[taskNumber] ?: emptyList()
+
+    /**
+     * 该版本是否已发布到仓库
+     */
+    fun isPublished(version: String): Boolean = version in published
+
+    /**
+     * 粗略估算索引占用的内存（字节），用于限制内存缓存大小
+     * 每个版本字符串按对象头加字符数计算，另计原始列表、分组列表和已发布集合中的引用
+     */
+    fun estimatedBytes(): Long {
+        var bytes = BASE_BYTES
+        for (version in versions) {
+            bytes += STRING_OVERHEAD_BYTES + version.length + REFERENCES_PER_VERSION * REFERENCE_BYTES
+        }
+        return bytes
+    }
+
+    /**
+     * 合并两份索引（如本地仓库中不同远程仓库的元数据），release 和各类别最新版本取较大者
+     */
+    fun merge(other: ArtifactVersionIndex): ArtifactVersionIndex {
+        val builder = Builder()
+        builder.release(higher(release, other.release))
+        versions.forEach { builder.addVersion(it) }
+        other.versions.forEach { builder.addVersion(it) }
+        return builder.build { category -> higher(latest[category], other.latest[category]) }
+    }
+
+    /**
+     * 按解析顺序接收 release 和 version，构建索引，重复的版本只保留第一次出现的位置
+     * 各类别最新版本的选取规则与原先的逐个比较保持一致：相等时保留先出现的版本，任务号版本取最后出现的
+     */
+    class Builder {
+        private val comparator = VersionComparator()
+        private var release: String? = null
+        private val versions = LinkedHashSet<String>()
+        private val byCategory = HashMap<VersionCategory, MutableList<String>>()
+        private val taskSnapshots = HashMap<String, MutableList<String>>()
+        private val latest = HashMap<VersionCategory, String>()
+
+        /**
+         * 只保留第一个 release
+         */
+        fun release(version: String?) {
+            if (release == null) release = version
+        }
+
+        fun addVersion(version: String) {
+            if (!versions.add(version)) {
+                // 重复出现的任务号版本不再收录，但最后出现的位置仍决定最新的任务号版本
+                if (isTaskSnapshot(version)) {
+                    latest[VersionCategory.TASK] = version
+                }
+                return
+            }
+            if (!version.endsWith(SNAPSHOT_SUFFIX, ignoreCase = true)) {
+                add(VersionCategory.RELEASE, version)
+                return
+            }
+
+            addAndTrackMax(VersionCategory.SNAPSHOT, version)
+            val isQa = version.contains("qa", ignoreCase = true)
+            val isUat = version.contains("uat", ignoreCase = true)
+            if (isQa) addAndTrackMax(VersionCategory.QA, version)
+            if (isUat) addAndTrackMax(VersionCategory.UAT, version)
+            if (!isQa && !isUat) {
+                val match = TASK_SNAPSHOT_REGEX.find(version) ?: return
+                // 任务号版本直接取最后出现的，version 列表本身就是按发布时间排序的
+                add(VersionCategory.TASK, version)
+                latest[VersionCategory.TASK] = version
+                taskSnapshots.getOrPut(match.groupValues[1]) { ArrayList() }.add(version)
+            }
+        }
+
+        fun build(): ArtifactVersionIndex = build { latest[it] }
+
+        internal fun build(latestOf: (VersionCategory) -> String?): ArtifactVersionIndex {
+            val sorted = byCategory.mapValues { (_, list) -> list.sortedWith(comparator) }
+            val tasks = taskSnapshots.mapValues { (_, list) -> list.sortedWith(comparator) }
+            val latestVersions = HashMap<VersionCategory, String>()
+            VersionCategory.values().forEach { category -> latestOf(category)?.let { latestVersions[category] = it } }
+            return ArtifactVersionIndex(release, versions.toList(), sorted, tasks, HashSet(versions), latestVersions)
+        }
+
+        private fun isTaskSnapshot(version: String): Boolean {
+            return !version.contains("qa", ignoreCase = true) && !version.contains("uat", ignoreCase = true) &&
+                    TASK_SNAPSHOT_REGEX.containsMatchIn(version)
+        }
+
+        private fun add(category: VersionCategory, version: String) {
+            byCategory.getOrPut(category) { ArrayList() }.add(version)
+        }
+
+        private fun addAndTrackMax(category: VersionCategory, version: String) {
+            add(category, version)
+            val current = latest[category]
+            if (current == null || comparator.compare(current, version) < 0) {
+                latest[category] = version
+            }
+        }
+    }
+
+    companion object {
+        private const val SNAPSHOT_SUFFIX = "-SNAPSHOT"
+        private const val BASE_BYTES = 512L
+        private const val STRING_OVERHEAD_BYTES = 40L
+        private const val REFERENCES_PER_VERSION = 6
+        private const val REFERENCE_BYTES = 8L
+        private val TASK_SNAPSHOT_REGEX = Regex("-(\\d+)-SNAPSHOT$", RegexOption.IGNORE_CASE)
+
+        val EMPTY: ArtifactVersionIndex = Builder().build()
+
+        fun categoryOf(branchType: MavenVersionService.BranchType?): VersionCategory {
+            return when (branchType) {
+                MavenVersionService.BranchType.QA -> VersionCategory.QA
+                MavenVersionService.BranchType.UAT -> VersionCategory.UAT
+                MavenVersionService.BranchType.TASK -> VersionCategory.TASK
+                else -> VersionCategory.SNAPSHOT
+            }
+        }
+
+        private fun higher(v1: String?, v2: String?): String? {
+            if (v1 == null) return v2
+            if (v2 == null) return v1
+            return if (VersionComparator().compare(v1, v2) >= 0) v1 else v2
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import java.net.URI
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Semaphore
+
+/**
+ * 按主机限制同时进行的请求数，避免触发仓库（如内部 Nexus）的限流
+ */
+class HostConcurrencyLimiter(private val limitProvider: () -> Int) {
+
+    private class HostPermits(val limit: Int, val semaphore: Semaphore)
+
+    private val permits = ConcurrentHashMap<String, HostPermits>()
+
+    fun <T> withPermit(url: String, action: () -> T): T {
+        val semaphore = permitsFor(hostOf(url))
+        semaphore.acquire()
+        try {
+            return action()
+        } finally {
+            semaphore.release()
+        }
+    }
+
+    private fun permitsFor(host: String): Semaphore {
+        val limit = limitProvider().coerceAtLeast(1)
+        // 配置变化后换用新的信号量，持有旧信号量的请求完成后自然释放
+        return permits.compute(host) { _, current ->
+            if (current != null && current.limit == limit) current else HostPermits(limit, Semaphore(limit, true))
+        }!!.semaphore
+    }
+
+    private fun hostOf(url: String): String {
+        return try {
+            URI(url).authority ?: url
+        } catch (e: Exception) {
+            url
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.util.concurrency.AppExecutorUtil
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutorService
+
+/**
+ * 本地仓库（~/.m2/repository）元数据读取
+ *
+ * 读取构件目录下的 maven-metadata-local.xml 和 maven-metadata-<repoId>.xml，
+ * 多个文件并行解析后合并，不访问网络，可以立即返回。
+ */
+class LocalRepositoryProvider(private val localRepositoryProvider: () -> Path?) {
+
+    private val logger = Logger.getInstance(LocalRepositoryProvider::class.java)
+    private val executor: ExecutorService =
+        AppExecutorUtil.createBoundedApplicationPoolExecutor("Maven Local Repository", 4)
+
+    /**
+     * 本地元数据汇总，lastModified 为其中最新文件的修改时间
+     */
+    data class LocalMetadata(
+        val versions: ArtifactVersionIndex,
+        val lastModified: Long
+    ) {
+        fun isFresh(ttlMillis: Long): Boolean = System.currentTimeMillis() - lastModified < ttlMillis
+    }
+
+    /**
+     * 读取本地仓库中该构件的元数据，本地没有时返回 null
+     */
+    fun read(groupId: String, artifactId: String): LocalMetadata? {
+        val repository = localRepositoryProvider() ?: return null
+        val artifactDir = repository.resolve(groupId.replace('.', '/')).resolve(artifactId)
+        if (!Files.isDirectory(artifactDir)) return null
+
+        val metadataFiles = try {
+            Files.newDirectoryStream(artifactDir, METADATA_GLOB).use { stream ->
+                stream.filter { Files.isRegularFile(it) }
+            }
+        } catch (e: IOException) {
+            logger.debug("读取本地仓库目录失败: $artifactDir", e)
+            return null
+        }
+        if (metadataFiles.isEmpty()) return null
+
+        val futures = metadataFiles.map { file -> CompletableFuture.supplyAsync({ readFile(file) }, executor) }
+        val results = futures.mapNotNull { it.join() }
+        if (results.isEmpty()) return null
+
+        return results.reduce { merged, next ->
+            LocalMetadata(merged.versions.merge(next.versions), maxOf(merged.lastModified, next.lastModified))
+        }
+    }
+
+    private fun readFile(file: Path): LocalMetadata? {
+        return try {
+            val lastModified = Files.getLastModifiedTime(file).toMillis()
+            val versions = Files.newInputStream(file).use { MavenMetadataParser.parse(it) }
+            LocalMetadata(versions, lastModified)
+        } catch (e: Exception) {
+            logger.debug("解析本地元数据失败: $file", e)
+            null
+        }
+    }
+
+    fun dispose() {
+        executor.shutdownNow()
+    }
+
+    companion object {
+        private const val METADATA_GLOB = "maven-metadata-*.xml"
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import org.jetbrains.idea.maven.project.MavenImportListener
+import org.jetbrains.idea.maven.project.MavenProject
+import org.jetbrains.idea.maven.project.MavenProjectsManager
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 模块坐标的统一入口
+ *
+ * 已导入的模块直接使用 MavenProjectsManager 中解析好的模型（groupId 已继承、属性已插值），
+ * 按文件查找，每个模块 O(1)；没有导入的文件退回到 POM 扫描结果。两条路径都不读取 PSI，不需要读操作。
+ * 导入后 POM 又被修改（例如刚更新过版本号、尚未重新导入）时导入的模型已过期，
+ * 扫描到的字面值优先；只有扫描结果是 ${...} 这类需要插值的写法时才继续使用导入的值。
+ */
+@Service(Service.Level.PROJECT)
+class MavenCoordinateProvider(private val project: Project) : Disposable {
+
+    // 导入完成时各 POM 文件的修改标记，与扫描时的标记一致说明导入后没有修改过
+    private val importedStamps = ConcurrentHashMap<VirtualFile, Long>()
+
+    init {
+        project.messageBus.connect(this).subscribe(MavenImportListener.TOPIC, object : MavenImportListener {
+            override fun importFinished(importedProjects: Collection<MavenProject>, newModules: List<Module>) {
+                importedProjects.forEach { mavenProject ->
+                    val file = mavenProject.file
+                    if (file.isValid) importedStamps[file] = PomCoordinateParser.currentStamp(file)
+                }
+            }
+        })
+    }
+
+    /**
+     * 模块坐标，imported 表示来自导入的 Maven 模型
+     */
+    data class ModuleCoordinates(
+        val groupId: String?,
+        val artifactId: String?,
+        val version: String?,
+        val packaging: String?,
+        val imported: Boolean
+    ) {
+        val key: String?
+            get() {
+                val groupId = groupId ?: return null
+                val artifactId = artifactId ?: return null
+                return "$groupId:$artifactId"
+            }
+    }
+
+    fun getCoordinates(pom: PomCoordinates): ModuleCoordinates {
+        val mavenProject = MavenProjectsManager.getInstance(project).findProject(pom.file)
+        if (mavenProject != null) {
+            val mavenId = mavenProject.mavenId
+            // 没有记录导入时的标记（项目打开前已导入）也按可能过期处理
+            val upToDate = importedStamps[pom.file] == pom.stamp
+            return ModuleCoordinates(
+                pick(mavenId.groupId, pom.effectiveGroupId, upToDate),
+                pick(mavenId.artifactId, pom.artifactId, upToDate),
+                pick(mavenId.version, pom.effectiveVersion, upToDate),
+                mavenProject.packaging,
+                imported = true
+            )
+        }
+        return ModuleCoordinates(pom.effectiveGroupId, pom.artifactId, pom.effectiveVersion, pom.packaging, imported = false)
+    }
+
+    /**
+     * 导入后未修改时取导入的值；否则扫描到字面值时以扫描结果为准
+     */
+    private fun pick(imported: String?, scanned: String?, upToDate: Boolean): String? {
+        if (imported == null) return scanned
+        if (upToDate || scanned == null || scanned.contains("\${")) return imported
+        return scanned
+    }
+
+    override fun dispose() {
+        importedStamps.clear()
+    }
+
+    companion object {
+        fun getInstance(project: Project): MavenCoordinateProvider {
+            return project.getService(MavenCoordinateProvider::class.java)
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.diagnostic.Logger
+import java.io.FilterInputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import java.util.Properties
+
+/**
+ * maven-metadata.xml 的磁盘缓存
+ *
+ * 缓存目录位于 IDE system 目录下，每个元数据 URL（仓库 + groupId + artifactId）对应一个 xml 文件
+ * 和一个记录 ETag/Last-Modified/获取时间的 properties 文件，IDE 重启后依然有效。
+ */
+@Service(Service.Level.APP)
+class MavenMetadataCache {
+
+    private val logger = Logger.getInstance(MavenMetadataCache::class.java)
+
+    private val cacheDir: Path = Paths.get(PathManager.getSystemPath(), "mvn_version_helper", "metadata")
+
+    // 在此时间之前获取的缓存都视为过期，用于“刷新”时强制重新校验
+    @Volatile
+    private var staleBefore: Long = 0
+
+    data class CachedMetadata(
+        val contentFile: Path,
+        val etag: String?,
+        val lastModified: String?,
+        val fetchedAt: Long
+    )
+
+    /**
+     * 读取缓存条目，不存在或已损坏时返回 null
+     */
+    fun get(metadataUrl: String): CachedMetadata? {
+        val key = keyOf(metadataUrl)
+        val contentFile = cacheDir.resolve("$key.xml")
+        val metaFile = cacheDir.resolve("$key.properties")
+        if (!Files.isRegularFile(contentFile) || !Files.isRegularFile(metaFile)) return null
+
+        return try {
+            val props = Properties()
+            Files.newInputStream(metaFile).use { props.load(it) }
+            CachedMetadata(
+                contentFile = contentFile,
+                etag = props.getProperty(ETAG),
+                lastModified = props.getProperty(LAST_MODIFIED),
+                fetchedAt = props.getProperty(FETCHED_AT)?.toLongOrNull() ?: 0
+            )
+        } catch (e: IOException) {
+            logger.debug("读取元数据缓存失败: $metadataUrl", e)
+            null
+        }
+    }
+
+    /**
+     * 判断缓存条目在给定有效期内是否仍然新鲜
+     */
+    fun isFresh(entry: CachedMetadata, ttlMillis: Long): Boolean {
+        if (entry.fetchedAt < staleBefore) return false
+        return System.currentTimeMillis() - entry.fetchedAt < ttlMillis
+    }
+
+    /**
+     * 边解析响应流边写入缓存，先写临时文件再原子替换，避免并发读到半个文件
+     * 缓存写入失败时只记录日志，照常直接解析响应内容，本次结果不缓存
+     */
+    fun <T> put(
+        metadataUrl: String,
+        content: InputStream,
+        etag: String?,
+        lastModified: String?,
+        parse: (InputStream) -> T
+    ): T {
+        val key = keyOf(metadataUrl)
+        val tmpContent = try {
+            Files.createDirectories(cacheDir)
+            Files.createTempFile(cacheDir, key, ".xml.tmp")
+        } catch (e: IOException) {
+            logger.warn("写入元数据缓存失败，直接解析响应内容: $metadataUrl", e)
+            return parse(content)
+        }
+
+        try {
+            val input = CacheWritingInputStream(content, tmpContent)
+            val result = try {
+                parse(input).also { input.drain() }
+            } finally {
+                input.closeCache()
+            }
+            val failure = input.failure
+            if (failure != null) {
+                logger.warn("写入元数据缓存失败，本次结果不缓存: $metadataUrl", failure)
+                return result
+            }
+            try {
+                Files.move(
+                    tmpContent, cacheDir.resolve("$key.xml"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+                )
+                writeMeta(key, metadataUrl, etag, lastModified, System.currentTimeMillis())
+            } catch (e: IOException) {
+                logger.warn("写入元数据缓存失败，本次结果不缓存: $metadataUrl", e)
+            }
+            return result
+        } finally {
+            try {
+                Files.deleteIfExists(tmpContent)
+            } catch (e: IOException) {
+                logger.debug("删除元数据缓存临时文件失败: $tmpContent", e)
+            }
+        }
+    }
+
+    /**
+     * 服务端返回 304 时只刷新获取时间
+     */
+    fun touch(metadataUrl: String, entry: CachedMetadata) {
+        try {
+            writeMeta(keyOf(metadataUrl), metadataUrl, entry.etag, entry.lastModified, System.currentTimeMillis())
+        } catch (e: IOException) {
+            logger.debug("更新元数据缓存时间失败: $metadataUrl", e)
+        }
+    }
+
+    /**
+     * 将现有缓存全部标记为过期，下次访问时通过条件请求重新校验
+     */
+    fun invalidateAll() {
+        staleBefore = System.currentTimeMillis()
+    }
+
+    /**
+     * 删除磁盘上的全部缓存文件
+     */
+    fun clear() {
+        invalidateAll()
+        if (!Files.isDirectory(cacheDir)) return
+        try {
+            Files.newDirectoryStream(cacheDir).use { stream ->
+                stream.forEach { Files.deleteIfExists(it) }
+            }
+        } catch (e: IOException) {
+            logger.warn("清空元数据缓存失败", e)
+        }
+    }
+
+    private fun writeMeta(key: String, metadataUrl: String, etag: String?, lastModified: String?, fetchedAt: Long) {
+        Files.createDirectories(cacheDir)
+        val props = Properties()
+        props.setProperty(URL, metadataUrl)
+        etag?.let { props.setProperty(ETAG, it) }
+        lastModified?.let { props.setProperty(LAST_MODIFIED, it) }
+        props.setProperty(FETCHED_AT, fetchedAt.toString())
+
+        val tmpMeta = Files.createTempFile(cacheDir, key, ".properties.tmp")
+        Files.newOutputStream(tmpMeta).use { props.store(it, null) }
+        Files.move(
+            tmpMeta, cacheDir.resolve("$key.properties"),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+        )
+    }
+
+    /**
+     * 读取时把内容同时写入缓存文件；写入出错后放弃缓存并记下异常，读取不受影响
+     */
+    private class CacheWritingInputStream(source: InputStream, file: Path) : FilterInputStream(source) {
+        private var out: OutputStream? = null
+
+        var failure: IOException? = null
+            private set
+
+        init {
+            try {
+                out = Files.newOutputStream(file)
+            } catch (e: IOException) {
+                failure = e
+            }
+        }
+
+        override fun read(): Int {
+            val b = super.read()
+            if (b >= 0) write { it.write(b) }
+            return b
+        }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            val n = super.read(b, off, len)
+            if (n > 0) write { it.write(b, off, n) }
+            return n
+        }
+
+        // 跳过的内容也要写入缓存
+        override fun skip(n: Long): Long {
+            val buffer = ByteArray(minOf(n, BUFFER_SIZE.toLong()).toInt().coerceAtLeast(1))
+            var skipped = 0L
+            while (skipped < n) {
+                val read = read(buffer, 0, minOf(n - skipped, buffer.size.toLong()).toInt())
+                if (read < 0) break
+                skipped += read
+            }
+            return skipped
+        }
+
+        override fun markSupported(): Boolean = false
+
+        /**
+         * 解析器读到根元素结束就会停止，把剩余内容也读完，缓存文件才完整；读取失败时放弃缓存
+         */
+        fun drain() {
+            if (out == null) return
+            try {
+                val buffer = ByteArray(BUFFER_SIZE)
+                while (read(buffer, 0, buffer.size) >= 0) {
+                    if (out == null) return
+                }
+            } catch (e: IOException) {
+                abandon(e)
+            }
+        }
+
+        fun closeCache() {
+            val current = out ?: return
+            out = null
+            try {
+                current.close()
+            } catch (e: IOException) {
+                failure = failure ?: e
+            }
+        }
+
+        // 响应流由调用方负责关闭
+        override fun close() {
+            closeCache()
+        }
+
+        private inline fun write(action: (OutputStream) -> Unit) {
+            val current = out ?: return
+            try {
+                action(current)
+            } catch (e: IOException) {
+                abandon(e)
+            }
+        }
+
+        private fun abandon(e: IOException) {
+            failure = failure ?: e
+            val current = out ?: return
+            out = null
+            try {
+                current.close()
+            } catch (ignored: IOException) {
+            }
+        }
+    }
+
+    private fun keyOf(metadataUrl: String): String {
+        val digest = MessageDigest.getInstance("SHA-1").digest(metadataUrl.toByteArray(Charsets.UTF_8))
+        return digest.joinToString("") { "%02x".format(it) }
+    }
+
+    companion object {
+        private const val URL = "url"
+        private const val ETAG = "etag"
+        private const val LAST_MODIFIED = "lastModified"
+        private const val FETCHED_AT = "fetchedAt"
+        private const val BUFFER_SIZE = 8192
+
+        fun getInstance(): MavenMetadataCache {
+            return service<MavenMetadataCache>()
+        }
+    }
+}
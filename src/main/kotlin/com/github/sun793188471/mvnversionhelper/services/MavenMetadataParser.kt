@@ -0,0 +1,61 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import java.io.InputStream
+import javax.xml.stream.XMLInputFactory
+import javax.xml.stream.XMLStreamConstants
+
+/**
+ * maven-metadata.xml 流式解析器
+ *
+ * 直接在输入流上拉取解析，不把整个文件读成字符串，
+ * 解析出的 release 和 version 按顺序交给 ArtifactVersionIndex.Builder 分组排序。
+ */
+object MavenMetadataParser {
+
+    fun parse(input: InputStream): ArtifactVersionIndex {
+        val factory = XMLInputFactory.newDefaultFactory()
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false)
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false)
+
+        val reader = factory.createXMLStreamReader(input)
+        val builder = ArtifactVersionIndex.Builder()
+        val text = StringBuilder()
+        var releaseSeen = false
+
+        // 当前正在收集文本的元素：release / version，其余元素忽略
+        var collecting: String? = null
+
+        try {
+            while (reader.hasNext()) {
+                when (reader.next()) {
+                    XMLStreamConstants.START_ELEMENT -> {
+                        val name = reader.localName
+                        collecting = if (name == "version" || (name == "release" && !releaseSeen)) name else null
+                        text.setLength(0)
+                    }
+
+                    XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (collecting != null) {
+                            text.append(reader.textCharacters, reader.textStart, reader.textLength)
+                        }
+                    }
+
+                    XMLStreamConstants.END_ELEMENT -> {
+                        when (collecting) {
+                            "release" -> {
+                                builder.release(text.toString().trim())
+                                releaseSeen = true
+                            }
+                            "version" -> builder.addVersion(text.toString())
+                        }
+                        collecting = null
+                    }
+                }
+            }
+        } finally {
+            reader.close()
+        }
+
+        return builder.build()
+    }
+}
@@ -1,16 +1,71 @@
 package com.github.sun793188471.mvnversionhelper.services
 
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings.RepositoryLookupMode
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperSettings
+import com.intellij.openapi.Disposable
 import com.intellij.openapi.components.Service
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.module.Module
 import com.intellij.openapi.project.Project
+import com.intellij.util.concurrency.AppExecutorUtil
+import org.jetbrains.annotations.TestOnly
+import org.jetbrains.idea.maven.project.MavenImportListener
 import org.jetbrains.idea.maven.project.MavenProject
 import org.jetbrains.idea.maven.project.MavenProjectsManager
-import java.net.URL
+import java.io.FileNotFoundException
+import java.io.IOException
+import java.io.InputStream
+import java.net.URI
+import java.net.http.HttpTimeoutException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
 
 @Service(Service.Level.PROJECT)
-class MavenRepositoryService(private val project: Project) {
+class MavenRepositoryService(private val project: Project) : Disposable {
 
     private val logger = Logger.getInstance(MavenRepositoryService::class.java)
+    private val metadataCache = MavenMetadataCache.getInstance()
+    private val appSettings = MavenVersionHelperAppSettings.getInstance()
+    private val latencyTracker = RepositoryLatencyTracker.getInstance()
+    private val httpClient = RepositoryHttpClient.getInstance()
+    private val routingTable = RepositoryRoutingTable.getInstance()
+    private val circuitBreaker = RepositoryCircuitBreaker.getInstance()
+    private val versionCache = ArtifactVersionCache.getInstance()
+    private val lookupExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Maven Repository Lookup", 16)
+    // 所有批量查询共用，每个批次自己限制工作任务数，这里只需容纳配置允许的最大并发
+    private val batchExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Maven Batch Lookup", MAX_BATCH_PARALLELISM)
+    private val hostLimiter = HostConcurrencyLimiter { appSettings.getMaxRequestsPerHost() }
+    private val localRepository = LocalRepositoryProvider { getLocalRepositoryPath() }
+
+    // 进行中的前台批量查询数，大于 0 时后台预取不再发起新的查询
+    private val foregroundLock = ReentrantLock()
+    private val foregroundIdle = foregroundLock.newCondition()
+    private var foregroundBatches = 0
+
+    @Volatile
+    private var cachedRepositoryUrls: List<String>? = null
+
+    // 同一构件的并发查询合并为一次，key 为 groupId:artifactId|查询类别
+    private val inFlightLookups = SingleFlight<String, ArtifactVersionIndex?>()
+
+    // 元数据URL -> (缓存文件修改时间, 解析出的版本索引)
+    private val parsedIndexes = ConcurrentHashMap<String, Pair<Long, ArtifactVersionIndex>>()
+
+    init {
+        project.messageBus.connect(this).subscribe(MavenImportListener.TOPIC, object : MavenImportListener {
+            override fun importFinished(importedProjects: Collection<MavenProject>, newModules: List<Module>) {
+                invalidateRepositoryUrls()
+            }
+        })
+    }
 
     data class VersionInfo(
         val groupId: String,
@@ -20,15 +75,36 @@ class MavenRepositoryService(private val project: Project) {
         val currentVersion: String? = null
     )
 
+    /**
+     * 批量查询的构件坐标，按 groupId:artifactId 去重，version 仅作调用方标识
+     */
+    data class ArtifactCoordinate(
+        val groupId: String,
+        val artifactId: String,
+        val version: String? = null
+    ) {
+        val key: String get() = "$groupId:$artifactId"
+    }
+
     private fun getMavenProjectsManager(): MavenProjectsManager {
         return MavenProjectsManager.getInstance(project)
     }
 
     /**
-     * 从项目的Maven配置中获取仓库URL列表
+     * 获取仓库URL列表，每次 Maven 导入后只扫描一次
      */
     private fun getRepositoryUrls(): List<String> {
-        val repositories = mutableSetOf<String>()
+        cachedRepositoryUrls?.let { return it }
+        return synchronized(this) {
+            cachedRepositoryUrls ?: resolveRepositoryUrls()
+        }
+    }
+
+    /**
+     * 从项目的Maven配置中获取仓库URL列表，规范化并去重
+     */
+    private fun resolveRepositoryUrls(): List<String> {
+        val repositories = linkedSetOf<String>()
 
         try {
             val mavenProjectsManager = getMavenProjectsManager()
@@ -38,241 +114,567 @@ class MavenRepositoryService(private val project: Project) {
             mavenProjects.forEach { mavenProject ->
                 // 获取项目配置的仓库
                 mavenProject.remoteRepositories.forEach { repo ->
-                    repositories.add(repo.url)
+                    normalizeRepositoryUrl(repo.url)?.let { repositories.add(it) }
                 }
             }
 
             // 如果没有配置仓库，添加默认的中央仓库
             if (repositories.isEmpty()) {
-                repositories.add("https://repo.maven.apache.org/maven2/")
+                repositories.add(DEFAULT_REPOSITORY_URL)
             }
-
         } catch (e: Exception) {
+            // 获取失败时不缓存，下次查询重试
             logger.warn("获取Maven仓库配置失败", e)
-            repositories.add("https://repo.maven.apache.org/maven2/")
+            return listOf(DEFAULT_REPOSITORY_URL)
         }
 
         logger.info("找到Maven仓库: $repositories")
-        return repositories.toList()
+        val result = repositories.toList()
+        cachedRepositoryUrls = result
+        return result
+    }
+
+    private fun normalizeRepositoryUrl(url: String?): String? {
+        val trimmed = url?.trim()
+        if (trimmed.isNullOrEmpty()) return null
+        return trimmed.trimEnd('/') + "/"
+    }
+
+    /**
+     * 直接指定仓库列表，不读取 Maven 导入的配置；下次 Maven 导入后恢复为导入的配置
+     */
+    @TestOnly
+    internal fun setRepositoryUrls(urls: List<String>) {
+        cachedRepositoryUrls = urls.mapNotNull { normalizeRepositoryUrl(it) }
+    }
+
+    /**
+     * Maven 重新导入后仓库配置可能变化，清除缓存的仓库列表
+     */
+    fun invalidateRepositoryUrls() {
+        cachedRepositoryUrls = null
     }
 
     /**
-     * 查询远程仓库中的版本信息
+     * IDE Maven 设置中的本地仓库路径，未配置时使用 ~/.m2/repository
+     */
+    private fun getLocalRepositoryPath(): Path? {
+        return try {
+            getMavenProjectsManager().localRepository?.toPath()
+        } catch (e: Exception) {
+            logger.debug("获取本地仓库路径失败", e)
+            null
+        } ?: Paths.get(System.getProperty("user.home"), ".m2", "repository")
+    }
+
+    override fun dispose() {
+        lookupExecutor.shutdownNow()
+        batchExecutor.shutdownNow()
+        localRepository.dispose()
+    }
+
+    /**
+     * 查询构件的版本信息，返回分支类型对应的 Pair<release, snapshot>
      */
     fun getRemoteVersions(
         groupId: String,
         artifactId: String,
         branchType: MavenVersionService.BranchType? = null
     ): Pair<String?, String?> {
-        val repositories = getRepositoryUrls()
+        val scope = ArtifactVersionIndex.categoryOf(branchType).name
+        val index = cachedLookup(groupId, artifactId, scope) { hasVersions(it.select(branchType)) }
+        return index?.select(branchType) ?: Pair(null, null)
+    }
+
+    /**
+     * 查询构件的完整版本索引，可从中取任意分支类型的最新版本、最新 N 个版本或判断版本是否已发布
+     */
+    fun getVersionIndex(groupId: String, artifactId: String): ArtifactVersionIndex? {
+        return cachedLookup(groupId, artifactId, ANY_VERSION) { !it.isEmpty() }
+    }
+
+    /**
+     * 先查应用级内存缓存（仓库配置相同的项目共享），未命中时合并同一构件的并发查询，结果写回缓存
+     * 离线模式只读本地仓库，足够快，不写缓存，避免切回在线后仍使用离线时的结果
+     * 查询线程被中断（如发起查询的对话框已关闭）时抛出 InterruptedException，不缓存不完整的结果
+     */
+    private fun cachedLookup(
+        groupId: String,
+        artifactId: String,
+        scope: String,
+        accept: (ArtifactVersionIndex) -> Boolean
+    ): ArtifactVersionIndex? {
+        val offline = MavenVersionHelperSettings.getInstance(project).isOfflineMode()
+        val repositories = ArtifactVersionCache.repositorySetKey(getRepositoryUrls())
+        if (!offline) {
+            versionCache.get(repositories, groupId, artifactId, scope)?.let { return it.index }
+        }
+        return inFlightLookups.execute("$groupId:$artifactId|$scope") {
+            val index = lookupVersionIndex(groupId, artifactId, accept)
+            if (Thread.interrupted()) throw InterruptedException("查询已取消: $groupId:$artifactId")
+            if (!offline) versionCache.put(repositories, groupId, artifactId, scope, index)
+            index
+        }
+    }
+
+    /**
+     * 本地仓库有未过期的数据时直接返回；没有数据或已过期时查询远程仓库，远程失败再退回本地数据。
+     * 离线模式下只读取本地仓库。accept 判断某个仓库的结果是否可用，不可用时继续查询下一个仓库。
+     */
+    private fun lookupVersionIndex(
+        groupId: String,
+        artifactId: String,
+        accept: (ArtifactVersionIndex) -> Boolean
+    ): ArtifactVersionIndex? {
+        val local = try {
+            localRepository.read(groupId, artifactId)
+        } catch (e: Exception) {
+            logger.debug("读取本地仓库元数据失败: $groupId:$artifactId", e)
+            null
+        }
+
+        if (MavenVersionHelperSettings.getInstance(project).isOfflineMode()) {
+            return local?.versions
+        }
+
+        val ttlMillis = TimeUnit.MINUTES.toMillis(appSettings.getMetadataCacheTtlMinutes().toLong())
+        if (local != null && local.isFresh(ttlMillis) && accept(local.versions)) {
+            logger.debug("使用本地仓库元数据: $groupId:$artifactId")
+            return local.versions
+        }
+
+        val remoteIndex = getIndexFromRemoteRepositories(groupId, artifactId, accept)
+        if (remoteIndex == null && local != null) {
+            logger.debug("远程仓库未返回版本，使用本地仓库元数据: $groupId:$artifactId")
+            return local.versions
+        }
+        return remoteIndex
+    }
+
+    private fun hasVersions(versions: Pair<String?, String?>): Boolean {
+        return versions.first != null || versions.second != null
+    }
+
+    /**
+     * 查询远程仓库中的版本索引
+     */
+    private fun getIndexFromRemoteRepositories(
+        groupId: String,
+        artifactId: String,
+        accept: (ArtifactVersionIndex) -> Boolean
+    ): ArtifactVersionIndex? {
+        // 按路由表排序：已知提供该 groupId 的仓库优先，近期 404 的仓库跳过
+        val repositories = routingTable.route(getRepositoryUrls(), groupId, artifactId)
+
+        return when (val mode = appSettings.getRepositoryLookupMode()) {
+            RepositoryLookupMode.SEQUENTIAL -> getIndexSequentially(repositories, groupId, artifactId, accept)
+            RepositoryLookupMode.PARALLEL, RepositoryLookupMode.HEDGED ->
+                raceRepositories(repositories, groupId, artifactId, accept, mode == RepositoryLookupMode.HEDGED)
+        }
+    }
+
+    /**
+     * 批量查询远程版本，结果按完成顺序通过回调返回
+     * 相同 groupId:artifactId 只查询一次、回调一次；回调在后台线程执行，
+     * 单个构件查询失败时回调 Pair(null, null)。返回的 Future 在全部构件处理完成后结束。
+     */
+    fun getRemoteVersionsBatch(
+        coordinates: Collection<ArtifactCoordinate>,
+        branchType: MavenVersionService.BranchType? = null,
+        callback: (ArtifactCoordinate, Pair<String?, String?>) -> Unit
+    ): CompletableFuture<Void> {
+        return lookupBatch(coordinates, branchType, callback).future
+    }
 
+    /**
+     * 与 getRemoteVersionsBatch 相同，按 coordinates 的顺序查询，
+     * 返回的批次可以在查询过程中调整顺序或取消
+     */
+    fun lookupBatch(
+        coordinates: Collection<ArtifactCoordinate>,
+        branchType: MavenVersionService.BranchType? = null,
+        callback: (ArtifactCoordinate, Pair<String?, String?>) -> Unit
+    ): PrioritizedBatchLookup {
+        foregroundLock.withLock { foregroundBatches++ }
+        val batch = startBatch(coordinates, branchType, appSettings.getBatchParallelism(), {}, callback)
+        // 全部构件处理完成或批次取消后，后台预取继续
+        batch.future.whenComplete { _, _ ->
+            foregroundLock.withLock {
+                foregroundBatches--
+                if (foregroundBatches == 0) foregroundIdle.signalAll()
+            }
+        }
+        return batch
+    }
+
+    /**
+     * 后台预取版本，结果只用于填充缓存
+     * 与前台批量查询共用线程池和主机并发许可，因此只用少量工作任务，
+     * 并且在前台批量查询进行时暂停发起新的查询，对话框的查询不必排在预取请求后面。
+     */
+    fun prefetchInBackground(
+        coordinates: Collection<ArtifactCoordinate>,
+        branchType: MavenVersionService.BranchType? = null
+    ): PrioritizedBatchLookup {
+        return startBatch(coordinates, branchType, BACKGROUND_BATCH_PARALLELISM, ::awaitForegroundIdle) { _, _ -> }
+    }
+
+    private fun awaitForegroundIdle() {
+        foregroundLock.withLock {
+            while (foregroundBatches > 0) foregroundIdle.await()
+        }
+    }
+
+    /**
+     * beforeLookup 在每个构件查询前调用，可以阻塞；被中断时批次已取消
+     */
+    private fun startBatch(
+        coordinates: Collection<ArtifactCoordinate>,
+        branchType: MavenVersionService.BranchType?,
+        parallelism: Int,
+        beforeLookup: () -> Unit,
+        callback: (ArtifactCoordinate, Pair<String?, String?>) -> Unit
+    ): PrioritizedBatchLookup {
+        val unique = coordinates.distinctBy { it.key }
+        val batch = PrioritizedBatchLookup(unique) { coordinate ->
+            val versions = try {
+                beforeLookup()
+                getRemoteVersions(coordinate.groupId, coordinate.artifactId, branchType)
+            } catch (e: InterruptedException) {
+                // 批次已取消，不再回调
+                Thread.currentThread().interrupt()
+                return@PrioritizedBatchLookup
+            } catch (e: Exception) {
+                logger.warn("批量查询版本失败: ${coordinate.key}", e)
+                Pair(null, null)
+            }
+            callback(coordinate, versions)
+        }
+
+        batch.start(batchExecutor, parallelism.coerceAtMost(MAX_BATCH_PARALLELISM))
+        return batch
+    }
+
+    /**
+     * 按配置顺序逐个仓库查询，前一个失败才查询下一个
+     */
+    private fun getIndexSequentially(
+        repositories: List<String>,
+        groupId: String,
+        artifactId: String,
+        accept: (ArtifactVersionIndex) -> Boolean
+    ): ArtifactVersionIndex? {
         for (repoUrl in repositories) {
             try {
-                val versions = getVersionsFromRepository(repoUrl, groupId, artifactId, branchType)
-                if (versions.first != null || versions.second != null) {
-                    logger.info("从仓库 $repoUrl 获取到版本信息: Release=${versions.first}, Latest=${versions.second}")
-                    return versions
+                val index = getIndexFromRepository(repoUrl, groupId, artifactId)
+                if (index != null && accept(index)) {
+                    logger.info("从仓库 $repoUrl 获取到版本信息: Release=${index.release}, 版本数=${index.size}")
+                    return index
                 }
+            } catch (e: InterruptedException) {
+                throw e
             } catch (e: Exception) {
                 logger.warn("从仓库 $repoUrl 获取版本失败: $groupId:$artifactId", e)
                 continue
             }
         }
-        return Pair(null, null)
+        return null
+    }
+
+    /**
+     * 同时（或以对冲方式）向多个仓库查询，取最先返回的有效结果，其余请求取消
+     */
+    private fun raceRepositories(
+        repositories: List<String>,
+        groupId: String,
+        artifactId: String,
+        accept: (ArtifactVersionIndex) -> Boolean,
+        hedged: Boolean
+    ): ArtifactVersionIndex? {
+        // 对冲模式下按历史耗时排序，最快的仓库先请求；路由表命中的仓库始终排第一
+        val candidates = if (hedged) {
+            val preferred = routingTable.findRoute(groupId)
+            repositories.sortedBy { if (it == preferred) -1L else latencyTracker.averageLatency(it) ?: Long.MAX_VALUE }
+        } else {
+            repositories
+        }
+
+        val race = RepositoryRace(
+            candidates,
+            AppExecutorUtil.getAppScheduledExecutorService(),
+            if (hedged) latencyTracker::hedgeDelay else null
+        ) { repoUrl ->
+            fetchFromRepositoryAsync(repoUrl, groupId, artifactId).thenApply { index ->
+                if (index != null && accept(index)) Pair(repoUrl, index) else null
+            }
+        }
+
+        val result = race.start()
+        return try {
+            val winner = result.get() ?: return null
+            logger.info("从仓库 ${winner.first} 获取到版本信息: Release=${winner.second.release}, 版本数=${winner.second.size}")
+            winner.second
+        } catch (e: InterruptedException) {
+            // 取消整场竞速，正在进行的请求随之中止
+            result.cancel(true)
+            throw e
+        } catch (e: Exception) {
+            logger.warn("并行查询仓库失败: $groupId:$artifactId", e)
+            null
+        }
     }
 
     /**
-     * 从指定仓库获取版本列表
+     * 在查询线程池中异步获取单个仓库的版本索引，取消时断开正在进行的连接
      */
-    private fun getVersionsFromRepository(
+    private fun fetchFromRepositoryAsync(
+        repoUrl: String,
+        groupId: String,
+        artifactId: String
+    ): CompletableFuture<ArtifactVersionIndex?> {
+        val requestHandle = RepositoryHttpClient.RequestHandle()
+        val future = CompletableFuture<ArtifactVersionIndex?>()
+        val task = lookupExecutor.submit(Runnable {
+            try {
+                future.complete(getIndexFromRepository(repoUrl, groupId, artifactId, requestHandle))
+            } catch (e: Throwable) {
+                future.completeExceptionally(e)
+            }
+        })
+        future.whenComplete { _, _ ->
+            if (future.isCancelled) {
+                task.cancel(true)
+                requestHandle.abort()
+            }
+        }
+        return future
+    }
+
+    /**
+     * 从指定仓库获取版本索引，仓库中没有该构件或访问失败时返回 null
+     */
+    private fun getIndexFromRepository(
         repoUrl: String,
         groupId: String,
         artifactId: String,
-        branchType: MavenVersionService.BranchType? = null
-    ): Pair<String?, String?> {
+        requestHandle: RepositoryHttpClient.RequestHandle? = null
+    ): ArtifactVersionIndex? {
         try {
             val baseUrl = repoUrl.removeSuffix("/")
             val groupPath = groupId.replace(".", "/")
             val metadataUrl = "$baseUrl/$groupPath/$artifactId/maven-metadata.xml"
 
-            logger.info("正在访问元数据URL: $metadataUrl")
-
-            val url = URL(metadataUrl)
-            val connection = url.openConnection()
-            connection.connectTimeout = 10000
-            connection.readTimeout = 15000
-            connection.setRequestProperty("User-Agent", "Maven-Repository-Service/1.0")
-
-            val xmlContent = connection.getInputStream().bufferedReader().use { it.readText() }
-            logger.debug("获取到XML内容: $xmlContent")
+            val index = try {
+                fetchMetadata(repoUrl, metadataUrl, requestHandle)
+            } catch (e: MetadataNotFoundException) {
+                routingTable.recordMiss(repoUrl, groupId, artifactId)
+                null
+            } ?: return null
+            routingTable.learn(groupId, repoUrl)
 
-            // 解析XML获取版本信息
-            return parseVersionsFromMetadata(xmlContent, branchType)
+            return index
 
+        } catch (e: InterruptedException) {
+            throw e
         } catch (e: Exception) {
             logger.debug("无法从 $repoUrl 获取 $groupId:$artifactId 的元数据: ${e.message}")
-            return Pair(null, null)
+            return null
         }
     }
 
-    private fun parseVersionsFromMetadata(
-        xmlContent: String,
-        branchType: MavenVersionService.BranchType?
-    ): Pair<String?, String?> {
-        try {
-            var releaseVersion: String? = null
-            var latestSnapshot: String? = null
-
-            // 获取 release 版本（保持原有逻辑）
-            val releaseRegex = Regex("<release>(.*?)</release>")
-            val releaseMatch = releaseRegex.find(xmlContent)
-            releaseVersion = releaseMatch?.groupValues?.get(1)?.trim()
-
-            // 获取所有版本号
-            val versionRegex = Regex("<version>(.*?)</version>")
-            val allVersions = versionRegex.findAll(xmlContent)
-                .map { it.groupValues[1] }
-                .toList()
-            // 过滤 SNAPSHOT 版本
-            val snapshotVersions = allVersions.filter { version ->
-                version.endsWith("-SNAPSHOT", ignoreCase = true)
-            }
-
-            // 根据分支类型进行进一步筛选和排序
-            when (branchType) {
-                MavenVersionService.BranchType.QA -> {
-                    val qaVersions = snapshotVersions.filter { version ->
-                        version.contains("qa", ignoreCase = true)
-                    }
-                    latestSnapshot = qaVersions.maxWithOrNull(VersionComparator())
-                }
+    /**
+     * 解析元数据文件得到版本索引；缓存文件未变化时复用内存中已解析的索引，不同分支类型的查询不重复解析
+     */
+    private fun loadIndex(metadataUrl: String, metadataFile: Path): ArtifactVersionIndex {
+        val lastModified = Files.getLastModifiedTime(metadataFile).toMillis()
+        parsedIndexes[metadataUrl]?.let { (modified, index) ->
+            if (modified == lastModified) return index
+        }
 
-                MavenVersionService.BranchType.UAT -> {
-                    val uatVersions = snapshotVersions.filter { version ->
-                        version.contains("uat", ignoreCase = true)
-                    }
-                    latestSnapshot = uatVersions.maxWithOrNull(VersionComparator())
-                }
+        // 流式解析XML获取版本信息
+        val index = Files.newInputStream(metadataFile).use { input -> MavenMetadataParser.parse(input) }
+        if (parsedIndexes.size >= MAX_PARSED_INDEXES) parsedIndexes.clear()
+        parsedIndexes[metadataUrl] = Pair(lastModified, index)
+        return index
+    }
 
-                MavenVersionService.BranchType.TASK -> {
-                    // 匹配包含任务号的 SNAPSHOT 版本（数字格式）
-                    val taskVersions = snapshotVersions.filter { version ->
-                        val hasTaskNumber = Regex("-\\d+-SNAPSHOT$", RegexOption.IGNORE_CASE).containsMatchIn(version)
-                        val isNotQaUat = !version.contains("qa", ignoreCase = true) &&
-                                !version.contains("uat", ignoreCase = true)
-                        hasTaskNumber && isNotQaUat
-                    }
-                    // 直接倒序取最新版本，因为 version 列表本身就是按发布时间排序的
-                    latestSnapshot = taskVersions.lastOrNull()
-                }
+    /**
+     * 获取元数据并解析为版本索引，优先使用磁盘缓存
+     * 缓存未过期时直接解析缓存文件；过期后带上 If-None-Match/If-Modified-Since 重新校验，304 时只消耗响应头
+     */
+    private fun fetchMetadata(
+        repoUrl: String,
+        metadataUrl: String,
+        requestHandle: RepositoryHttpClient.RequestHandle? = null
+    ): ArtifactVersionIndex? {
+        val ttlMillis = TimeUnit.MINUTES.toMillis(appSettings.getMetadataCacheTtlMinutes().toLong())
+        val cached = metadataCache.get(metadataUrl)
+        if (cached != null && metadataCache.isFresh(cached, ttlMillis)) {
+            logger.debug("使用元数据缓存: $metadataUrl")
+            return loadIndex(metadataUrl, cached.contentFile)
+        }
 
-                else -> {
-                    // 其他情况获取所有 SNAPSHOT 中的最新版本
-                    latestSnapshot = snapshotVersions.maxWithOrNull(VersionComparator())
+        try {
+            // 熔断中的仓库不发请求，直接走下面的过期缓存兜底
+            return hostLimiter.withPermit(metadataUrl) {
+                // 拿到许可后再申请熔断器名额：半开状态下的试探名额一旦放行，紧接着的调用一定会记录结果，
+                // 等待许可时被取消或中断不会占住试探名额
+                if (!circuitBreaker.allowRequest(repoUrl)) {
+                    throw IOException("仓库熔断中，暂不访问: $repoUrl")
                 }
+                logger.info("正在访问元数据URL: $metadataUrl")
+                downloadMetadataTracked(repoUrl, metadataUrl, cached, requestHandle)
             }
-
-            return Pair(releaseVersion, latestSnapshot)
+        } catch (e: MetadataNotFoundException) {
+            throw e
+        } catch (e: InterruptedException) {
+            throw e
         } catch (e: Exception) {
-            logger.warn("解析版本元数据失败", e)
-            return Pair(null, null)
+            // 网络不可用时退回到过期缓存，总比什么都没有好
+            if (cached != null) {
+                logger.debug("访问 $metadataUrl 失败，使用过期缓存: ${e.message}")
+                return loadIndex(metadataUrl, cached.contentFile)
+            }
+            throw e
         }
     }
 
     /**
-     * Maven 版本号比较器
+     * 下载元数据并把结果反馈给熔断器：404 说明仓库可用，只是没有该构件；主动取消不计为失败
      */
-    private class VersionComparator : Comparator<String> {
-        override fun compare(v1: String, v2: String): Int {
-            return compareVersions(v1, v2)
+    private fun downloadMetadataTracked(
+        repoUrl: String,
+        metadataUrl: String,
+        cached: MavenMetadataCache.CachedMetadata?,
+        requestHandle: RepositoryHttpClient.RequestHandle?
+    ): ArtifactVersionIndex? {
+        try {
+            val result = downloadMetadata(repoUrl, metadataUrl, cached, requestHandle)
+            circuitBreaker.recordSuccess(repoUrl)
+            return result
+        } catch (e: MetadataNotFoundException) {
+            circuitBreaker.recordSuccess(repoUrl)
+            throw e
+        } catch (e: Throwable) {
+            // 读取响应体时被中断会表现为 IOException，此时线程仍带有中断标记
+            if (requestHandle?.isAborted == true || e is InterruptedException || Thread.currentThread().isInterrupted) {
+                circuitBreaker.recordCancelled(repoUrl)
+            } else {
+                circuitBreaker.recordFailure(repoUrl)
+            }
+            throw e
         }
+    }
 
-        private fun compareVersions(version1: String, version2: String): Int {
-            val v1Parts = parseVersion(version1)
-            val v2Parts = parseVersion(version2)
-
-            // 先比较数字部分
-            val numbersComparison = compareNumberParts(v1Parts.numbers, v2Parts.numbers)
-            if (numbersComparison != 0) {
-                return numbersComparison
+    /**
+     * 向仓库发起（条件）请求，边解析边写入缓存，调用方需持有该主机的并发许可
+     * 超时时间按该仓库近期耗时的 p99 推导，不可达的镜像不会每次都拖满默认超时
+     */
+    private fun downloadMetadata(
+        repoUrl: String,
+        metadataUrl: String,
+        cached: MavenMetadataCache.CachedMetadata?,
+        requestHandle: RepositoryHttpClient.RequestHandle?
+    ): ArtifactVersionIndex? {
+        val uri = URI(metadataUrl)
+        if (!uri.scheme.equals("http", ignoreCase = true) && !uri.scheme.equals("https", ignoreCase = true)) {
+            // file:// 等非 HTTP 仓库直接读取
+            return try {
+                uri.toURL().openStream().use { input -> storeAndParse(metadataUrl, input, null, null) }
+            } catch (e: FileNotFoundException) {
+                throw MetadataNotFoundException(metadataUrl)
             }
-
-            // 数字部分相同，比较限定符
-            return compareQualifiers(v1Parts.qualifier, v2Parts.qualifier)
         }
 
-        private fun parseVersion(version: String): VersionParts {
-            // 移除 -SNAPSHOT 后缀进行解析
-            val cleanVersion = version.replace(Regex("-SNAPSHOT$", RegexOption.IGNORE_CASE), "")
-
-            // 分离数字部分和限定符
-            val parts = cleanVersion.split(Regex("[-.]"))
-            val numbers = mutableListOf<Int>()
-            val qualifierParts = mutableListOf<String>()
-
-            var inQualifier = false
+        val headers = mutableMapOf<String, String>()
+        if (cached != null) {
+            cached.etag?.let { headers["If-None-Match"] = it }
+            cached.lastModified?.let { headers["If-Modified-Since"] = it }
+        }
 
-            for (part in parts) {
-                val numValue = part.toIntOrNull()
-                if (numValue != null && !inQualifier) {
-                    numbers.add(numValue)
-                } else {
-                    inQualifier = true
-                    qualifierParts.add(part)
-                }
+        // 按 p99 推导的超时只用于等待响应头，与记录的耗时口径一致；读取 body 另用固定上限，
+        // 连续的 304 把超时压低后，下载较大的元数据文件也不会被提前中止
+        val startTime = System.currentTimeMillis()
+        val headerTimeout = Duration.ofMillis(latencyTracker.timeoutFor(repoUrl))
+        val bodyTimeout = Duration.ofMillis(BODY_READ_TIMEOUT_MILLIS)
+        val response = try {
+            httpClient.get(uri, headers, headerTimeout, bodyTimeout, requestHandle)
+        } catch (e: HttpTimeoutException) {
+            // 超时也计入样本，按超时值记录；仓库变慢后 p99 随之升高，超时逐步放宽直到上限
+            latencyTracker.recordTimeout(repoUrl, headerTimeout.toMillis())
+            throw e
+        }
+        response.use {
+            latencyTracker.record(repoUrl, System.currentTimeMillis() - startTime)
+            if (response.statusCode == HTTP_NOT_MODIFIED && cached != null) {
+                logger.debug("元数据未变化(304): $metadataUrl")
+                metadataCache.touch(metadataUrl, cached)
+                return loadIndex(metadataUrl, cached.contentFile)
             }
-
-            val qualifier = qualifierParts.joinToString("-")
-            return VersionParts(numbers, qualifier)
+            if (response.statusCode == HTTP_NOT_FOUND) {
+                throw MetadataNotFoundException(metadataUrl)
+            }
+            if (response.statusCode >= HTTP_SERVER_ERROR) {
+                throw IOException("仓库响应异常，响应码 ${response.statusCode}: $metadataUrl")
+            }
+            if (response.statusCode != HTTP_OK) {
+                logger.debug("获取元数据失败，响应码 ${response.statusCode}: $metadataUrl")
+                return null
+            }
+            return storeAndParse(metadataUrl, response.body, response.header("ETag"), response.header("Last-Modified"))
         }
+    }
 
-        private fun compareNumberParts(numbers1: List<Int>, numbers2: List<Int>): Int {
-            val maxLength = maxOf(numbers1.size, numbers2.size)
-
-            for (i in 0 until maxLength) {
-                val n1 = numbers1.getOrElse(i) { 0 }
-                val n2 = numbers2.getOrElse(i) { 0 }
-                val comparison = n1.compareTo(n2)
-                if (comparison != 0) {
-                    return comparison
-                }
-            }
+    /**
+     * 解析新下载的元数据并写入磁盘缓存；缓存文件已被替换，之前解析的结果直接丢弃
+     */
+    private fun storeAndParse(
+        metadataUrl: String,
+        content: InputStream,
+        etag: String?,
+        lastModified: String?
+    ): ArtifactVersionIndex {
+        val index = metadataCache.put(metadataUrl, content, etag, lastModified) { input -> MavenMetadataParser.parse(input) }
+        parsedIndexes.remove(metadataUrl)
+        return index
+    }
 
-            return 0
-        }
+    /**
+     * 仓库中不存在该构件的元数据（404）
+     */
+    private class MetadataNotFoundException(metadataUrl: String) : IOException("元数据不存在: $metadataUrl")
 
-        private fun compareQualifiers(q1: String, q2: String): Int {
-            if (q1.isEmpty() && q2.isEmpty()) return 0
-            if (q1.isEmpty()) return 1  // 无限定符的版本更高
-            if (q2.isEmpty()) return -1
+    /**
+     * 共享 HTTP 客户端的连接复用统计
+     */
+    fun getConnectionStats(): RepositoryHttpClient.ConnectionStats = httpClient.getStats()
 
-            // 如果都是 SNAPSHOT 版本，比较具体的限定符
-            return compareSnapshotQualifiers(q1, q2)
-        }
+    /**
+     * 并发查询合并统计
+     */
+    fun getCoalescingStats(): SingleFlight.Stats = inFlightLookups.getStats()
 
-        private fun compareSnapshotQualifiers(q1: String, q2: String): Int {
-            // 提取任务号进行比较
-            val task1 = extractTaskNumber(q1)
-            val task2 = extractTaskNumber(q2)
+    /**
+     * 各仓库的耗时统计与推导出的超时
+     */
+    fun getLatencyStats(): List<RepositoryLatencyTracker.LatencyStats> = latencyTracker.getAllStats()
 
-            return when {
-                task1 != null && task2 != null -> task1.compareTo(task2)
-                task1 != null && task2 == null -> 1  // 有任务号的版本更高
-                task1 == null && task2 != null -> -1
-                else -> q1.compareTo(q2)  // 字符串比较
-            }
-        }
+    /**
+     * 各仓库的熔断状态
+     */
+    fun getCircuitBreakerStatus(): List<RepositoryCircuitBreaker.BreakerStatus> = circuitBreaker.getAllStatus()
 
-        private fun extractTaskNumber(qualifier: String): Int? {
-            val taskRegex = Regex("(\\d+)")
-            val match = taskRegex.find(qualifier)
-            return match?.value?.toIntOrNull()
-        }
+    /**
+     * 应用级内存版本缓存统计
+     */
+    fun getVersionCacheStats(): ArtifactVersionCache.Stats = versionCache.getStats()
 
-        private data class VersionParts(
-            val numbers: List<Int>,
-            val qualifier: String
-        )
+    /**
+     * 将元数据缓存标记为过期，清空内存版本缓存，下次查询时向仓库重新校验
+     */
+    fun invalidateMetadataCache() {
+        metadataCache.invalidateAll()
+        versionCache.invalidateAll()
     }
 
     /**
@@ -324,6 +726,18 @@ class MavenRepositoryService(private val project: Project) {
     }
 
     companion object {
+        private const val DEFAULT_REPOSITORY_URL = "https://repo.maven.apache.org/maven2/"
+        private const val HTTP_OK = 200
+        private const val HTTP_NOT_MODIFIED = 304
+        private const val HTTP_NOT_FOUND = 404
+        private const val HTTP_SERVER_ERROR = 500
+        private const val MAX_PARSED_INDEXES = 2000
+        private const val BODY_READ_TIMEOUT_MILLIS = 30000L
+        // 与设置界面中批量并发数的上限一致
+        private const val MAX_BATCH_PARALLELISM = 64
+        private const val BACKGROUND_BATCH_PARALLELISM = 2
+        private const val ANY_VERSION = "ANY"
+
         fun getInstance(project: Project): MavenRepositoryService {
             return project.getService(MavenRepositoryService::class.java)
         }
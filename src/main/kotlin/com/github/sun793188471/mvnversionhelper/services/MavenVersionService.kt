@@ -1,27 +1,45 @@
 package com.github.sun793188471.mvnversionhelper.services
 
+import com.github.sun793188471.mvnversionhelper.index.PomDeclarationIndex
+import com.github.sun793188471.mvnversionhelper.index.PomPropertyIndex
 import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperSettings
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
 import com.intellij.openapi.command.WriteCommandAction
 import com.intellij.openapi.components.Service
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.project.DumbService
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
-import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiDocumentManager
 import com.intellij.psi.PsiManager
 import com.intellij.psi.search.FilenameIndex
 import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.PsiTreeUtil
 import com.intellij.psi.xml.XmlFile
 import com.intellij.psi.xml.XmlTag
+import com.intellij.util.concurrency.AppExecutorUtil
 import git4idea.GitUtil
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
 
 @Service(Service.Level.PROJECT)
 class MavenVersionService(private val project: Project) {
 
     private val logger = Logger.getInstance(MavenVersionService::class.java)
 
-    fun findPomFiles(): List<XmlFile> {
-        val psiManager = PsiManager.getInstance(project)
-        val pomFiles = mutableListOf<XmlFile>()
+    // 扫描 POM 坐标只做文件读取和流式解析，按核数并行
+    private val scanExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+        "POM Coordinate Scan", Runtime.getRuntime().availableProcessors()
+    )
+
+    /**
+     * 扫描项目中所有 pom.xml 的坐标，不构建 PSI
+     * 各文件并行流式解析，结果保持索引返回的顺序；需要修改文件时再通过 findPsiFile 取得 PSI
+     */
+    fun scanPomFiles(): List<PomCoordinates> {
         val settings = MavenVersionHelperSettings.getInstance(project)
         val excludedPaths = settings.getExcludedPaths()
         val basePath = project.basePath ?: ""
@@ -34,28 +52,38 @@ class MavenVersionService(private val project: Project) {
             )
         }
 
-
-        virtualFiles.forEach { virtualFile ->
+        val included = virtualFiles.filter { virtualFile ->
             val relativePath = virtualFile.path.removePrefix(basePath)
 
             // 检查是否应该排除此文件
             val shouldExclude = excludedPaths.any { excludePath ->
                 relativePath.contains(excludePath)
             }
+            if (shouldExclude) logger.info("Excluded POM file: $relativePath")
+            !shouldExclude
+        }
 
-            if (!shouldExclude) {
-                val psiFile = com.intellij.openapi.application.ReadAction.compute<PsiFile?, Throwable> {
-                    psiManager.findFile(virtualFile)
-                }
-                if (psiFile is XmlFile) {
-                    pomFiles.add(psiFile)
-                }
-            } else {
-                logger.info("Excluded POM file: $relativePath")
-            }
+        val futures = included.map { virtualFile ->
+            CompletableFuture.supplyAsync({ PomCoordinateParser.parse(virtualFile) }, scanExecutor)
         }
+        try {
+            return futures.map { it.get() }
+        } catch (e: InterruptedException) {
+            futures.forEach { it.cancel(false) }
+            throw e
+        } catch (e: ExecutionException) {
+            futures.forEach { it.cancel(false) }
+            throw e.cause ?: e
+        }
+    }
 
-        return pomFiles
+    /**
+     * 取得 POM 文件的 PSI，只在需要读取或修改 XML 结构时调用
+     */
+    fun findPsiFile(pom: PomCoordinates): XmlFile? {
+        return ReadAction.compute<XmlFile?, Throwable> {
+            if (pom.file.isValid) PsiManager.getInstance(project).findFile(pom.file) as? XmlFile else null
+        }
     }
 
     fun getCurrentVersion(pomFile: XmlFile): XmlTag? {
@@ -105,6 +133,129 @@ class MavenVersionService(private val project: Project) {
         }
     }
 
+    /**
+     * 批量更新结果：updated 为选中的文件数，propagated 为同步修改的引用数；failures 不为空时没有修改任何文件
+     */
+    data class BulkUpdateResult(
+        val updated: Int,
+        val propagated: Int,
+        val failures: List<String>
+    )
+
+    /**
+     * 把多个 POM 文件的版本号更新为 newVersion，并同步反应堆中引用这些模块的位置，要么全部修改，要么都不修改
+     *
+     * 1. 在后台读操作中定位每个文件的版本号，任何文件无法定位或不可写时直接返回失败；
+     *    再由 ReactorVersionPropagator 在 reactor 中查找子模块 parent 和模块间依赖中引用旧版本的位置
+     * 2. 在一个写命令中修改所有文档，整体只产生一个撤销步骤；文档在定位后被修改过则放弃，中途出错时恢复已修改的文档
+     * 3. 全部修改完成后统一提交文档，只触发一轮 PSI 重建和索引更新
+     * 必须在后台线程调用
+     */
+    fun updateVersions(
+        poms: List<PomCoordinates>,
+        reactor: List<PomCoordinates>,
+        newVersion: String,
+        indicator: ProgressIndicator
+    ): BulkUpdateResult {
+        val documentManager = PsiDocumentManager.getInstance(project)
+        // 写操作必须在发起任务时的模态状态下执行（对话框仍在显示），不能用 ModalityState.any()
+        val modality = ModalityState.defaultModalityState()
+        // 定位使用 PSI 中的位置，先提交尚未同步的文档
+        ApplicationManager.getApplication().invokeAndWait({ documentManager.commitAllDocuments() }, modality)
+
+        indicator.isIndeterminate = false
+        val edits = mutableListOf<VersionEdit>()
+        val failures = mutableListOf<String>()
+        poms.forEachIndexed { index, pom ->
+            indicator.checkCanceled()
+            indicator.text = "定位版本号 ${index + 1}/${poms.size}"
+            indicator.fraction = 0.3 * index / poms.size
+            val edit = ReadAction.compute<VersionEdit?, Throwable> { locateVersion(pom, documentManager) }
+            if (edit == null) failures.add(pom.path) else edits.add(edit)
+        }
+        if (failures.isNotEmpty()) {
+            logger.warn("无法定位版本号，放弃批量更新: $failures")
+            return BulkUpdateResult(0, 0, failures)
+        }
+
+        indicator.text = "分析反应堆中的版本引用"
+        indicator.fraction = 0.3
+        val roots = poms.zip(edits) { pom, edit -> ReactorVersionPropagator.Bump(pom, edit.oldText) }
+            .filter { it.oldVersion != newVersion }
+        val propagated = ReactorVersionPropagator(project, reactor, scanExecutor).propagate(roots, indicator)
+        // 选中的文件之间可能互相引用，同一位置只修改一次；同一文档内从后往前修改，前面的位置不受影响
+        val allEdits = (edits + propagated)
+            .distinctBy { it.document to it.startOffset }
+            .sortedByDescending { it.startOffset }
+        val unwritable = allEdits.filter { !it.document.isWritable }.map { it.path }.distinct()
+        if (unwritable.isNotEmpty()) {
+            logger.warn("存在不可写的文件，放弃批量更新: $unwritable")
+            return BulkUpdateResult(0, 0, unwritable)
+        }
+
+        indicator.text = "写入 ${allEdits.map { it.document }.distinct().size} 个文件"
+        indicator.fraction = 0.5
+        indicator.checkCanceled()
+
+        var applied = false
+        ApplicationManager.getApplication().invokeAndWait({
+            WriteCommandAction.writeCommandAction(project)
+                .withName("Update Maven Version")
+                .withGlobalUndo()
+                .run<Throwable> {
+                    val stale = allEdits.filter { it.document.modificationStamp != it.stamp }
+                    if (stale.isNotEmpty()) {
+                        failures.addAll(stale.map { it.path }.distinct())
+                        return@run
+                    }
+                    applyEdits(allEdits, newVersion)
+                    indicator.text = "提交文档"
+                    indicator.fraction = 0.9
+                    documentManager.commitAllDocuments()
+                    applied = true
+                }
+        }, modality)
+
+        if (!applied) {
+            logger.warn("版本号定位后文件被修改，放弃批量更新: $failures")
+            return BulkUpdateResult(0, 0, failures)
+        }
+        indicator.fraction = 1.0
+        return BulkUpdateResult(edits.size, allEdits.size - edits.size, emptyList())
+    }
+
+    private fun locateVersion(pom: PomCoordinates, documentManager: PsiDocumentManager): VersionEdit? {
+        if (!pom.file.isValid || !pom.file.isWritable) return null
+        val pomFile = PsiManager.getInstance(project).findFile(pom.file) as? XmlFile ?: return null
+        val document = documentManager.getDocument(pomFile) ?: return null
+        if (!document.isWritable || !documentManager.isCommitted(document)) return null
+        val range = getCurrentVersion(pomFile)?.value?.textRange ?: return null
+        // 与 ReactorVersionPropagator 定位的范围一致，不含首尾空白，便于合并同一位置
+        val (start, end) = trimRange(document.immutableCharSequence, range.startOffset, range.endOffset)
+        return VersionEdit(
+            pom.path, document, document.modificationStamp,
+            start, end, document.immutableCharSequence.subSequence(start, end).toString()
+        )
+    }
+
+    /**
+     * 逐个替换版本号，任何一处失败时按相反顺序恢复已修改的文档后重新抛出异常
+     */
+    private fun applyEdits(edits: List<VersionEdit>, newVersion: String) {
+        val done = mutableListOf<VersionEdit>()
+        try {
+            edits.forEach { edit ->
+                edit.document.replaceString(edit.startOffset, edit.endOffset, newVersion)
+                done.add(edit)
+            }
+        } catch (e: Throwable) {
+            done.asReversed().forEach { edit ->
+                edit.document.replaceString(edit.startOffset, edit.startOffset + newVersion.length, edit.oldText)
+            }
+            throw e
+        }
+    }
+
     private fun incrementPatch(version: String): String {
         val parts = version.split(".")
         if (parts.size >= 3) {
@@ -193,22 +344,11 @@ class MavenVersionService(private val project: Project) {
             var updated = false
 
             WriteCommandAction.runWriteCommandAction(project) {
-                val rootTag = updatePomFile.rootTag ?: return@runWriteCommandAction
-                val dependenciesTag = rootTag.findFirstSubTag("dependencies") ?: return@runWriteCommandAction
-                val dependencyTags = dependenciesTag.findSubTags("dependency")
-
-                dependencyTags.forEach { depTag ->
-                    val depGroupId = depTag.findFirstSubTag("groupId")?.value?.text
-                    val depArtifactId = depTag.findFirstSubTag("artifactId")?.value?.text
-
-                    if (depGroupId == groupId && depArtifactId == artifactId) {
-                        val versionTag = depTag.findFirstSubTag("version")
-                        if (versionTag != null) {
-                            versionTag.value.text = newVersion
-                            updated = true
-                        }
+                findDependencyVersionTags(updatePomFile, groupId, artifactId, PomDeclarationIndex.Kind.DEPENDENCY)
+                    .forEach { versionTag ->
+                        versionTag.value.text = newVersion
+                        updated = true
                     }
-                }
             }
 
             updated
@@ -218,26 +358,72 @@ class MavenVersionService(private val project: Project) {
         }
     }
 
+    /**
+     * 查找依赖（kind 为 DEPENDENCY 或 MANAGED_DEPENDENCY）的 version 标签，需要在读操作中调用
+     * 优先按索引记录的位置直接定位；索引中没有或位置已过期（如同一命令中先修改了文件）时遍历 PSI
+     */
+    fun findDependencyVersionTags(
+        pomFile: XmlFile,
+        groupId: String,
+        artifactId: String,
+        kind: PomDeclarationIndex.Kind
+    ): List<XmlTag> {
+        val virtualFile = pomFile.virtualFile
+        if (virtualFile != null && !DumbService.isDumb(project)) {
+            val declarations = PomDeclarationIndex.getFileDeclarations(project, virtualFile)["$groupId:$artifactId"]
+                .orEmpty()
+                .filter { it.kind == kind && it.versionOffset >= 0 }
+            val tags = declarations.mapNotNull { findTagAt(pomFile, it.versionOffset) }
+                .filter { it.name == "version" && isDependency(it.parentTag, groupId, artifactId) }
+            if (tags.isNotEmpty() && tags.size == declarations.size) return tags
+        }
+
+        val rootTag = pomFile.rootTag ?: return emptyList()
+        val dependenciesTag = when (kind) {
+            PomDeclarationIndex.Kind.MANAGED_DEPENDENCY ->
+                rootTag.findFirstSubTag("dependencyManagement")?.findFirstSubTag("dependencies")
+            else -> rootTag.findFirstSubTag("dependencies")
+        } ?: return emptyList()
+        return dependenciesTag.findSubTags("dependency")
+            .filter { isDependency(it, groupId, artifactId) }
+            .mapNotNull { it.findFirstSubTag("version") }
+    }
+
+    /**
+     * 查找 properties 中的属性标签，需要在读操作中调用；索引位置失效时直接查找子标签
+     */
+    fun findPropertyTag(pomFile: XmlFile, propertyKey: String): XmlTag? {
+        val virtualFile = pomFile.virtualFile
+        if (virtualFile != null && !DumbService.isDumb(project)) {
+            val property = PomPropertyIndex.getFileProperties(project, virtualFile)[propertyKey]
+            val tag = property?.let { findTagAt(pomFile, it.offset) }
+            if (tag != null && tag.name == propertyKey && tag.parentTag?.name == "properties") return tag
+        }
+        return pomFile.rootTag?.findFirstSubTag("properties")?.findFirstSubTag(propertyKey)
+    }
+
+    private fun findTagAt(pomFile: XmlFile, offset: Int): XmlTag? {
+        return PsiTreeUtil.getParentOfType(pomFile.findElementAt(offset), XmlTag::class.java, false)
+    }
+
+    private fun isDependency(tag: XmlTag?, groupId: String, artifactId: String): Boolean {
+        if (tag == null || tag.name != "dependency") return false
+        return tag.findFirstSubTag("groupId")?.value?.trimmedText == groupId &&
+            tag.findFirstSubTag("artifactId")?.value?.trimmedText == artifactId
+    }
+
     /**
      * 获取当前项目的远端版本信息
      */
     fun getCurrentProjectRemoteVersions(
         branchType: BranchType? = null,
-        pomFiles: List<XmlFile>
+        pomFiles: List<PomCoordinates>
     ): Pair<String?, String?> {
         if (pomFiles.isEmpty()) return Pair(null, null)
 
-        val mainPomFile = pomFiles.first()
-        val rootTag = mainPomFile.rootTag ?: return Pair(null, null)
-
-        val groupId = com.intellij.openapi.application.ReadAction.compute<String?, Throwable> {
-            rootTag.findFirstSubTag("groupId")?.value?.text
-                ?: rootTag.findFirstSubTag("parent")?.findFirstSubTag("groupId")?.value?.text
-        }
-
-        val artifactId = com.intellij.openapi.application.ReadAction.compute<String?, Throwable> {
-            rootTag.findFirstSubTag("artifactId")?.value?.text
-        }
+        val mainPom = MavenCoordinateProvider.getInstance(project).getCoordinates(pomFiles.first())
+        val groupId = mainPom.groupId
+        val artifactId = mainPom.artifactId
 
         return if (groupId != null && artifactId != null) {
             try {
@@ -257,26 +443,19 @@ class MavenVersionService(private val project: Project) {
      * 优先选择目录结构最外层并且包含 <packaging>pom</packaging> 的 pom 文件
      * 返回 Pair\<GroupId, ArtifactId\> 以及被选中的 pom 文件
      */
-    fun getParentProjectInfo(pomFiles: List<XmlFile>): Triple<String?, String?, XmlFile?> {
+    fun getParentProjectInfo(pomFiles: List<PomCoordinates>): Triple<String?, String?, PomCoordinates?> {
         if (pomFiles.isEmpty()) return Triple(null, null, null)
 
         // 按路径深度排序所有 pom 文件（路径越短，越靠外层）
-        val sortedPomFiles = pomFiles.sortedBy { it.virtualFile.path.count { c -> c == '/' } }
+        val sortedPomFiles = pomFiles.sortedBy { it.path.count { c -> c == '/' } }
 
         // 首先尝试找到最外层且包含 <packaging>pom</packaging> 的 pom 文件
-        val rootPomFile = sortedPomFiles.find { pomFile ->
-            val rootTag = pomFile.rootTag ?: return@find false
-            val packagingTag = rootTag.findFirstSubTag("packaging")
-            packagingTag?.value?.text == "pom"
-        } ?: sortedPomFiles.first() // 如果没找到符合条件的，就用最外层的 pom 文件
-
-        val rootTag = rootPomFile.rootTag ?: return Triple(null, null, rootPomFile)
-
-        val groupId = rootTag.findFirstSubTag("groupId")?.value?.text
-            ?: rootTag.findFirstSubTag("parent")?.findFirstSubTag("groupId")?.value?.text
-        val artifactId = rootTag.findFirstSubTag("artifactId")?.value?.text
+        val coordinateProvider = MavenCoordinateProvider.getInstance(project)
+        val rootPomFile = sortedPomFiles.find { coordinateProvider.getCoordinates(it).packaging == "pom" }
+            ?: sortedPomFiles.first() // 如果没找到符合条件的，就用最外层的 pom 文件
 
-        return Triple(groupId, artifactId, rootPomFile)
+        val coordinates = coordinateProvider.getCoordinates(rootPomFile)
+        return Triple(coordinates.groupId, coordinates.artifactId, rootPomFile)
     }
 
     /**
@@ -0,0 +1,203 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperSettings
+import com.intellij.ide.PowerSaveMode
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.util.concurrency.AppExecutorUtil
+import git4idea.GitUtil
+import git4idea.repo.GitRepository
+import git4idea.repo.GitRepositoryChangeListener
+import org.jetbrains.idea.maven.project.MavenImportListener
+import org.jetbrains.idea.maven.project.MavenProject
+import org.jetbrains.idea.maven.project.MavenProjectsManager
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * 项目打开和 Maven 导入完成后在后台预热
+ *
+ * 扫描 POM 文件、识别分支类型，并预取反应堆模块和配置前缀依赖的远端版本，
+ * 打开版本更新对话框时直接使用预热结果和已填充的缓存。省电模式下不预热。
+ * 远端预取走 MavenRepositoryService 的后台通道：最多两个并发查询，对话框批量查询进行时不再发起新的预取请求。
+ */
+@Service(Service.Level.PROJECT)
+class MavenWarmupService(private val project: Project) : Disposable {
+
+    private val logger = Logger.getInstance(MavenWarmupService::class.java)
+    private val executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Maven Version Warm-up", 1)
+    private val scheduled = AtomicBoolean(false)
+
+    @Volatile
+    private var warmState: WarmState? = null
+
+    /**
+     * 预热结果，localBranchName 用于判断分支是否已切换，warmedAt 用于判断远端版本是否已过期
+     */
+    data class WarmState(
+        val pomFiles: List<PomCoordinates>,
+        val localBranchName: String?,
+        val realBranchName: String?,
+        val branchType: MavenVersionService.BranchType,
+        val currentProjectVersion: Pair<String?, String?>,
+        val warmedAt: Long
+    )
+
+    init {
+        val connection = project.messageBus.connect(this)
+        connection.subscribe(MavenImportListener.TOPIC, object : MavenImportListener {
+            override fun importFinished(importedProjects: Collection<MavenProject>, newModules: List<Module>) {
+                scheduleWarmup()
+            }
+        })
+        // 切换分支后分支类型可能变化，丢弃预热结果并重新预热
+        connection.subscribe(GitRepository.GIT_REPO_CHANGE, GitRepositoryChangeListener { repository ->
+            val state = warmState ?: return@GitRepositoryChangeListener
+            if (repository.currentBranchName != state.localBranchName) {
+                warmState = null
+                scheduleWarmup()
+            }
+        })
+    }
+
+    /**
+     * 返回仍然有效的预热结果，没有预热、POM 文件已删除或预热后被修改过时返回 null
+     * 预热时查询的远端版本超过元数据缓存有效期后可能已有新版本发布，此时丢弃预热结果并在后台重新预热
+     */
+    fun getWarmState(): WarmState? {
+        val state = warmState ?: return null
+        val ttlMillis = TimeUnit.MINUTES.toMillis(
+            MavenVersionHelperAppSettings.getInstance().getMetadataCacheTtlMinutes().toLong()
+        )
+        if (System.currentTimeMillis() - state.warmedAt >= ttlMillis) {
+            logger.debug("预热结果已过期，重新预热")
+            warmState = null
+            scheduleWarmup()
+            return null
+        }
+        val valid = state.pomFiles.all { it.file.isValid && PomCoordinateParser.currentStamp(it.file) == it.stamp }
+        return if (valid) state else null
+    }
+
+    /**
+     * 安排一次预热，已在排队时不重复安排；等待索引完成后再执行
+     */
+    fun scheduleWarmup() {
+        if (PowerSaveMode.isEnabled()) {
+            logger.debug("省电模式，跳过预热")
+            return
+        }
+        if (!scheduled.compareAndSet(false, true)) return
+
+        DumbService.getInstance(project).runWhenSmart {
+            try {
+                executor.execute {
+                    scheduled.set(false)
+                    if (project.isDisposed || PowerSaveMode.isEnabled()) return@execute
+                    runAtLowPriority { warmUp() }
+                }
+            } catch (e: RejectedExecutionException) {
+                // 索引完成前项目已关闭，线程池已停止
+                scheduled.set(false)
+                logger.debug("项目已关闭，取消预热")
+            }
+        }
+    }
+
+    private fun warmUp() {
+        val startTime = System.currentTimeMillis()
+        try {
+            val versionService = project.service<MavenVersionService>()
+            val repositoryService = MavenRepositoryService.getInstance(project)
+
+            val pomFiles = versionService.scanPomFiles()
+            val localBranchName = getLocalBranchName()
+            val realBranchName = versionService.getRealBranchName()
+            val branchType = versionService.getBranchType(realBranchName)
+            val currentProjectVersion = versionService.getCurrentProjectRemoteVersions(branchType, pomFiles)
+
+            val coordinates = collectCoordinates()
+            val prefetch = repositoryService.prefetchInBackground(coordinates, branchType)
+            try {
+                prefetch.future.get(WARMUP_TIMEOUT_MINUTES, TimeUnit.MINUTES)
+            } finally {
+                // 超时或预热线程被中断（项目关闭）时不再继续预取
+                prefetch.cancel()
+            }
+
+            warmState = WarmState(
+                pomFiles, localBranchName, realBranchName, branchType, currentProjectVersion, System.currentTimeMillis()
+            )
+            logger.info("预热完成: ${pomFiles.size} 个 POM 文件，预取 ${coordinates.size} 个构件，耗时 ${System.currentTimeMillis() - startTime}ms")
+        } catch (e: Exception) {
+            logger.warn("预热失败", e)
+        }
+    }
+
+    /**
+     * 反应堆中的模块，以及 groupId 匹配配置前缀的依赖
+     */
+    private fun collectCoordinates(): List<MavenRepositoryService.ArtifactCoordinate> {
+        val prefixes = MavenVersionHelperSettings.getInstance(project).getGroupIdPrefixes()
+        val coordinates = mutableListOf<MavenRepositoryService.ArtifactCoordinate>()
+
+        MavenProjectsManager.getInstance(project).projects.forEach { mavenProject ->
+            val mavenId = mavenProject.mavenId
+            val groupId = mavenId.groupId
+            val artifactId = mavenId.artifactId
+            if (groupId != null && artifactId != null) {
+                coordinates.add(MavenRepositoryService.ArtifactCoordinate(groupId, artifactId, mavenId.version))
+            }
+            if (prefixes.isEmpty()) return@forEach
+            mavenProject.dependencies.forEach { dependency ->
+                val depGroupId = dependency.groupId ?: return@forEach
+                val depArtifactId = dependency.artifactId ?: return@forEach
+                if (prefixes.any { depGroupId.startsWith(it) }) {
+                    coordinates.add(MavenRepositoryService.ArtifactCoordinate(depGroupId, depArtifactId, dependency.version))
+                }
+            }
+        }
+        return coordinates.distinctBy { it.key }
+    }
+
+    private fun getLocalBranchName(): String? {
+        return try {
+            GitUtil.getRepositoryManager(project).repositories.firstOrNull()?.currentBranchName
+        } catch (e: Exception) {
+            null
+        }
+    }
+
+    /**
+     * 扫描 POM 和识别分支在预热线程上进行，以最低优先级运行；远端预取在批量查询线程池中执行，不受影响
+     */
+    private fun runAtLowPriority(action: () -> Unit) {
+        val thread = Thread.currentThread()
+        val originalPriority = thread.priority
+        thread.priority = Thread.MIN_PRIORITY
+        try {
+            action()
+        } finally {
+            thread.priority = originalPriority
+        }
+    }
+
+    override fun dispose() {
+        executor.shutdownNow()
+    }
+
+    companion object {
+        private const val WARMUP_TIMEOUT_MINUTES = 5L
+
+        fun getInstance(project: Project): MavenWarmupService {
+            return project.getService(MavenWarmupService::class.java)
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.vfs.VirtualFile
+import java.io.ByteArrayInputStream
+import java.io.IOException
+import java.io.StringReader
+import javax.xml.stream.XMLInputFactory
+import javax.xml.stream.XMLStreamConstants
+import javax.xml.stream.XMLStreamException
+import javax.xml.stream.XMLStreamReader
+
+/**
+ * pom.xml 坐标流式解析器
+ *
+ * 只读取 project 下的 groupId/artifactId/version/packaging 和 parent 坐标，其余子树直接跳过，
+ * 不构建 PSI。已在编辑器中打开的文件读取 Document 内容，未保存的修改也能反映出来。
+ */
+object PomCoordinateParser {
+
+    private val logger = Logger.getInstance(PomCoordinateParser::class.java)
+
+    // XMLInputFactory 不保证线程安全，每个扫描线程各用一个
+    private val factory = ThreadLocal.withInitial {
+        XMLInputFactory.newDefaultFactory().apply {
+            setProperty(XMLInputFactory.SUPPORT_DTD, false)
+            setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false)
+            setProperty(XMLInputFactory.IS_COALESCING, true)
+        }
+    }
+
+    fun parse(file: VirtualFile): PomCoordinates {
+        val stamp = currentStamp(file)
+        val documentText = ReadAction.compute<CharSequence?, Throwable> {
+            FileDocumentManager.getInstance().getCachedDocument(file)?.immutableCharSequence
+        }
+        return try {
+            val reader = if (documentText != null) {
+                factory.get().createXMLStreamReader(StringReader(documentText.toString()))
+            } else {
+                factory.get().createXMLStreamReader(ByteArrayInputStream(file.contentsToByteArray()))
+            }
+            try {
+                read(file, stamp, reader)
+            } finally {
+                reader.close()
+            }
+        } catch (e: XMLStreamException) {
+            logger.debug("解析 POM 文件失败: ${file.path}: ${e.message}")
+            unresolved(file, stamp)
+        } catch (e: IOException) {
+            logger.debug("读取 POM 文件失败: ${file.path}: ${e.message}")
+            unresolved(file, stamp)
+        }
+    }
+
+    /**
+     * 文件当前的修改标记；已打开的文件以 Document 为准
+     */
+    fun currentStamp(file: VirtualFile): Long {
+        return ReadAction.compute<Long, Throwable> {
+            FileDocumentManager.getInstance().getCachedDocument(file)?.modificationStamp ?: file.modificationStamp
+        }
+    }
+
+    private fun read(file: VirtualFile, stamp: Long, reader: XMLStreamReader): PomCoordinates {
+        var groupId: String? = null
+        var artifactId: String? = null
+        var version: String? = null
+        var packaging: String? = null
+        var parent: Map<String, String> = emptyMap()
+
+        if (!nextChild(reader) || reader.localName != "project") {
+            return unresolved(file, stamp)
+        }
+
+        // 逐个处理 project 的直接子元素，直到 project 结束
+        while (nextChild(reader)) {
+            when (reader.localName) {
+                "groupId" -> groupId = readText(reader)
+                "artifactId" -> artifactId = readText(reader)
+                "version" -> version = readText(reader)
+                "packaging" -> packaging = readText(reader)
+                "parent" -> parent = readParent(reader)
+                else -> skipElement(reader)
+            }
+        }
+
+        return PomCoordinates(
+            file, stamp, groupId, artifactId, version, packaging,
+            parent["groupId"], parent["artifactId"], parent["version"]
+        )
+    }
+
+    private fun unresolved(file: VirtualFile, stamp: Long): PomCoordinates {
+        return PomCoordinates(file, stamp, null, null, null, null, null, null, null)
+    }
+
+    private fun readParent(reader: XMLStreamReader): Map<String, String> {
+        val values = HashMap<String, String>(4)
+        while (nextChild(reader)) {
+            when (val name = reader.localName) {
+                "groupId", "artifactId", "version" -> readText(reader)?.let { values[name] = it }
+                else -> skipElement(reader)
+            }
+        }
+        return values
+    }
+
+    /**
+     * 移动到下一个子元素的开始标签；遇到父元素的结束标签或文档结束时返回 false
+     * 与 nextTag 不同，元素之间的非空白文本直接忽略，不视为格式错误
+     */
+    private fun nextChild(reader: XMLStreamReader): Boolean {
+        while (reader.hasNext()) {
+            when (reader.next()) {
+                XMLStreamConstants.START_ELEMENT -> return true
+                XMLStreamConstants.END_ELEMENT -> return false
+            }
+        }
+        return false
+    }
+
+    /**
+     * 读取纯文本元素的内容，空文本视为未声明
+     */
+    private fun readText(reader: XMLStreamReader): String? {
+        return reader.elementText.trim().ifEmpty { null }
+    }
+
+    /**
+     * 跳过当前元素的整个子树，停在它的结束标签上
+     */
+    private fun skipElement(reader: XMLStreamReader) {
+        var depth = 1
+        while (depth > 0) {
+            when (reader.next()) {
+                XMLStreamConstants.START_ELEMENT -> depth++
+                XMLStreamConstants.END_ELEMENT -> depth--
+            }
+        }
+    }
+}
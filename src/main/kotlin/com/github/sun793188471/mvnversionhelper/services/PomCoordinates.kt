@@ -0,0 +1,40 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.vfs.VirtualFile
+
+/**
+ * 从 pom.xml 顶层读取的模块坐标，不持有 PSI
+ *
+ * stamp 为扫描时文件（或已打开的 Document）的修改标记，用于判断扫描结果是否过期；
+ * 根元素不是 project 或解析失败时各字段为 null。
+ */
+data class PomCoordinates(
+    val file: VirtualFile,
+    val stamp: Long,
+    val groupId: String?,
+    val artifactId: String?,
+    val version: String?,
+    val packaging: String?,
+    val parentGroupId: String?,
+    val parentArtifactId: String?,
+    val parentVersion: String?
+) {
+    val path: String get() = file.path
+
+    /**
+     * 未声明 groupId 时继承 parent 的 groupId
+     */
+    val effectiveGroupId: String? get() = groupId ?: parentGroupId
+
+    /**
+     * 与 MavenVersionService.getCurrentVersion 一致：优先取项目自身的 version，其次取 parent 的 version
+     */
+    val effectiveVersion: String? get() = version ?: parentVersion
+
+    val key: String?
+        get() {
+            val groupId = effectiveGroupId ?: return null
+            val artifactId = artifactId ?: return null
+            return "$groupId:$artifactId"
+        }
+}
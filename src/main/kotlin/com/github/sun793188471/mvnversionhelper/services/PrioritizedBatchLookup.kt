@@ -0,0 +1,116 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.diagnostic.Logger
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 可以调整查询顺序的批量查询
+ *
+ * 固定数量的工作任务依次从待查队列中取构件查询，prioritize 提交的构件插到队首，
+ * 界面上当前可见的行可以先得到结果。没有全局超时，全部构件处理完成或取消后 future 结束。
+ * 取消时中断正在查询的工作线程，进行中的 HTTP 请求随之中止。
+ */
+class PrioritizedBatchLookup internal constructor(
+    coordinates: List<MavenRepositoryService.ArtifactCoordinate>,
+    private val lookup: (MavenRepositoryService.ArtifactCoordinate) -> Unit
+) {
+
+    private val logger = Logger.getInstance(PrioritizedBatchLookup::class.java)
+
+    private val lock = Any()
+
+    // 按提交顺序排列的待查构件
+    private val pending = LinkedHashMap<String, MavenRepositoryService.ArtifactCoordinate>()
+
+    // 插队的 key，可能包含已经查询过的 key，取出时跳过
+    private val urgent = ArrayDeque<String>()
+
+    // 正在执行查询的工作线程，只在持有 lock 时增删和中断
+    private val workers = HashSet<Thread>()
+
+    private val remaining = AtomicInteger(coordinates.size)
+
+    val future = CompletableFuture<Void>()
+
+    init {
+        coordinates.forEach { pending[it.key] = it }
+        if (coordinates.isEmpty()) future.complete(null)
+    }
+
+    val pendingCount: Int get() = synchronized(lock) { pending.size }
+
+    internal fun start(executor: Executor, parallelism: Int) {
+        repeat(minOf(parallelism, pendingCount)) {
+            executor.execute { runWorker() }
+        }
+    }
+
+    /**
+     * 把这些构件移到队首，列表中靠前的先查询；已经查询过或正在查询的忽略
+     */
+    fun prioritize(keys: List<String>) {
+        if (future.isDone) return
+        synchronized(lock) {
+            keys.asReversed().forEach { key ->
+                if (pending.containsKey(key)) urgent.addFirst(key)
+            }
+            while (urgent.size > MAX_URGENT) urgent.removeLast()
+        }
+    }
+
+    /**
+     * 放弃尚未开始的查询，并中断正在进行的查询
+     */
+    fun cancel() {
+        future.cancel(false)
+        synchronized(lock) {
+            pending.clear()
+            urgent.clear()
+            workers.forEach { it.interrupt() }
+        }
+    }
+
+    private fun next(): MavenRepositoryService.ArtifactCoordinate? {
+        synchronized(lock) {
+            while (urgent.isNotEmpty()) {
+                pending.remove(urgent.removeFirst())?.let { return it }
+            }
+            val iterator = pending.values.iterator()
+            if (!iterator.hasNext()) return null
+            val coordinate = iterator.next()
+            iterator.remove()
+            return coordinate
+        }
+    }
+
+    private fun runWorker() {
+        val thread = Thread.currentThread()
+        synchronized(lock) {
+            if (future.isDone) return
+            workers.add(thread)
+        }
+        try {
+            while (!future.isDone) {
+                val coordinate = next() ?: return
+                try {
+                    lookup(coordinate)
+                } catch (e: Exception) {
+                    logger.warn("批量查询处理失败: ${coordinate.key}", e)
+                } finally {
+                    if (remaining.decrementAndGet() == 0) future.complete(null)
+                }
+            }
+        } finally {
+            synchronized(lock) { workers.remove(thread) }
+            // 注销后不会再被中断，清除取消时留下的中断标记再把线程还给线程池
+            Thread.interrupted()
+        }
+    }
+
+    companion object {
+        // 插队队列只需覆盖最近几屏可见的行
+        private const val MAX_URGENT = 256
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.index.PomDeclarationIndex
+import com.github.sun793188471.mvnversionhelper.index.PomPropertyIndex
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.editor.Document
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executor
+
+/**
+ * 一处待修改的版本号：文档中版本号文本的位置（不含首尾空白）、原始文本，以及定位时文档的修改标记
+ */
+internal data class VersionEdit(
+    val path: String,
+    val document: Document,
+    val stamp: Long,
+    val startOffset: Int,
+    val endOffset: Int,
+    val oldText: String
+)
+
+/**
+ * 反应堆内的版本号传播
+ *
+ * 用扫描出的 POM 坐标建立父子关系图，用 POM 索引查找模块之间的依赖引用。
+ * 模块版本从旧版本改为新版本时，找出需要同步修改的位置：
+ * 1. 子模块 parent 中的 version；没有声明自身 version 的子模块版本随之变化，继续向下传播
+ * 2. 其他 POM 中写死旧版本号的依赖，以及通过 properties 引用旧版本号的依赖所用的属性
+ * 不同子树之间互不依赖，在线程池中并行遍历。只读取文档文本和索引，不构建 PSI。
+ */
+internal class ReactorVersionPropagator(
+    private val project: Project,
+    reactor: List<PomCoordinates>,
+    private val executor: Executor
+) {
+
+    private val logger = Logger.getInstance(ReactorVersionPropagator::class.java)
+
+    /**
+     * 版本号发生变化的模块及其旧版本
+     */
+    data class Bump(val pom: PomCoordinates, val oldVersion: String)
+
+    private val byKey: Map<String, PomCoordinates> = reactor.filter { it.key != null }.associateBy { it.key!! }
+    private val byFile: Map<VirtualFile, PomCoordinates> = reactor.associateBy { it.file }
+    private val children: Map<String, List<PomCoordinates>> = reactor
+        .filter { it.parentGroupId != null && it.parentArtifactId != null }
+        .groupBy { "${it.parentGroupId}:${it.parentArtifactId}" }
+
+    /**
+     * 从 roots 出发收集需要同步修改的版本号，不包括 roots 自身的版本号
+     */
+    fun propagate(roots: List<Bump>, indicator: ProgressIndicator): List<VersionEdit> {
+        val bumped = ConcurrentHashMap<String, Bump>()
+        val edits = ConcurrentLinkedQueue<VersionEdit>()
+        roots.forEach { root -> root.pom.key?.let { bumped.putIfAbsent(it, root) } }
+
+        // 先沿父子关系向下传播，得到所有版本号发生变化的模块
+        val walk = CompletableFuture.allOf(*bumped.values.toList().map { walk(it, bumped, edits) }.toTypedArray())
+        ProgressIndicatorUtils.awaitWithCheckCanceled(walk, indicator)
+
+        // 再并行查找引用这些模块的依赖
+        val references = CompletableFuture.allOf(*bumped.values.map { bump ->
+            CompletableFuture.runAsync({ collectDependencyReferences(bump, edits) }, executor)
+        }.toTypedArray())
+        ProgressIndicatorUtils.awaitWithCheckCanceled(references, indicator)
+
+        logger.info("反应堆版本传播: ${bumped.size} 个模块版本变化，${edits.size} 处引用需要同步")
+        return edits.toList()
+    }
+
+    /**
+     * 修改子模块 parent 中的版本号；继承版本的子模块也发生了变化，各子树分别提交到线程池继续遍历
+     */
+    private fun walk(
+        bump: Bump,
+        bumped: ConcurrentHashMap<String, Bump>,
+        edits: ConcurrentLinkedQueue<VersionEdit>
+    ): CompletableFuture<Void> {
+        val key = bump.pom.key ?: return CompletableFuture.completedFuture(null)
+        val subtrees = children[key].orEmpty()
+            .filter { it.parentVersion == bump.oldVersion }
+            .map { child ->
+                CompletableFuture.supplyAsync({
+                    inSmartReadAction {
+                        findVersionTag(child.file, key, PomDeclarationIndex.Kind.PARENT, bump.oldVersion)
+                    }?.let { edits.add(it) }
+                    val childKey = child.key
+                    // 子模块没有声明自身 version 时，版本号随 parent 变化
+                    if (child.version == null && childKey != null) {
+                        val childBump = Bump(child, bump.oldVersion)
+                        if (bumped.putIfAbsent(childKey, childBump) == null) childBump else null
+                    } else {
+                        null
+                    }
+                }, executor).thenCompose { childBump ->
+                    if (childBump != null) walk(childBump, bumped, edits) else CompletableFuture.completedFuture(null)
+                }
+            }
+        return CompletableFuture.allOf(*subtrees.toTypedArray())
+    }
+
+    private fun collectDependencyReferences(bump: Bump, edits: ConcurrentLinkedQueue<VersionEdit>) {
+        val groupId = bump.pom.effectiveGroupId ?: return
+        val artifactId = bump.pom.artifactId ?: return
+        inSmartReadAction {
+            PomDeclarationIndex.findDeclarations(project, groupId, artifactId).forEach { (file, declarations) ->
+                declarations.forEach declaration@{ declaration ->
+                    if (declaration.kind != PomDeclarationIndex.Kind.DEPENDENCY &&
+                        declaration.kind != PomDeclarationIndex.Kind.MANAGED_DEPENDENCY
+                    ) return@declaration
+                    val version = declaration.version ?: return@declaration
+                    if (version == bump.oldVersion) {
+                        locate(file, declaration.versionOffset, bump.oldVersion)?.let { edits.add(it) }
+                    } else if (version.startsWith("\${") && version.endsWith("}")) {
+                        val propertyKey = version.substring(2, version.length - 1)
+                        // project.version 等内置属性随模块版本变化，不需要修改
+                        if (!propertyKey.startsWith("project.")) {
+                            locateProperty(file, propertyKey, bump.oldVersion)?.let { edits.add(it) }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private fun findVersionTag(
+        file: VirtualFile,
+        key: String,
+        kind: PomDeclarationIndex.Kind,
+        expected: String
+    ): VersionEdit? {
+        val declaration = PomDeclarationIndex.getFileDeclarations(project, file)[key]
+            ?.firstOrNull { it.kind == kind && it.versionOffset >= 0 }
+            ?: return null
+        return locate(file, declaration.versionOffset, expected)
+    }
+
+    /**
+     * 在引用所在文件或其 parent 链上查找属性定义，属性值等于旧版本时修改属性值
+     */
+    private fun locateProperty(file: VirtualFile, propertyKey: String, expected: String): VersionEdit? {
+        val visited = HashSet<VirtualFile>()
+        var current: VirtualFile? = file
+        while (current != null && visited.add(current)) {
+            val property = PomPropertyIndex.getFileProperties(project, current)[propertyKey]
+            if (property != null) {
+                return if (property.value == expected) locate(current, property.offset, expected) else null
+            }
+            val pom = byFile[current] ?: return null
+            current = pom.parentArtifactId?.let { byKey["${pom.parentGroupId}:$it"]?.file }
+        }
+        return null
+    }
+
+    /**
+     * 按索引记录的标签起始位置在文档中定位标签文本；与预期的旧版本不一致（索引过期或版本已不同）时忽略
+     */
+    private fun locate(file: VirtualFile, tagOffset: Int, expected: String): VersionEdit? {
+        if (!file.isValid) return null
+        val document = FileDocumentManager.getInstance().getDocument(file) ?: return null
+        val text = document.immutableCharSequence
+        if (tagOffset < 0 || tagOffset >= text.length || text[tagOffset] != '<') return null
+        val open = text.indexOf('>', tagOffset)
+        if (open < 0 || text[open - 1] == '/') return null
+        val close = text.indexOf('<', open + 1)
+        if (close < 0) return null
+        val (start, end) = trimRange(text, open + 1, close)
+        if (text.subSequence(start, end).toString() != expected) return null
+        return VersionEdit(file.path, document, document.modificationStamp, start, end, expected)
+    }
+
+    private fun <T> inSmartReadAction(action: () -> T): T {
+        return DumbService.getInstance(project).runReadActionInSmartMode<T> { action() }
+    }
+}
+
+/**
+ * 去掉 [start, end) 范围首尾的空白
+ */
+internal fun trimRange(text: CharSequence, start: Int, end: Int): Pair<Int, Int> {
+    var trimmedStart = start
+    var trimmedEnd = end
+    while (trimmedStart < trimmedEnd && text[trimmedStart].isWhitespace()) trimmedStart++
+    while (trimmedEnd > trimmedStart && text[trimmedEnd - 1].isWhitespace()) trimmedEnd--
+    return trimmedStart to trimmedEnd
+}
@@ -0,0 +1,142 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import java.util.concurrent.TimeUnit
+
+/**
+ * 按仓库的熔断器
+ *
+ * 连续失败达到阈值后熔断，冷却期内不再访问该仓库；冷却结束后放行一个试探请求（半开），
+ * 成功则恢复，失败则重新进入冷却。
+ */
+@Service(Service.Level.APP)
+class RepositoryCircuitBreaker {
+
+    enum class BreakerState(val displayName: String) {
+        CLOSED("正常"),
+        OPEN("熔断"),
+        HALF_OPEN("试探中")
+    }
+
+    /**
+     * 单个仓库的熔断状态快照
+     */
+    data class BreakerStatus(
+        val repoUrl: String,
+        val state: BreakerState,
+        val consecutiveFailures: Int,
+        val retryAt: Long?
+    )
+
+    private class Circuit {
+        var state = BreakerState.CLOSED
+        var consecutiveFailures = 0
+        var openedAt = 0L
+        var trialInFlight = false
+    }
+
+    private val lock = Any()
+    private val circuits = HashMap<String, Circuit>()
+
+    /**
+     * 是否允许向该仓库发起请求
+     * 返回 true 后调用方必须调用 recordSuccess/recordFailure/recordCancelled 之一
+     */
+    fun allowRequest(repoUrl: String): Boolean {
+        synchronized(lock) {
+            val circuit = circuits[repoUrl] ?: return true
+            return when (circuit.state) {
+                BreakerState.CLOSED -> true
+                BreakerState.OPEN -> {
+                    if (System.currentTimeMillis() - circuit.openedAt < cooldownMillis()) {
+                        false
+                    } else {
+                        circuit.state = BreakerState.HALF_OPEN
+                        circuit.trialInFlight = true
+                        true
+                    }
+                }
+                BreakerState.HALF_OPEN -> {
+                    if (circuit.trialInFlight) {
+                        false
+                    } else {
+                        circuit.trialInFlight = true
+                        true
+                    }
+                }
+            }
+        }
+    }
+
+    fun recordSuccess(repoUrl: String) {
+        synchronized(lock) {
+            circuits.remove(repoUrl)
+        }
+    }
+
+    fun recordFailure(repoUrl: String) {
+        synchronized(lock) {
+            val circuit = circuits.getOrPut(repoUrl) { Circuit() }
+            circuit.consecutiveFailures++
+            circuit.trialInFlight = false
+            if (circuit.state == BreakerState.HALF_OPEN || circuit.consecutiveFailures >= failureThreshold()) {
+                circuit.state = BreakerState.OPEN
+                circuit.openedAt = System.currentTimeMillis()
+            }
+        }
+    }
+
+    /**
+     * 请求被调用方主动取消，不计为失败，只释放半开状态下的试探名额
+     */
+    fun recordCancelled(repoUrl: String) {
+        synchronized(lock) {
+            circuits[repoUrl]?.trialInFlight = false
+        }
+    }
+
+    fun getStatus(repoUrl: String): BreakerStatus {
+        synchronized(lock) {
+            return statusOf(repoUrl, circuits[repoUrl])
+        }
+    }
+
+    /**
+     * 所有有失败记录的仓库状态，按仓库排序
+     */
+    fun getAllStatus(): List<BreakerStatus> {
+        synchronized(lock) {
+            return circuits.entries.sortedBy { it.key }.map { statusOf(it.key, it.value) }
+        }
+    }
+
+    fun reset() {
+        synchronized(lock) {
+            circuits.clear()
+        }
+    }
+
+    private fun statusOf(repoUrl: String, circuit: Circuit?): BreakerStatus {
+        if (circuit == null) return BreakerStatus(repoUrl, BreakerState.CLOSED, 0, null)
+        val retryAt = if (circuit.state == BreakerState.OPEN) circuit.openedAt + cooldownMillis() else null
+        return BreakerStatus(repoUrl, circuit.state, circuit.consecutiveFailures, retryAt)
+    }
+
+    private fun failureThreshold(): Int {
+        return MavenVersionHelperAppSettings.getInstance().getCircuitBreakerFailureThreshold().coerceAtLeast(1)
+    }
+
+    private fun cooldownMillis(): Long {
+        return TimeUnit.SECONDS.toMillis(
+            MavenVersionHelperAppSettings.getInstance().getCircuitBreakerCooldownSeconds().toLong()
+        )
+    }
+
+    companion object {
+        fun getInstance(): RepositoryCircuitBreaker {
+            return service<RepositoryCircuitBreaker>()
+        }
+    }
+}
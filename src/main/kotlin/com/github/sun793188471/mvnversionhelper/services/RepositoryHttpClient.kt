@@ -0,0 +1,253 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import com.intellij.util.concurrency.AppExecutorUtil
+import com.intellij.util.net.ssl.CertificateManager
+import java.io.Closeable
+import java.io.IOException
+import java.io.InputStream
+import java.net.Authenticator
+import java.net.PasswordAuthentication
+import java.net.URI
+import java.net.http.HttpClient
+import java.net.http.HttpHeaders
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.net.http.HttpTimeoutException
+import java.security.SecureRandom
+import java.time.Duration
+import java.util.concurrent.CancellationException
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+import java.util.zip.GZIPInputStream
+import javax.net.ssl.*
+
+/**
+ * 访问 Maven 仓库的共享 HTTP 客户端
+ *
+ * 整个 IDE 共用一个 HttpClient：连接在请求之间复用，HTTPS 仓库支持时通过 ALPN 协商 HTTP/2 多路复用，
+ * 并请求 gzip 压缩。异步任务在专用线程池中执行，不占用公共线程池。
+ */
+@Service(Service.Level.APP)
+class RepositoryHttpClient : Disposable {
+
+    private val executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Maven Repository HTTP", 4)
+
+    private val requests = AtomicLong()
+    private val httpsRequests = AtomicLong()
+    private val newTlsConnections = AtomicLong()
+    private val http2Responses = AtomicLong()
+    private val notModifiedResponses = AtomicLong()
+    private val gzipResponses = AtomicLong()
+
+    private val client: HttpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MILLIS))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        // 使用 IDE 的证书配置，并统计新建的 TLS 连接数
+        .sslContext(CountingSslContext(CertificateManager.getInstance().sslContext) { newTlsConnections.incrementAndGet() })
+        // HttpClient 不会自动使用默认 Authenticator，代理和仓库认证交给 IDE 安装的认证器处理
+        .authenticator(DefaultAuthenticatorDelegate)
+        .executor(executor)
+        .build()
+
+    /**
+     * 响应，body 已按 Content-Encoding 解压；关闭时释放连接
+     */
+    class Response(
+        val statusCode: Int,
+        private val headers: HttpHeaders,
+        val body: InputStream,
+        private val onClose: () -> Unit
+    ) : Closeable {
+        fun header(name: String): String? = headers.firstValue(name).orElse(null)
+
+        override fun close() {
+            try {
+                body.close()
+            } finally {
+                onClose()
+            }
+        }
+    }
+
+    /**
+     * 请求句柄，用于从其他线程中止正在进行的请求
+     */
+    class RequestHandle {
+        private var aborted = false
+        private var onAbort: (() -> Unit)? = null
+
+        val isAborted: Boolean
+            get() = synchronized(this) { aborted }
+
+        fun setOnAbort(action: () -> Unit) {
+            val runNow = synchronized(this) {
+                if (!aborted) onAbort = action
+                aborted
+            }
+            if (runNow) action()
+        }
+
+        fun abort() {
+            val action = synchronized(this) {
+                if (aborted) return
+                aborted = true
+                onAbort
+            }
+            action?.invoke()
+        }
+    }
+
+    /**
+     * 连接复用统计：HTTPS 请求数与新建 TLS 连接数之差即为复用已有连接的请求数
+     */
+    data class ConnectionStats(
+        val requests: Long,
+        val httpsRequests: Long,
+        val newTlsConnections: Long,
+        val http2Responses: Long,
+        val notModifiedResponses: Long,
+        val gzipResponses: Long
+    ) {
+        val reusedHttpsRequests: Long get() = (httpsRequests - newTlsConnections).coerceAtLeast(0)
+    }
+
+    fun getStats(): ConnectionStats = ConnectionStats(
+        requests.get(),
+        httpsRequests.get(),
+        newTlsConnections.get(),
+        http2Responses.get(),
+        notModifiedResponses.get(),
+        gzipResponses.get()
+    )
+
+    /**
+     * 发起 GET 请求并等待响应头，超时后自动中止
+     * headerTimeout 限制等待响应头的时间，超时抛出 HttpTimeoutException；bodyTimeout 从收到响应头开始计时，限制读取 body 的时间
+     */
+    fun get(
+        uri: URI,
+        headers: Map<String, String>,
+        headerTimeout: Duration,
+        bodyTimeout: Duration,
+        handle: RequestHandle? = null
+    ): Response {
+        val https = uri.scheme.equals("https", ignoreCase = true)
+        val builder = HttpRequest.newBuilder(uri)
+            .GET()
+            .timeout(headerTimeout)
+            // 明文 HTTP 不做 h2c 升级，避免部分代理处理异常
+            .version(if (https) HttpClient.Version.HTTP_2 else HttpClient.Version.HTTP_1_1)
+            .header("User-Agent", USER_AGENT)
+            .header("Accept-Encoding", "gzip")
+        headers.forEach { (name, value) -> builder.header(name, value) }
+
+        requests.incrementAndGet()
+        if (https) httpsRequests.incrementAndGet()
+
+        val exchange = handle ?: RequestHandle()
+        val future = client.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream())
+        exchange.setOnAbort { future.cancel(true) }
+        val timedOut = AtomicBoolean(false)
+        val headerDeadline = AppExecutorUtil.getAppScheduledExecutorService().schedule({
+            if (!exchange.isAborted) {
+                timedOut.set(true)
+                exchange.abort()
+            }
+        }, headerTimeout.toMillis(), TimeUnit.MILLISECONDS)
+
+        val response = try {
+            future.get()
+        } catch (e: CancellationException) {
+            if (timedOut.get()) throw HttpTimeoutException("等待响应头超时(${headerTimeout.toMillis()}ms): $uri")
+            throw IOException("请求已取消: $uri", e)
+        } catch (e: ExecutionException) {
+            throw e.cause as? IOException ?: IOException("请求失败: $uri", e.cause ?: e)
+        } catch (e: InterruptedException) {
+            future.cancel(true)
+            throw e
+        } finally {
+            headerDeadline.cancel(false)
+        }
+
+        val rawBody = response.body()
+        exchange.setOnAbort { rawBody.close() }
+        val bodyDeadline = AppExecutorUtil.getAppScheduledExecutorService()
+            .schedule({ exchange.abort() }, bodyTimeout.toMillis(), TimeUnit.MILLISECONDS)
+
+        if (response.version() == HttpClient.Version.HTTP_2) http2Responses.incrementAndGet()
+        if (response.statusCode() == 304) notModifiedResponses.incrementAndGet()
+        val gzip = response.headers().firstValue("Content-Encoding").orElse("").equals("gzip", ignoreCase = true)
+        if (gzip) gzipResponses.incrementAndGet()
+
+        val body = if (gzip) GZIPInputStream(rawBody) else rawBody
+        return Response(response.statusCode(), response.headers(), body) { bodyDeadline.cancel(false) }
+    }
+
+    override fun dispose() {
+        executor.shutdownNow()
+    }
+
+    /**
+     * 每次认证时转发给当前的默认 Authenticator（IDE 的代理认证、凭据配置），没有默认认证器时不提供凭据
+     */
+    private object DefaultAuthenticatorDelegate : Authenticator() {
+        override fun getPasswordAuthentication(): PasswordAuthentication? {
+            return Authenticator.requestPasswordAuthentication(
+                requestingHost, requestingSite, requestingPort, requestingProtocol,
+                requestingPrompt, requestingScheme, requestingURL, requestorType
+            )
+        }
+    }
+
+    /**
+     * 委托给 IDE SSLContext 的包装，每创建一个 SSLEngine（即新建一条 TLS 连接）计数一次
+     */
+    private class CountingSslContext(delegate: SSLContext, onNewConnection: () -> Unit) :
+        SSLContext(CountingSslContextSpi(delegate, onNewConnection), delegate.provider, delegate.protocol)
+
+    private class CountingSslContextSpi(
+        private val delegate: SSLContext,
+        private val onNewConnection: () -> Unit
+    ) : SSLContextSpi() {
+        override fun engineInit(km: Array<out KeyManager>?, tm: Array<out TrustManager>?, sr: SecureRandom?) {
+            // 委托的 SSLContext 已完成初始化
+        }
+
+        override fun engineGetSocketFactory(): SSLSocketFactory = delegate.socketFactory
+
+        override fun engineGetServerSocketFactory(): SSLServerSocketFactory = delegate.serverSocketFactory
+
+        override fun engineCreateSSLEngine(): SSLEngine {
+            onNewConnection()
+            return delegate.createSSLEngine()
+        }
+
+        override fun engineCreateSSLEngine(host: String?, port: Int): SSLEngine {
+            onNewConnection()
+            return delegate.createSSLEngine(host, port)
+        }
+
+        override fun engineGetServerSessionContext(): SSLSessionContext = delegate.serverSessionContext
+
+        override fun engineGetClientSessionContext(): SSLSessionContext = delegate.clientSessionContext
+
+        override fun engineGetDefaultSSLParameters(): SSLParameters = delegate.defaultSSLParameters
+
+        override fun engineGetSupportedSSLParameters(): SSLParameters = delegate.supportedSSLParameters
+    }
+
+    companion object {
+        private const val USER_AGENT = "Maven-Repository-Service/1.0"
+        private const val CONNECT_TIMEOUT_MILLIS = 10000L
+
+        fun getInstance(): RepositoryHttpClient {
+            return service<RepositoryHttpClient>()
+        }
+    }
+}
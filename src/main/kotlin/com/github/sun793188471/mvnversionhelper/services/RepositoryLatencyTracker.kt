@@ -0,0 +1,132 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.components.Service
+import com.intellij.openapi.components.service
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 记录各仓库元数据请求的耗时（发出请求到收到响应头）
+ *
+ * 平均耗时（指数加权）用于对冲请求的触发阈值和仓库排序；最近若干次请求的滑动窗口
+ * 用于计算 p99，并据此推导每个仓库的请求超时，避免慢仓库或不可达镜像拖住整次查询。
+ * 超时的请求按超时值计入样本，仓库整体变慢时超时随之放宽，不会一直卡在下限上。
+ */
+@Service(Service.Level.APP)
+class RepositoryLatencyTracker {
+
+    private val averages = ConcurrentHashMap<String, Double>()
+    private val windows = ConcurrentHashMap<String, LatencyWindow>()
+
+    /**
+     * 单个仓库的耗时统计快照
+     */
+    data class LatencyStats(
+        val repoUrl: String,
+        val samples: Int,
+        val averageMillis: Long?,
+        val p50Millis: Long?,
+        val p99Millis: Long?,
+        val timeoutMillis: Long
+    )
+
+    /**
+     * 固定大小的环形缓冲区，保存最近的耗时样本
+     */
+    private class LatencyWindow {
+        private val samples = LongArray(WINDOW_SIZE)
+        private var count = 0
+        private var next = 0
+
+        @Synchronized
+        fun add(latencyMillis: Long) {
+            samples[next] = latencyMillis
+            next = (next + 1) % WINDOW_SIZE
+            if (count < WINDOW_SIZE) count++
+        }
+
+        @Synchronized
+        fun size(): Int = count
+
+        /**
+         * 取百分位数（最近邻法），没有样本时返回 null
+         */
+        @Synchronized
+        fun percentile(percent: Int): Long? {
+            if (count == 0) return null
+            val sorted = samples.copyOf(count)
+            sorted.sort()
+            val index = ((percent * count + 99) / 100 - 1).coerceIn(0, count - 1)
+            return sorted[index]
+        }
+    }
+
+    fun record(repoUrl: String, latencyMillis: Long) {
+        averages.merge(repoUrl, latencyMillis.toDouble()) { old, new ->
+            old * (1 - SMOOTHING) + new * SMOOTHING
+        }
+        windows.computeIfAbsent(repoUrl) { LatencyWindow() }.add(latencyMillis)
+    }
+
+    /**
+     * 等待响应头超时的请求，实际耗时至少为超时值
+     */
+    fun recordTimeout(repoUrl: String, timeoutMillis: Long) {
+        record(repoUrl, timeoutMillis)
+    }
+
+    /**
+     * 平均耗时，没有样本时返回 null
+     */
+    fun averageLatency(repoUrl: String): Long? = averages[repoUrl]?.toLong()
+
+    /**
+     * 对冲阈值：比平均耗时慢一半时再发起下一个请求
+     */
+    fun hedgeDelay(repoUrl: String): Long {
+        val average = averageLatency(repoUrl) ?: return DEFAULT_HEDGE_DELAY_MILLIS
+        return (average * 3 / 2).coerceAtLeast(MIN_HEDGE_DELAY_MILLIS)
+    }
+
+    /**
+     * 等待响应头的超时：样本足够时取 p99 的若干倍并限制在上下限之间，样本不足时使用默认超时
+     */
+    fun timeoutFor(repoUrl: String): Long {
+        val window = windows[repoUrl] ?: return MAX_TIMEOUT_MILLIS
+        if (window.size() < MIN_SAMPLES_FOR_TIMEOUT) return MAX_TIMEOUT_MILLIS
+        val p99 = window.percentile(99) ?: return MAX_TIMEOUT_MILLIS
+        return (p99 * TIMEOUT_P99_MULTIPLIER).coerceIn(MIN_TIMEOUT_MILLIS, MAX_TIMEOUT_MILLIS)
+    }
+
+    fun getStats(repoUrl: String): LatencyStats {
+        val window = windows[repoUrl]
+        return LatencyStats(
+            repoUrl = repoUrl,
+            samples = window?.size() ?: 0,
+            averageMillis = averageLatency(repoUrl),
+            p50Millis = window?.percentile(50),
+            p99Millis = window?.percentile(99),
+            timeoutMillis = timeoutFor(repoUrl)
+        )
+    }
+
+    /**
+     * 所有有过请求记录的仓库的统计，按仓库排序
+     */
+    fun getAllStats(): List<LatencyStats> = windows.keys.sorted().map { getStats(it) }
+
+    companion object {
+        private const val SMOOTHING = 0.2
+        private const val DEFAULT_HEDGE_DELAY_MILLIS = 1000L
+        private const val MIN_HEDGE_DELAY_MILLIS = 50L
+
+        private const val WINDOW_SIZE = 64
+        private const val MIN_SAMPLES_FOR_TIMEOUT = 5
+        private const val TIMEOUT_P99_MULTIPLIER = 4
+        private const val MIN_TIMEOUT_MILLIS = 1500L
+        private const val MAX_TIMEOUT_MILLIS = 15000L
+
+        fun getInstance(): RepositoryLatencyTracker {
+            return service<RepositoryLatencyTracker>()
+        }
+    }
+}
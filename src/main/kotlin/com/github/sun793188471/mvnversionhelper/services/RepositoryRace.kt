@@ -0,0 +1,90 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 在多个仓库之间竞速查询，取第一个有效结果
+ *
+ * hedgeDelayMillis 为 null 时同时向全部仓库发起请求；否则先请求第一个仓库，
+ * 若超过其延迟阈值仍未返回，再向下一个仓库发起对冲请求，失败时立即切换下一个。
+ * 一旦得到结果，其余仍在进行中的请求全部取消。
+ */
+class RepositoryRace<T : Any>(
+    private val candidates: List<String>,
+    private val scheduler: ScheduledExecutorService,
+    private val hedgeDelayMillis: ((String) -> Long)?,
+    private val launch: (String) -> CompletableFuture<T?>
+) {
+    private val result = CompletableFuture<T?>()
+    private val inFlight = ConcurrentHashMap.newKeySet<CompletableFuture<T?>>()
+    private val nextIndex = AtomicInteger(0)
+    private val pending = AtomicInteger(0)
+
+    fun start(): CompletableFuture<T?> {
+        if (candidates.isEmpty()) {
+            result.complete(null)
+            return result
+        }
+        // 结果确定后（包括调用方取消）取消其余请求
+        result.whenComplete { _, _ -> inFlight.forEach { it.cancel(true) } }
+
+        if (hedgeDelayMillis == null) {
+            repeat(candidates.size) { launchNext() }
+        } else {
+            launchNext()
+        }
+        return result
+    }
+
+    private fun launchNext() {
+        if (result.isDone) return
+        // 先登记再领取序号，其他请求结束时不会在序号已领取、请求尚未发出的间隙里判定为全部失败
+        pending.incrementAndGet()
+        val index = nextIndex.getAndIncrement()
+        if (index >= candidates.size) {
+            pending.decrementAndGet()
+            completeIfExhausted()
+            return
+        }
+
+        val candidate = candidates[index]
+        val future = try {
+            launch(candidate)
+        } catch (e: Exception) {
+            CompletableFuture.failedFuture(e)
+        }
+        inFlight.add(future)
+
+        if (hedgeDelayMillis != null && index + 1 < candidates.size) {
+            // 当前请求比平时慢时，再向下一个仓库发起对冲请求
+            scheduler.schedule({ if (!future.isDone) launchNext() }, hedgeDelayMillis.invoke(candidate), TimeUnit.MILLISECONDS)
+        }
+
+        future.whenComplete { value, _ ->
+            inFlight.remove(future)
+            // 先提交结果再减少计数，其他请求看到计数归零时结果已经确定
+            if (value != null) result.complete(value)
+            pending.decrementAndGet()
+            when {
+                value != null -> {}
+                hedgeDelayMillis != null -> launchNext()
+                else -> completeIfExhausted()
+            }
+        }
+
+        // 结果可能在登记之前就已确定
+        if (result.isDone) future.cancel(true)
+    }
+
+    /**
+     * 所有仓库都已发起且没有进行中的请求时，以 null 结束
+     * 先读序号再读计数：看到某个请求领取的序号时，也一定能看到它登记的计数
+     */
+    private fun completeIfExhausted() {
+        if (nextIndex.get() >= candidates.size && pending.get() == 0) result.complete(null)
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.intellij.openapi.components.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * groupId 到仓库的路由表
+ *
+ * 查询成功后记住 groupId 由哪个仓库提供，按 groupId 分段做最长前缀匹配，后续查询优先访问该仓库；
+ * 仓库返回 404 时记录一条带有效期的否定条目，有效期内不再向该仓库查询此构件。路由表跨会话持久化。
+ */
+@Service(Service.Level.APP)
+@State(
+    name = "MavenVersionHelperRouting",
+    storages = [Storage("mavenVersionHelperRouting.xml")]
+)
+class RepositoryRoutingTable : PersistentStateComponent<RepositoryRoutingTable.State> {
+
+    data class State(
+        // groupId 前缀 -> 仓库URL
+        var routes: MutableMap<String, String> = mutableMapOf(),
+        // 仓库URL|groupId:artifactId -> 过期时间
+        var misses: MutableMap<String, Long> = mutableMapOf()
+    ) {
+        fun deepCopy(): State = State(HashMap(routes), HashMap(misses))
+    }
+
+    /**
+     * groupId 分段前缀树节点
+     */
+    private class Node {
+        val children = HashMap<String, Node>()
+        var repoUrl: String? = null
+    }
+
+    private val lock = Any()
+    private var myState = State()
+    private var root = Node()
+
+    /**
+     * 返回持锁复制的快照，保存时序列化不会与查询线程上的修改并发访问同一个 Map
+     */
+    override fun getState(): State {
+        synchronized(lock) {
+            pruneExpiredMisses()
+            return myState.deepCopy()
+        }
+    }
+
+    override fun loadState(state: State) {
+        synchronized(lock) {
+            myState = state.deepCopy()
+            root = Node()
+            state.routes.forEach { (prefix, repoUrl) -> insert(prefix, repoUrl) }
+        }
+    }
+
+    /**
+     * 最长前缀匹配，返回最可能提供该 groupId 的仓库
+     */
+    fun findRoute(groupId: String): String? {
+        synchronized(lock) {
+            var node = root
+            var best = node.repoUrl
+            for (segment in groupId.split('.')) {
+                node = node.children[segment] ?: break
+                node.repoUrl?.let { best = it }
+            }
+            return best
+        }
+    }
+
+    /**
+     * 记录仓库成功提供了该 groupId 的元数据
+     * 同时以组织前缀（前两段）做兜底路由，但不覆盖已有的前缀条目
+     */
+    fun learn(groupId: String, repoUrl: String) {
+        synchronized(lock) {
+            if (myState.routes[groupId] != repoUrl) {
+                myState.routes[groupId] = repoUrl
+                insert(groupId, repoUrl)
+            }
+            val segments = groupId.split('.')
+            if (segments.size > 2) {
+                val organization = segments.take(2).joinToString(".")
+                if (!myState.routes.containsKey(organization)) {
+                    myState.routes[organization] = repoUrl
+                    insert(organization, repoUrl)
+                }
+            }
+        }
+    }
+
+    /**
+     * 记录仓库对该构件返回 404
+     */
+    fun recordMiss(repoUrl: String, groupId: String, artifactId: String) {
+        val ttlMillis = TimeUnit.MINUTES.toMillis(
+            MavenVersionHelperAppSettings.getInstance().getNegativeCacheTtlMinutes().toLong()
+        )
+        if (ttlMillis <= 0) return
+        synchronized(lock) {
+            myState.misses[missKey(repoUrl, groupId, artifactId)] = System.currentTimeMillis() + ttlMillis
+        }
+    }
+
+    fun isKnownMiss(repoUrl: String, groupId: String, artifactId: String): Boolean {
+        synchronized(lock) {
+            val key = missKey(repoUrl, groupId, artifactId)
+            val expiresAt = myState.misses[key] ?: return false
+            if (expiresAt > System.currentTimeMillis()) return true
+            myState.misses.remove(key)
+            return false
+        }
+    }
+
+    /**
+     * 按路由表调整仓库访问顺序：已知提供该 groupId 的仓库排在最前，近期返回过 404 的仓库跳过
+     */
+    fun route(repositories: List<String>, groupId: String, artifactId: String): List<String> {
+        val preferred = findRoute(groupId)
+        val candidates = repositories.filterNot { isKnownMiss(it, groupId, artifactId) }
+        if (preferred == null || preferred !in candidates) return candidates
+        return listOf(preferred) + candidates.filter { it != preferred }
+    }
+
+    /**
+     * 路由条目快照，按前缀排序，供设置界面展示
+     */
+    fun getRoutes(): List<Pair<String, String>> {
+        synchronized(lock) {
+            return myState.routes.entries.map { Pair(it.key, it.value) }.sortedBy { it.first }
+        }
+    }
+
+    fun getMissCount(): Int {
+        synchronized(lock) {
+            pruneExpiredMisses()
+            return myState.misses.size
+        }
+    }
+
+    fun reset() {
+        synchronized(lock) {
+            myState = State()
+            root = Node()
+        }
+    }
+
+    private fun insert(prefix: String, repoUrl: String) {
+        var node = root
+        for (segment in prefix.split('.')) {
+            node = node.children.getOrPut(segment) { Node() }
+        }
+        node.repoUrl = repoUrl
+    }
+
+    private fun pruneExpiredMisses() {
+        val now = System.currentTimeMillis()
+        myState.misses.entries.removeIf { it.value <= now }
+    }
+
+    private fun missKey(repoUrl: String, groupId: String, artifactId: String) = "$repoUrl|$groupId:$artifactId"
+
+    companion object {
+        fun getInstance(): RepositoryRoutingTable {
+            return service<RepositoryRoutingTable>()
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 相同 key 的并发请求合并为一次执行
+ *
+ * 第一个调用方执行加载，执行期间到达的其他调用方等待同一个结果（包括异常），
+ * 执行结束后立即移除，不缓存结果。执行者被中断时等待方不受影响，重新发起一次执行。
+ */
+class SingleFlight<K : Any, V> {
+
+    private val inFlight = ConcurrentHashMap<K, CompletableFuture<V>>()
+
+    private val requests = AtomicLong()
+    private val executions = AtomicLong()
+    private val coalesced = AtomicLong()
+
+    /**
+     * 合并统计：coalesced 为直接复用进行中请求结果的调用次数
+     */
+    data class Stats(
+        val requests: Long,
+        val executions: Long,
+        val coalesced: Long,
+        val inFlight: Int
+    )
+
+    fun execute(key: K, loader: () -> V): V {
+        requests.incrementAndGet()
+        while (true) {
+            val own = CompletableFuture<V>()
+            val existing = inFlight.putIfAbsent(key, own)
+            if (existing == null) return load(key, own, loader)
+
+            coalesced.incrementAndGet()
+            try {
+                return await(existing)
+            } catch (e: InterruptedException) {
+                // 等待时自己被中断（结果尚未完成）直接抛出；执行者被中断时重新竞争执行
+                if (!existing.isDone) throw e
+            }
+        }
+    }
+
+    private fun load(key: K, own: CompletableFuture<V>, loader: () -> V): V {
+        executions.incrementAndGet()
+        try {
+            val value = loader()
+            own.complete(value)
+            return value
+        } catch (e: Throwable) {
+            own.completeExceptionally(e)
+            throw e
+        } finally {
+            inFlight.remove(key, own)
+        }
+    }
+
+    fun getStats(): Stats = Stats(requests.get(), executions.get(), coalesced.get(), inFlight.size)
+
+    private fun await(future: CompletableFuture<V>): V {
+        return try {
+            future.get()
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        }
+    }
+}
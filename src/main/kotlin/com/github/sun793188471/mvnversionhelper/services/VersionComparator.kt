@@ -0,0 +1,12 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+/**
+ * Maven 版本号比较器
+ * 比较前先取每个版本的预解析排序键，同一版本字符串只解析一次
+ */
+internal class VersionComparator : Comparator<String> {
+    override fun compare(v1: String, v2: String): Int {
+        if (v1 == v2) return 0
+        return VersionKey.of(v1).compareTo(VersionKey.of(v2))
+    }
+}
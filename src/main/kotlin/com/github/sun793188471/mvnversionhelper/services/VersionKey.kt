@@ -0,0 +1,128 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * 预先解析好的版本排序键
+ *
+ * 每个版本字符串只解析一次：数字段存为 IntArray，限定符和任务号提前算好，
+ * 比较时只做数组和字符串比较，不再编译正则、不分配临时集合。
+ */
+internal class VersionKey private constructor(
+    private val numbers: IntArray,
+    private val qualifier: String,
+    private val taskNumber: Int,
+    private val hasTaskNumber: Boolean
+) : Comparable<VersionKey> {
+
+    override fun compareTo(other: VersionKey): Int {
+        // 先比较数字部分，缺少的段按 0 处理
+        val maxLength = maxOf(numbers.size, other.numbers.size)
+        for (i in 0 until maxLength) {
+            val n1 = if (i < numbers.size) numbers[i] else 0
+            val n2 = if (i < other.numbers.size) other.numbers[i] else 0
+            if (n1 != n2) return n1.compareTo(n2)
+        }
+        return compareQualifiers(other)
+    }
+
+    private fun compareQualifiers(other: VersionKey): Int {
+        val q1 = qualifier
+        val q2 = other.qualifier
+        if (q1.isEmpty() && q2.isEmpty()) return 0
+        if (q1.isEmpty()) return 1  // 无限定符的版本更高
+        if (q2.isEmpty()) return -1
+
+        return when {
+            hasTaskNumber && other.hasTaskNumber -> taskNumber.compareTo(other.taskNumber)
+            hasTaskNumber -> 1  // 有任务号的版本更高
+            other.hasTaskNumber -> -1
+            else -> q1.compareTo(q2)
+        }
+    }
+
+    companion object {
+        private const val SNAPSHOT_SUFFIX = "-SNAPSHOT"
+        private const val MAX_CACHE_SIZE = 20000
+
+        private val cache = ConcurrentHashMap<String, VersionKey>()
+
+        /**
+         * 取版本对应的排序键，已解析过的版本直接从缓存返回
+         */
+        fun of(version: String): VersionKey {
+            cache[version]?.let { return it }
+            val key = parse(version)
+            // 缓存只是加速手段，超出上限直接清空，避免无限增长
+            if (cache.size >= MAX_CACHE_SIZE) cache.clear()
+            cache.putIfAbsent(version, key)
+            return key
+        }
+
+        private fun parse(version: String): VersionKey {
+            val cleanVersion = removeSnapshotSuffix(version)
+
+            // 按 '-' 和 '.' 分段，保留空段；遇到第一个非数字段后其余都归入限定符
+            val numbers = ArrayList<Int>(4)
+            var qualifierStart = -1
+            var start = 0
+            while (start <= cleanVersion.length) {
+                var end = start
+                while (end < cleanVersion.length && cleanVersion[end] != '-' && cleanVersion[end] != '.') end++
+                val number = cleanVersion.substring(start, end).toIntOrNull()
+                if (number == null) {
+                    qualifierStart = start
+                    break
+                }
+                numbers.add(number)
+                start = end + 1
+            }
+
+            val qualifier = if (qualifierStart < 0) "" else qualifierOf(cleanVersion, qualifierStart)
+            val taskNumber = extractTaskNumber(qualifier)
+            return VersionKey(numbers.toIntArray(), qualifier, taskNumber ?: 0, taskNumber != null)
+        }
+
+        /**
+         * 限定符各段以 '-' 连接，即把剩余部分中的 '.' 统一替换为 '-'
+         */
+        private fun qualifierOf(version: String, start: Int): String {
+            return version.substring(start).replace('.', '-')
+        }
+
+        /**
+         * 移除结尾的 -SNAPSHOT（不区分大小写），与正则 "-SNAPSHOT$" 的行为一致，
+         * 包括 '$' 可以匹配在末尾换行符之前
+         */
+        private fun removeSnapshotSuffix(version: String): String {
+            val end = version.length - lineTerminatorLength(version)
+            val start = end - SNAPSHOT_SUFFIX.length
+            if (start < 0) return version
+            for (i in SNAPSHOT_SUFFIX.indices) {
+                if (!version[start + i].equals(SNAPSHOT_SUFFIX[i], ignoreCase = true)) return version
+            }
+            return version.substring(0, start) + version.substring(end)
+        }
+
+        private fun lineTerminatorLength(s: String): Int {
+            if (s.isEmpty()) return 0
+            return when (s[s.length - 1]) {
+                '\n' -> if (s.length >= 2 && s[s.length - 2] == '\r') 2 else 1
+                '\r', '\u0085', '\u2028', '\u2029' -> 1
+                else -> 0
+            }
+        }
+
+        /**
+         * 取限定符中第一段连续数字作为任务号，超出 Int 范围时视为没有任务号
+         */
+        private fun extractTaskNumber(qualifier: String): Int? {
+            var start = 0
+            while (start < qualifier.length && qualifier[start] !in '0'..'9') start++
+            if (start == qualifier.length) return null
+            var end = start
+            while (end < qualifier.length && qualifier[end] in '0'..'9') end++
+            return qualifier.substring(start, end).toIntOrNull()
+        }
+    }
+}
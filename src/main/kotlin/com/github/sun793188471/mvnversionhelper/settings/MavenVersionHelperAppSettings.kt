@@ -0,0 +1,116 @@
+package com.github.sun793188471.mvnversionhelper.settings
+
+import com.intellij.openapi.components.*
+
+/**
+ * 应用级配置，存放与具体项目无关的缓存、网络相关参数
+ */
+@Service(Service.Level.APP)
+@State(
+    name = "MavenVersionHelperAppSettings",
+    storages = [Storage("mavenVersionHelperApp.xml")]
+)
+class MavenVersionHelperAppSettings : PersistentStateComponent<MavenVersionHelperAppSettings.State> {
+
+    data class State(
+        // maven-metadata.xml 本地缓存有效期（分钟），过期后使用条件请求重新校验
+        var metadataCacheTtlMinutes: Int = 30,
+        // 多仓库查询方式
+        var repositoryLookupMode: RepositoryLookupMode = RepositoryLookupMode.SEQUENTIAL,
+        // 单个仓库主机允许的最大并发请求数
+        var maxRequestsPerHost: Int = 6,
+        // 批量查询时同时处理的构件数
+        var batchParallelism: Int = 8,
+        // 仓库返回 404 后的否定缓存有效期（分钟）
+        var negativeCacheTtlMinutes: Int = 60,
+        // 仓库连续失败多少次后熔断
+        var circuitBreakerFailureThreshold: Int = 3,
+        // 熔断后的冷却时间（秒）
+        var circuitBreakerCooldownSeconds: Int = 60,
+        // 内存中版本索引的有效期（分钟）：只有正式版的构件 / 含快照版本的构件
+        var releaseCacheTtlMinutes: Int = 60,
+        var snapshotCacheTtlMinutes: Int = 10,
+        // 内存版本缓存上限（MB）
+        var versionCacheMaxMemoryMb: Int = 32
+    )
+
+    enum class RepositoryLookupMode(val displayName: String) {
+        SEQUENTIAL("按顺序逐个查询"),
+        PARALLEL("并行查询全部仓库"),
+        HEDGED("对冲查询（慢于平均耗时再请求下一个）")
+    }
+
+    private var myState = State()
+
+    override fun getState(): State = myState
+
+    override fun loadState(state: State) {
+        myState = state
+    }
+
+    fun getMetadataCacheTtlMinutes(): Int = myState.metadataCacheTtlMinutes
+
+    fun setMetadataCacheTtlMinutes(minutes: Int) {
+        myState.metadataCacheTtlMinutes = minutes.coerceAtLeast(0)
+    }
+
+    fun getRepositoryLookupMode(): RepositoryLookupMode = myState.repositoryLookupMode
+
+    fun setRepositoryLookupMode(mode: RepositoryLookupMode) {
+        myState.repositoryLookupMode = mode
+    }
+
+    fun getMaxRequestsPerHost(): Int = myState.maxRequestsPerHost
+
+    fun setMaxRequestsPerHost(limit: Int) {
+        myState.maxRequestsPerHost = limit.coerceAtLeast(1)
+    }
+
+    fun getBatchParallelism(): Int = myState.batchParallelism
+
+    fun setBatchParallelism(parallelism: Int) {
+        myState.batchParallelism = parallelism.coerceAtLeast(1)
+    }
+
+    fun getNegativeCacheTtlMinutes(): Int = myState.negativeCacheTtlMinutes
+
+    fun setNegativeCacheTtlMinutes(minutes: Int) {
+        myState.negativeCacheTtlMinutes = minutes.coerceAtLeast(0)
+    }
+
+    fun getCircuitBreakerFailureThreshold(): Int = myState.circuitBreakerFailureThreshold
+
+    fun setCircuitBreakerFailureThreshold(threshold: Int) {
+        myState.circuitBreakerFailureThreshold = threshold.coerceAtLeast(1)
+    }
+
+    fun getCircuitBreakerCooldownSeconds(): Int = myState.circuitBreakerCooldownSeconds
+
+    fun setCircuitBreakerCooldownSeconds(seconds: Int) {
+        myState.circuitBreakerCooldownSeconds = seconds.coerceAtLeast(0)
+    }
+
+    fun getReleaseCacheTtlMinutes(): Int = myState.releaseCacheTtlMinutes
+
+    fun setReleaseCacheTtlMinutes(minutes: Int) {
+        myState.releaseCacheTtlMinutes = minutes.coerceAtLeast(0)
+    }
+
+    fun getSnapshotCacheTtlMinutes(): Int = myState.snapshotCacheTtlMinutes
+
+    fun setSnapshotCacheTtlMinutes(minutes: Int) {
+        myState.snapshotCacheTtlMinutes = minutes.coerceAtLeast(0)
+    }
+
+    fun getVersionCacheMaxMemoryMb(): Int = myState.versionCacheMaxMemoryMb
+
+    fun setVersionCacheMaxMemoryMb(megabytes: Int) {
+        myState.versionCacheMaxMemoryMb = megabytes.coerceAtLeast(1)
+    }
+
+    companion object {
+        fun getInstance(): MavenVersionHelperAppSettings {
+            return service<MavenVersionHelperAppSettings>()
+        }
+    }
+}
@@ -12,7 +12,9 @@ class MavenVersionHelperSettings : PersistentStateComponent<MavenVersionHelperSe
 
     data class State(
         var excludedPaths: MutableList<String> = mutableListOf("/dalgen"),
-        var groupIdPrefixes: MutableList<String> = mutableListOf("com.ly")
+        var groupIdPrefixes: MutableList<String> = mutableListOf("com.ly"),
+        // 离线模式：只读取本地仓库，不访问网络
+        var offlineMode: Boolean = false
     )
 
     private var myState = State()
@@ -35,6 +37,12 @@ class MavenVersionHelperSettings : PersistentStateComponent<MavenVersionHelperSe
         myState.groupIdPrefixes = prefixes.toMutableList()
     }
 
+    fun isOfflineMode(): Boolean = myState.offlineMode
+
+    fun setOfflineMode(offline: Boolean) {
+        myState.offlineMode = offline
+    }
+
     companion object {
         fun getInstance(project: Project): MavenVersionHelperSettings {
             return project.service<MavenVersionHelperSettings>()
@@ -0,0 +1,23 @@
+package com.github.sun793188471.mvnversionhelper.startup
+
+import com.github.sun793188471.mvnversionhelper.services.MavenCoordinateProvider
+import com.github.sun793188471.mvnversionhelper.services.MavenWarmupService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.startup.ProjectActivity
+import org.jetbrains.idea.maven.project.MavenProjectsManager
+
+/**
+ * 项目打开后启动预热服务
+ * 预热服务会监听 Maven 导入完成事件；项目已经导入过 Maven 时立即安排一次预热
+ * 坐标服务同时创建，从项目打开起记录每次导入时 POM 文件的修改标记
+ */
+class MavenWarmupActivity : ProjectActivity {
+
+    override suspend fun execute(project: Project) {
+        MavenCoordinateProvider.getInstance(project)
+        val warmupService = MavenWarmupService.getInstance(project)
+        if (MavenProjectsManager.getInstance(project).isMavenizedProject) {
+            warmupService.scheduleWarmup()
+        }
+    }
+}
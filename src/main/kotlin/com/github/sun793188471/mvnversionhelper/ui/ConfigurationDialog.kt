@@ -1,18 +1,32 @@
 package com.github.sun793188471.mvnversionhelper.ui
 
+import com.github.sun793188471.mvnversionhelper.services.ArtifactVersionCache
+import com.github.sun793188471.mvnversionhelper.services.MavenMetadataCache
+import com.github.sun793188471.mvnversionhelper.services.MavenRepositoryService
+import com.github.sun793188471.mvnversionhelper.services.RepositoryCircuitBreaker
+import com.github.sun793188471.mvnversionhelper.services.RepositoryHttpClient
+import com.github.sun793188471.mvnversionhelper.services.RepositoryLatencyTracker
+import com.github.sun793188471.mvnversionhelper.services.RepositoryRoutingTable
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings.RepositoryLookupMode
 import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperSettings
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.ComboBox
 import com.intellij.openapi.ui.DialogWrapper
 import com.intellij.openapi.ui.Messages
+import com.intellij.ui.SimpleListCellRenderer
+import com.intellij.ui.components.JBCheckBox
 import com.intellij.ui.components.JBLabel
 import com.intellij.ui.components.JBList
 import com.intellij.ui.components.JBScrollPane
 import com.intellij.ui.components.JBTextField
+import com.intellij.ui.table.JBTable
 import java.awt.BorderLayout
 import java.awt.Dimension
 import java.awt.FlowLayout
 import javax.swing.*
+import javax.swing.table.DefaultTableModel
 
 class ConfigurationDialog(
     private val project: Project
@@ -28,7 +42,43 @@ class ConfigurationDialog(
     private val groupIdPrefixesList = JBList(groupIdPrefixesListModel)
     private val newPrefixField = JBTextField(20)
 
+    // 元数据缓存有效期（分钟）
+    private val metadataTtlSpinner = JSpinner(SpinnerNumberModel(30, 0, 7 * 24 * 60, 5))
+
+    // 内存版本缓存
+    private val releaseTtlSpinner = JSpinner(SpinnerNumberModel(60, 0, 7 * 24 * 60, 5))
+    private val snapshotTtlSpinner = JSpinner(SpinnerNumberModel(10, 0, 7 * 24 * 60, 5))
+    private val cacheMemorySpinner = JSpinner(SpinnerNumberModel(32, 1, 1024, 4))
+    private val versionCacheStatsLabel = JBLabel()
+
+    // 离线模式
+    private val offlineModeCheckBox = JBCheckBox("离线模式(只读取本地仓库，不访问网络)")
+
+    // 多仓库查询方式
+    private val lookupModeComboBox = ComboBox(RepositoryLookupMode.values())
+
+    // 并发限制
+    private val maxRequestsPerHostSpinner = JSpinner(SpinnerNumberModel(6, 1, 64, 1))
+    private val batchParallelismSpinner = JSpinner(SpinnerNumberModel(8, 1, 64, 1))
+
+    // 熔断配置与仓库状态
+    private val breakerThresholdSpinner = JSpinner(SpinnerNumberModel(3, 1, 100, 1))
+    private val breakerCooldownSpinner = JSpinner(SpinnerNumberModel(60, 0, 24 * 60 * 60, 10))
+    private val repositoryHealthModel = object : DefaultTableModel(
+        arrayOf("仓库", "样本数", "平均(ms)", "p99(ms)", "超时(ms)", "状态", "连续失败"), 0
+    ) {
+        override fun isCellEditable(row: Int, column: Int): Boolean = false
+    }
+
+    // 仓库路由
+    private val negativeTtlSpinner = JSpinner(SpinnerNumberModel(60, 0, 7 * 24 * 60, 10))
+    private val routingTableModel = object : DefaultTableModel(arrayOf("GroupId 前缀", "仓库"), 0) {
+        override fun isCellEditable(row: Int, column: Int): Boolean = false
+    }
+    private val routingMissLabel = JBLabel()
+
     private val settings = MavenVersionHelperSettings.getInstance(project)
+    private val appSettings = MavenVersionHelperAppSettings.getInstance()
 
     init {
         title = "Maven Version Helper 配置"
@@ -46,6 +96,61 @@ class ConfigurationDialog(
         settings.getGroupIdPrefixes().forEach { prefix ->
             groupIdPrefixesListModel.addElement(prefix)
         }
+
+        offlineModeCheckBox.isSelected = settings.isOfflineMode()
+        metadataTtlSpinner.value = appSettings.getMetadataCacheTtlMinutes()
+        releaseTtlSpinner.value = appSettings.getReleaseCacheTtlMinutes()
+        snapshotTtlSpinner.value = appSettings.getSnapshotCacheTtlMinutes()
+        cacheMemorySpinner.value = appSettings.getVersionCacheMaxMemoryMb()
+        loadVersionCacheStats()
+        lookupModeComboBox.selectedItem = appSettings.getRepositoryLookupMode()
+        maxRequestsPerHostSpinner.value = appSettings.getMaxRequestsPerHost()
+        batchParallelismSpinner.value = appSettings.getBatchParallelism()
+        negativeTtlSpinner.value = appSettings.getNegativeCacheTtlMinutes()
+        breakerThresholdSpinner.value = appSettings.getCircuitBreakerFailureThreshold()
+        breakerCooldownSpinner.value = appSettings.getCircuitBreakerCooldownSeconds()
+        loadRoutingTable()
+        loadRepositoryHealth()
+    }
+
+    private fun loadRepositoryHealth() {
+        val latencyTracker = RepositoryLatencyTracker.getInstance()
+        val circuitBreaker = RepositoryCircuitBreaker.getInstance()
+        val repositories = (latencyTracker.getAllStats().map { it.repoUrl } +
+                circuitBreaker.getAllStatus().map { it.repoUrl }).distinct().sorted()
+
+        repositoryHealthModel.rowCount = 0
+        repositories.forEach { repoUrl ->
+            val latency = latencyTracker.getStats(repoUrl)
+            val breaker = circuitBreaker.getStatus(repoUrl)
+            repositoryHealthModel.addRow(
+                arrayOf(
+                    repoUrl,
+                    latency.samples,
+                    latency.averageMillis ?: "-",
+                    latency.p99Millis ?: "-",
+                    latency.timeoutMillis,
+                    breaker.state.displayName,
+                    breaker.consecutiveFailures
+                )
+            )
+        }
+    }
+
+    private fun loadVersionCacheStats() {
+        val stats = ArtifactVersionCache.getInstance().getStats()
+        versionCacheStatsLabel.text = "内存缓存: ${stats.entries} 条，约 ${stats.weightBytes / 1024} KB / " +
+                "${stats.maxWeightBytes / 1024 / 1024} MB，命中率 ${"%.1f".format(stats.hitRatio * 100)}%，" +
+                "淘汰 ${stats.evictions} 次，过期 ${stats.expirations} 次"
+    }
+
+    private fun loadRoutingTable() {
+        val routingTable = RepositoryRoutingTable.getInstance()
+        routingTableModel.rowCount = 0
+        routingTable.getRoutes().forEach { (prefix, repoUrl) ->
+            routingTableModel.addRow(arrayOf(prefix, repoUrl))
+        }
+        routingMissLabel.text = "否定缓存条目(404): ${routingTable.getMissCount()}"
     }
 
     override fun createCenterPanel(): JComponent {
@@ -55,6 +160,9 @@ class ConfigurationDialog(
         val tabbedPane = JTabbedPane()
         tabbedPane.addTab("排除路径", createExcludePathPanel())
         tabbedPane.addTab("版本检查", createVersionCheckPanel())
+        tabbedPane.addTab("缓存", createCachePanel())
+        tabbedPane.addTab("网络", createNetworkPanel())
+        tabbedPane.addTab("仓库路由", createRoutingPanel())
 
         mainPanel.add(tabbedPane, BorderLayout.CENTER)
 
@@ -183,6 +291,162 @@ class ConfigurationDialog(
         return panel
     }
 
+    private fun createCachePanel(): JComponent {
+        val panel = JPanel(BorderLayout())
+
+        val configPanel = JPanel()
+        configPanel.layout = BoxLayout(configPanel, BoxLayout.Y_AXIS)
+
+        val ttlPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        ttlPanel.add(JBLabel("元数据缓存有效期(分钟):"))
+        ttlPanel.add(metadataTtlSpinner)
+        configPanel.add(ttlPanel)
+
+        val versionTtlPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        versionTtlPanel.add(JBLabel("内存版本缓存有效期(分钟) 正式版:"))
+        versionTtlPanel.add(releaseTtlSpinner)
+        versionTtlPanel.add(JBLabel("快照版:"))
+        versionTtlPanel.add(snapshotTtlSpinner)
+        configPanel.add(versionTtlPanel)
+
+        val memoryPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        memoryPanel.add(JBLabel("内存版本缓存上限(MB):"))
+        memoryPanel.add(cacheMemorySpinner)
+        configPanel.add(memoryPanel)
+
+        val statsPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        statsPanel.add(versionCacheStatsLabel)
+        configPanel.add(statsPanel)
+
+        val clearPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        val clearButton = JButton("清空元数据缓存")
+        clearButton.addActionListener {
+            MavenMetadataCache.getInstance().clear()
+            ArtifactVersionCache.getInstance().invalidateAll()
+            loadVersionCacheStats()
+            ApplicationManager.getApplication().invokeLater {
+                Messages.showInfoMessage(project, "元数据缓存已清空", "清空缓存")
+            }
+        }
+        clearPanel.add(clearButton)
+        configPanel.add(clearPanel)
+
+        val helpPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        helpPanel.add(JBLabel("<html><small>说明: 有效期内直接使用本地缓存，过期后通过 ETag/Last-Modified 向仓库校验，未变化时不重新下载；内存版本缓存由所有打开的项目共享</small></html>"))
+        configPanel.add(helpPanel)
+
+        panel.add(configPanel, BorderLayout.NORTH)
+        return panel
+    }
+
+    private fun createNetworkPanel(): JComponent {
+        val panel = JPanel(BorderLayout())
+
+        val configPanel = JPanel()
+        configPanel.layout = BoxLayout(configPanel, BoxLayout.Y_AXIS)
+
+        val offlinePanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        offlinePanel.add(offlineModeCheckBox)
+        configPanel.add(offlinePanel)
+
+        val modePanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        modePanel.add(JBLabel("多仓库查询方式:"))
+        lookupModeComboBox.renderer = SimpleListCellRenderer.create("") { it.displayName }
+        modePanel.add(lookupModeComboBox)
+        configPanel.add(modePanel)
+
+        val hostLimitPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        hostLimitPanel.add(JBLabel("单个仓库主机最大并发请求数:"))
+        hostLimitPanel.add(maxRequestsPerHostSpinner)
+        configPanel.add(hostLimitPanel)
+
+        val batchPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        batchPanel.add(JBLabel("批量查询并发构件数:"))
+        batchPanel.add(batchParallelismSpinner)
+        configPanel.add(batchPanel)
+
+        // 连接复用统计
+        val stats = RepositoryHttpClient.getInstance().getStats()
+        val statsPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        statsPanel.add(
+            JBLabel(
+                "连接统计: 请求 ${stats.requests} 次，HTTPS 请求 ${stats.httpsRequests} 次，" +
+                        "新建 TLS 连接 ${stats.newTlsConnections} 次，复用连接 ${stats.reusedHttpsRequests} 次，" +
+                        "HTTP/2 响应 ${stats.http2Responses} 次，304 ${stats.notModifiedResponses} 次，gzip ${stats.gzipResponses} 次"
+            )
+        )
+        configPanel.add(statsPanel)
+
+        // 并发查询合并统计
+        val coalescing = MavenRepositoryService.getInstance(project).getCoalescingStats()
+        val coalescingPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        coalescingPanel.add(
+            JBLabel(
+                "查询合并: 查询 ${coalescing.requests} 次，实际执行 ${coalescing.executions} 次，" +
+                        "合并 ${coalescing.coalesced} 次，进行中 ${coalescing.inFlight} 个"
+            )
+        )
+        configPanel.add(coalescingPanel)
+
+        val breakerPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        breakerPanel.add(JBLabel("连续失败"))
+        breakerPanel.add(breakerThresholdSpinner)
+        breakerPanel.add(JBLabel("次后熔断，冷却(秒):"))
+        breakerPanel.add(breakerCooldownSpinner)
+        val resetBreakerButton = JButton("重置熔断状态")
+        resetBreakerButton.addActionListener {
+            RepositoryCircuitBreaker.getInstance().reset()
+            loadRepositoryHealth()
+        }
+        breakerPanel.add(resetBreakerButton)
+        configPanel.add(breakerPanel)
+
+        val healthScroll = JBScrollPane(JBTable(repositoryHealthModel))
+        healthScroll.preferredSize = Dimension(400, 100)
+        configPanel.add(healthScroll)
+
+        val helpPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        helpPanel.add(JBLabel("<html><small>说明: 优先使用本地仓库中未过期的元数据；并行/对冲模式下取最先返回的仓库结果，其余请求会被取消；并发数过大可能触发仓库限流；请求超时按各仓库近期 p99 耗时自动调整</small></html>"))
+        configPanel.add(helpPanel)
+
+        panel.add(configPanel, BorderLayout.NORTH)
+        return panel
+    }
+
+    private fun createRoutingPanel(): JComponent {
+        val panel = JPanel(BorderLayout())
+
+        val top = JPanel(FlowLayout(FlowLayout.LEFT))
+        top.add(JBLabel("已学习的 GroupId 路由:"))
+        panel.add(top, BorderLayout.NORTH)
+
+        val routingScroll = JBScrollPane(JBTable(routingTableModel))
+        routingScroll.preferredSize = Dimension(400, 200)
+        panel.add(routingScroll, BorderLayout.CENTER)
+
+        val bottom = JPanel()
+        bottom.layout = BoxLayout(bottom, BoxLayout.Y_AXIS)
+
+        val ttlPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        ttlPanel.add(JBLabel("404 否定缓存有效期(分钟):"))
+        ttlPanel.add(negativeTtlSpinner)
+        ttlPanel.add(routingMissLabel)
+        bottom.add(ttlPanel)
+
+        val resetPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        val resetButton = JButton("重置路由表")
+        resetButton.addActionListener {
+            RepositoryRoutingTable.getInstance().reset()
+            loadRoutingTable()
+        }
+        resetPanel.add(resetButton)
+        resetPanel.add(JBLabel("<html><small>说明: 查询成功后记录 GroupId 所在仓库并优先访问，仓库返回 404 的构件在有效期内跳过该仓库</small></html>"))
+        bottom.add(resetPanel)
+
+        panel.add(bottom, BorderLayout.SOUTH)
+        return panel
+    }
+
     override fun doOKAction() {
         // 保存排除路径配置
         val paths = mutableListOf<String>()
@@ -197,6 +461,19 @@ class ConfigurationDialog(
             prefixes.add(groupIdPrefixesListModel.getElementAt(i))
         }
         settings.setGroupIdPrefixes(prefixes)
+        settings.setOfflineMode(offlineModeCheckBox.isSelected)
+
+        // 保存缓存配置
+        appSettings.setMetadataCacheTtlMinutes(metadataTtlSpinner.value as Int)
+        appSettings.setReleaseCacheTtlMinutes(releaseTtlSpinner.value as Int)
+        appSettings.setSnapshotCacheTtlMinutes(snapshotTtlSpinner.value as Int)
+        appSettings.setVersionCacheMaxMemoryMb(cacheMemorySpinner.value as Int)
+        (lookupModeComboBox.selectedItem as? RepositoryLookupMode)?.let { appSettings.setRepositoryLookupMode(it) }
+        appSettings.setMaxRequestsPerHost(maxRequestsPerHostSpinner.value as Int)
+        appSettings.setBatchParallelism(batchParallelismSpinner.value as Int)
+        appSettings.setNegativeCacheTtlMinutes(negativeTtlSpinner.value as Int)
+        appSettings.setCircuitBreakerFailureThreshold(breakerThresholdSpinner.value as Int)
+        appSettings.setCircuitBreakerCooldownSeconds(breakerCooldownSpinner.value as Int)
 
         ApplicationManager.getApplication().invokeLater {
             Messages.showInfoMessage(
@@ -0,0 +1,118 @@
+package com.github.sun793188471.mvnversionhelper.ui
+
+import java.util.BitSet
+import javax.swing.table.AbstractTableModel
+
+/**
+ * 依赖版本检查对话框的表格模型
+ *
+ * 直接以 DependencyInfo 列表作为数据，远端版本到达时原地更新对应的行；
+ * 尚未查询完成的行显示占位文本。
+ */
+class DependencyTableModel(private val loadingText: String) : AbstractTableModel(), SortableTableModel {
+
+    private var rows: List<DependencyVersionCheckDialog.DependencyInfo> = emptyList()
+    private var sortKeys: Array<Array<Comparable<*>?>> = emptyArray()
+    private var filterTexts: Array<String> = emptyArray()
+
+    // 已取得远端版本的行
+    private val loaded = BitSet()
+
+    val dependencies: List<DependencyVersionCheckDialog.DependencyInfo> get() = rows
+
+    fun setRows(newRows: List<DependencyVersionCheckDialog.DependencyInfo>) {
+        rows = newRows.toList()
+        loaded.clear()
+        sortKeys = Array(rows.size) { computeSortKeys(it) }
+        filterTexts = Array(rows.size) { computeFilterText(rows[it]) }
+        fireTableDataChanged()
+    }
+
+    /**
+     * 原地更新远端版本并通知该行
+     */
+    fun updateRemoteVersions(row: Int, latestRelease: String?, latestSnapshot: String?) {
+        if (row < 0 || row >= rows.size) return
+        val depInfo = rows[row]
+        depInfo.latestRelease = latestRelease
+        depInfo.latestSnapshot = latestSnapshot
+        loaded.set(row)
+        sortKeys[row] = computeSortKeys(row)
+        filterTexts[row] = computeFilterText(depInfo)
+        fireTableRowsUpdated(row, row)
+    }
+
+    override fun getRowCount(): Int = rows.size
+
+    override fun getColumnCount(): Int = COLUMN_NAMES.size
+
+    override fun getColumnName(column: Int): String = COLUMN_NAMES[column]
+
+    override fun getColumnClass(columnIndex: Int): Class<*> = String::class.java
+
+    override fun isCellEditable(rowIndex: Int, columnIndex: Int): Boolean {
+        return columnIndex == COLUMN_TARGET_VERSION  // 只有修改版本号列可编辑
+    }
+
+    override fun getValueAt(rowIndex: Int, columnIndex: Int): Any? {
+        val depInfo = rows[rowIndex]
+        return when (columnIndex) {
+            COLUMN_DEPENDENCY -> "${depInfo.groupId}:${depInfo.artifactId}"
+            COLUMN_CURRENT_VERSION -> depInfo.currentVersion
+            COLUMN_LATEST_SNAPSHOT -> remoteText(rowIndex, depInfo.latestSnapshot)
+            COLUMN_LATEST_RELEASE -> remoteText(rowIndex, depInfo.latestRelease)
+            else -> depInfo.targetVersion
+        }
+    }
+
+    override fun setValueAt(aValue: Any?, rowIndex: Int, columnIndex: Int) {
+        if (columnIndex != COLUMN_TARGET_VERSION || rowIndex >= rows.size) return
+        rows[rowIndex].targetVersion = aValue as String?
+        sortKeys[rowIndex] = computeSortKeys(rowIndex)
+        fireTableCellUpdated(rowIndex, columnIndex)
+    }
+
+    override fun getSortKey(row: Int, column: Int): Comparable<*>? = sortKeys[row][column]
+
+    override fun getFilterText(row: Int): String = filterTexts[row]
+
+    private fun remoteText(row: Int, version: String?): String {
+        return version ?: if (loaded.get(row)) "无" else loadingText
+    }
+
+    private fun computeSortKeys(row: Int): Array<Comparable<*>?> {
+        val depInfo = rows[row]
+        return arrayOf(
+            "${depInfo.groupId}:${depInfo.artifactId}".lowercase(),
+            SortableTableModel.versionSortKey(depInfo.currentVersion),
+            SortableTableModel.versionSortKey(depInfo.latestSnapshot),
+            SortableTableModel.versionSortKey(depInfo.latestRelease),
+            SortableTableModel.versionSortKey(depInfo.targetVersion)
+        )
+    }
+
+    private fun computeFilterText(depInfo: DependencyVersionCheckDialog.DependencyInfo): String {
+        return listOfNotNull(
+            "${depInfo.groupId}:${depInfo.artifactId}",
+            depInfo.currentVersion,
+            depInfo.latestSnapshot,
+            depInfo.latestRelease
+        ).joinToString("\n").lowercase()
+    }
+
+    companion object {
+        const val COLUMN_DEPENDENCY = 0
+        const val COLUMN_CURRENT_VERSION = 1
+        const val COLUMN_LATEST_SNAPSHOT = 2
+        const val COLUMN_LATEST_RELEASE = 3
+        const val COLUMN_TARGET_VERSION = 4
+
+        private val COLUMN_NAMES = arrayOf(
+            "依赖",
+            "当前版本",
+            "最新SNAPSHOT",
+            "最新RELEASE",
+            "修改版本号"
+        )
+    }
+}
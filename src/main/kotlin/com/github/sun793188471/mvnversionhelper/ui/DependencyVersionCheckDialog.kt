@@ -1,32 +1,51 @@
 package com.github.sun793188471.mvnversionhelper.ui
 
+import com.github.sun793188471.mvnversionhelper.index.PomDeclarationIndex
+import com.github.sun793188471.mvnversionhelper.index.PomPropertyIndex
 import com.github.sun793188471.mvnversionhelper.services.MavenRepositoryService
 import com.github.sun793188471.mvnversionhelper.services.MavenVersionService
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
 import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperSettings
 import com.intellij.openapi.application.ApplicationManager
-import com.intellij.openapi.application.ReadAction.compute
+import com.intellij.openapi.application.EDT
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.asContextElement
+import com.intellij.openapi.application.smartReadAction
 import com.intellij.openapi.command.WriteCommandAction
 import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.progress.ProgressIndicator
 import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.progress.Task
+import com.intellij.openapi.progress.runBlockingCancellable
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.ui.DialogWrapper
 import com.intellij.openapi.ui.Messages
 import com.intellij.psi.xml.XmlFile
-import com.intellij.psi.xml.XmlTag
+import com.intellij.ui.DocumentAdapter
+import com.intellij.ui.components.JBLabel
 import com.intellij.ui.components.JBScrollPane
+import com.intellij.ui.components.JBTextField
 import com.intellij.ui.table.JBTable
 import java.awt.BorderLayout
 import java.awt.Dimension
+import java.awt.FlowLayout
 import java.awt.Toolkit
 import java.awt.datatransfer.StringSelection
 import java.awt.event.MouseAdapter
 import java.awt.event.MouseEvent
+import java.util.concurrent.atomic.AtomicInteger
 import javax.swing.JComponent
 import javax.swing.JPanel
 import javax.swing.JTable
-import javax.swing.table.DefaultTableModel
+import javax.swing.event.DocumentEvent
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.joinAll
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runInterruptible
+import kotlinx.coroutines.withContext
 
 class DependencyVersionCheckDialog(
     private val project: Project,
@@ -40,11 +59,16 @@ class DependencyVersionCheckDialog(
     private val settings = MavenVersionHelperSettings.getInstance(project)
 
     private lateinit var dependencyTable: JBTable
-    private lateinit var tableModel: DefaultTableModel
+    private val tableModel = DependencyTableModel(LOADING_TEXT)
+    private val tasks = DialogTaskScope(disposable)
+    private lateinit var rowSorter: KeyedTableRowSorter<DependencyTableModel>
+    private val filterField = JBTextField(20)
 
-    private val dependencies = mutableListOf<DependencyInfo>()
     private val logger = Logger.getInstance(DependencyVersionCheckDialog::class.java)
 
+    // 表格更新只涉及 Swing 模型，不依赖模态状态，在模态对话框打开期间也要执行
+    private val edtContext = Dispatchers.EDT + ModalityState.any().asContextElement()
+
     data class DependencyInfo(
         val groupId: String,
         val artifactId: String,
@@ -53,7 +77,9 @@ class DependencyVersionCheckDialog(
         var latestRelease: String?,
         var selectSnapshot: Boolean = false,
         var selectRelease: Boolean = false,
-        var versionLocation: VersionLocation
+        var versionLocation: VersionLocation,
+        // 修改版本号列的值，默认为当前版本
+        var targetVersion: String? = currentVersion
     )
 
     init {
@@ -66,7 +92,17 @@ class DependencyVersionCheckDialog(
     override fun createCenterPanel(): JComponent {
         val mainPanel = JPanel(BorderLayout())
 
-        // 删除整个控制面板，直接显示表格
+        // 按依赖坐标或版本号过滤
+        val filterPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        filterPanel.add(JBLabel("过滤:"))
+        filterField.document.addDocumentListener(object : DocumentAdapter() {
+            override fun textChanged(e: DocumentEvent) {
+                rowSorter.setFilterText(filterField.text)
+            }
+        })
+        filterPanel.add(filterField)
+        mainPanel.add(filterPanel, BorderLayout.NORTH)
+
         createTable()
         val scrollPane = JBScrollPane(dependencyTable)
         scrollPane.preferredSize = Dimension(750, 350)
@@ -76,25 +112,9 @@ class DependencyVersionCheckDialog(
     }
 
     private fun createTable() {
-        val columnNames = arrayOf(
-            "依赖",
-            "当前版本",
-            "最新SNAPSHOT",
-            "最新RELEASE",
-            "修改版本号"  // 新增列
-        )
-
-        tableModel = object : DefaultTableModel(columnNames, 0) {
-            override fun isCellEditable(row: Int, column: Int): Boolean {
-                return column == 4  // 只有修改版本号列可编辑
-            }
-
-            override fun getColumnClass(columnIndex: Int): Class<*> {
-                return String::class.java
-            }
-        }
-
         dependencyTable = JBTable(tableModel)
+        rowSorter = KeyedTableRowSorter(tableModel)
+        dependencyTable.rowSorter = rowSorter
         dependencyTable.autoResizeMode = JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS
         dependencyTable.rowHeight = 30
         // 设置列宽
@@ -133,124 +153,184 @@ class DependencyVersionCheckDialog(
         val task = object : Task.Backgroundable(project, "正在检查依赖版本...", true) {
             override fun run(indicator: ProgressIndicator) {
                 indicator.isIndeterminate = true
+                // 进度指示器取消时 runBlockingCancellable 会取消整个协程，各阶段随之停止；
+                // 对话框关闭时同样取消进度指示器，runInterruptible 中进行的 HTTP 请求随之中断
+                val unregister = tasks.onCancel { indicator.cancel() }
+                try {
+                    runBlockingCancellable {
+                        checkDependencies(indicator)
+                    }
+                } finally {
+                    unregister()
+                }
+            }
+        }
 
-                val tempDependencies = compute<MutableList<DependencyInfo>?, Throwable> {
-                    val rootTag = pomFile.rootTag ?: return@compute null
-                    val dependenciesTag = rootTag.findFirstSubTag("dependencies") ?: return@compute mutableListOf()
+        ProgressManager.getInstance().run(task)
 
-                    val dependencyTags = dependenciesTag.findSubTags("dependency")
-                    if (dependencyTags.isEmpty()) {
-                        return@compute mutableListOf()
-                    }
+    }
 
-                    val groupIdPrefixes = settings.getGroupIdPrefixes()
-                    val localTempDependencies = mutableListOf<DependencyInfo>()
-
-                    // 解析当前POM中的dependencyManagement 和 properties
-                    val parentDependencyManagement = parseAllDependencyManagement(pomFile, parentPomFile)
-                    val properties = parseAllProperties(pomFile, parentPomFile)
-
-                    dependencyTags.forEachIndexed { index, depTag ->
-                        if (indicator.isCanceled) return@compute localTempDependencies
-                        val groupId = depTag.findFirstSubTag("groupId")?.value?.text
-                        val artifactId = depTag.findFirstSubTag("artifactId")?.value?.text
-                        val versionTag = depTag.findFirstSubTag("version")
-
-                        if (groupId != null && artifactId != null &&
-                            (groupIdPrefixes.isEmpty() || groupIdPrefixes.any { prefix -> groupId.startsWith(prefix) })
-                        ) {
-                            indicator.text = "检查 $groupId:$artifactId"
-                            indicator.fraction = index.toDouble() / maxOf(1, dependencyTags.size)
-
-                            // 真正的版本号存储的POM文件位置
-                            var realPomFile: XmlFile?
-                            // 版本号类型
-                            var realLocationType: VersionLocationType?
-                            // 最终版本号
-                            var realVersion: String?
-                            //  properties key
-                            var realPropertieKey: String? = null
-                            // 从当前POM的dependencies中解析版本号
-                            var version = compute<String?, Throwable> {
-                                versionTag?.value?.text
-                            }
-                            // 不为空，代表是在当前POM中定义的，并且不是占位符
-                            if (version != null && !(version.startsWith("\${") && version.endsWith("}"))) {
-                                realVersion = version
-                                realPomFile = pomFile
-                                realLocationType = VersionLocationType.DEPENDENCY_DIRECT
-                            } else if (version != null && (version.startsWith("\${") && version.endsWith("}"))) {
-                                // 版本号不为空，但是版本号是占位符
-                                // 获取当前项目和父项目中的 dependencyManagement
-                                val managedDep = parentDependencyManagement["$groupId:$artifactId"]
-                                // 解析版本号中的占位符，获取真正的版本号和存储POM文件位置
-                                val resolvedVersion = resolveVersionPlaceholder(version, properties, managedDep)
-                                realVersion = resolvedVersion.first
-                                // 如果解析出来的版本号为空，并且版本号不是占位符，说明是直接在 dependencyManagement 中定义的
-                                realPomFile = resolvedVersion.second
-                                realPropertieKey = resolvedVersion.third
-                                realLocationType =
-                                    if (realPropertieKey != null) {
-                                        VersionLocationType.PROPERTY
-                                    } else {
-                                        VersionLocationType.DEPENDENCY_MANAGEMENT
-                                    }
-                            } else {
-                                // 当前依赖的版本号为空，从 dependencyManagement 中查找
-                                val managedDep = parentDependencyManagement["$groupId:$artifactId"]
-                                version = managedDep?.version
-                                // 解析版本号中的占位符，获取真正的版本号和存储POM文件位置
-                                val resolvedVersion = resolveVersionPlaceholder(version, properties, managedDep)
-                                // 如果解析出来的版本号为空，并且版本号不是占位符，说明是直接在 dependencyManagement 中定义的
-                                realPomFile = managedDep?.dependencyPomFile
-                                realVersion = resolvedVersion.first
-                                realPropertieKey = resolvedVersion.third
-                                realLocationType =
-                                    if (realPropertieKey != null) {
-                                        VersionLocationType.PROPERTY
-                                    } else {
-                                        VersionLocationType.DEPENDENCY_MANAGEMENT
-                                    }
-                            }
-
-                            try {
-                                val (latestRelease, latestSnapshot) = repositoryService.getRemoteVersions(
-                                    groupId,
-                                    artifactId,
-                                    branchType
-                                )
-                                localTempDependencies.add(
-                                    DependencyInfo(
-                                        groupId = groupId,
-                                        artifactId = artifactId,
-                                        currentVersion = realVersion,
-                                        latestSnapshot = latestSnapshot,
-                                        latestRelease = latestRelease,
-                                        versionLocation = VersionLocation(
-                                            realLocationType,
-                                            realPropertieKey,
-                                            realPomFile
-                                        )
-                                    )
-                                )
-                            } catch (e: Exception) {
-                                logger.warn("获取远程版本失败: $groupId:$artifactId", e)
-                            }
-                        }
+    /**
+     * 分三个阶段检查依赖版本：
+     * 1. 索引就绪后在可中断的读操作中解析依赖坐标和版本号位置，不做网络请求
+     * 2. 通过有界通道把依赖分发给固定数量的协程并发查询远端版本，通道满时生产方挂起
+     * 3. 查询结果逐条回到 EDT 更新对应的表格行
+     */
+    private suspend fun checkDependencies(indicator: ProgressIndicator) {
+        val resolved = smartReadAction(project) { resolveDependencies() }
+        withContext(edtContext) {
+            tableModel.setRows(resolved)
+        }
+        if (resolved.isEmpty()) return
+
+        indicator.isIndeterminate = false
+        val parallelism = MavenVersionHelperAppSettings.getInstance().getBatchParallelism()
+        val completed = AtomicInteger()
+
+        coroutineScope {
+            val requests = Channel<Int>(parallelism * 2)
+            val results = Channel<Pair<Int, Pair<String?, String?>>>(parallelism * 2)
+
+            launch {
+                resolved.indices.forEach { requests.send(it) }
+                requests.close()
+            }
+
+            val workers = List(parallelism) {
+                launch(Dispatchers.IO) {
+                    for (row in requests) {
+                        val dep = resolved[row]
+                        indicator.text = "检查 ${dep.groupId}:${dep.artifactId}"
+                        results.send(row to fetchRemoteVersions(dep))
+                        indicator.fraction = completed.incrementAndGet().toDouble() / resolved.size
                     }
-                    localTempDependencies
                 }
+            }
+
+            launch {
+                workers.joinAll()
+                results.close()
+            }
 
-                dependencies.clear()
-                if (tempDependencies != null) {
-                    dependencies.addAll(tempDependencies)
+            withContext(edtContext) {
+                for ((row, versions) in results) {
+                    tableModel.updateRemoteVersions(row, versions.first, versions.second)
                 }
-                refreshTable()
             }
         }
+    }
 
-        ProgressManager.getInstance().run(task)
+    /**
+     * 解析依赖坐标和版本号所在位置，必须在智能模式的读操作中调用
+     * 依赖、dependencyManagement 和 properties 都从 POM 索引读取，不遍历 PSI
+     */
+    private fun resolveDependencies(): List<DependencyInfo> {
+        val virtualFile = pomFile.virtualFile ?: return emptyList()
+        // 按在文件中出现的顺序排列
+        val dependencies = PomDeclarationIndex.getFileDeclarations(project, virtualFile)
+            .flatMap { (key, declarations) ->
+                declarations.filter { it.kind == PomDeclarationIndex.Kind.DEPENDENCY }.map { key to it }
+            }
+            .sortedBy { it.second.offset }
+        if (dependencies.isEmpty()) {
+            return emptyList()
+        }
+
+        val groupIdPrefixes = settings.getGroupIdPrefixes()
+        val result = mutableListOf<DependencyInfo>()
+
+        // 解析当前POM中的dependencyManagement 和 properties
+        val parentDependencyManagement = parseAllDependencyManagement(pomFile, parentPomFile)
+        val properties = parseAllProperties(pomFile, parentPomFile)
+
+        dependencies.forEach { (key, declaration) ->
+            ProgressManager.checkCanceled()
+            val groupId = key.substringBefore(':')
+            val artifactId = key.substringAfter(':')
+
+            if (groupIdPrefixes.isEmpty() || groupIdPrefixes.any { prefix -> groupId.startsWith(prefix) }) {
+                // 真正的版本号存储的POM文件位置
+                var realPomFile: XmlFile?
+                // 版本号类型
+                var realLocationType: VersionLocationType?
+                // 最终版本号
+                var realVersion: String?
+                //  properties key
+                var realPropertieKey: String? = null
+                // 从当前POM的dependencies中解析版本号
+                var version = declaration.version
+                // 不为空，代表是在当前POM中定义的，并且不是占位符
+                if (version != null && !(version.startsWith("\${") && version.endsWith("}"))) {
+                    realVersion = version
+                    realPomFile = pomFile
+                    realLocationType = VersionLocationType.DEPENDENCY_DIRECT
+                } else if (version != null && (version.startsWith("\${") && version.endsWith("}"))) {
+                    // 版本号不为空，但是版本号是占位符
+                    // 获取当前项目和父项目中的 dependencyManagement
+                    val managedDep = parentDependencyManagement["$groupId:$artifactId"]
+                    // 解析版本号中的占位符，获取真正的版本号和存储POM文件位置
+                    val resolvedVersion = resolveVersionPlaceholder(version, properties, managedDep)
+                    realVersion = resolvedVersion.first
+                    // 如果解析出来的版本号为空，并且版本号不是占位符，说明是直接在 dependencyManagement 中定义的
+                    realPomFile = resolvedVersion.second
+                    realPropertieKey = resolvedVersion.third
+                    realLocationType =
+                        if (realPropertieKey != null) {
+                            VersionLocationType.PROPERTY
+                        } else {
+                            VersionLocationType.DEPENDENCY_MANAGEMENT
+                        }
+                } else {
+                    // 当前依赖的版本号为空，从 dependencyManagement 中查找
+                    val managedDep = parentDependencyManagement["$groupId:$artifactId"]
+                    version = managedDep?.version
+                    // 解析版本号中的占位符，获取真正的版本号和存储POM文件位置
+                    val resolvedVersion = resolveVersionPlaceholder(version, properties, managedDep)
+                    // 如果解析出来的版本号为空，并且版本号不是占位符，说明是直接在 dependencyManagement 中定义的
+                    realPomFile = managedDep?.dependencyPomFile
+                    realVersion = resolvedVersion.first
+                    realPropertieKey = resolvedVersion.third
+                    realLocationType =
+                        if (realPropertieKey != null) {
+                            VersionLocationType.PROPERTY
+                        } else {
+                            VersionLocationType.DEPENDENCY_MANAGEMENT
+                        }
+                }
+
+                result.add(
+                    DependencyInfo(
+                        groupId = groupId,
+                        artifactId = artifactId,
+                        currentVersion = realVersion,
+                        latestSnapshot = null,
+                        latestRelease = null,
+                        versionLocation = VersionLocation(
+                            realLocationType,
+                            realPropertieKey,
+                            realPomFile
+                        )
+                    )
+                )
+            }
+        }
+        return result
+    }
 
+    /**
+     * 查询单个依赖的远端版本，阻塞的网络请求在协程取消时被中断
+     */
+    private suspend fun fetchRemoteVersions(dep: DependencyInfo): Pair<String?, String?> {
+        return try {
+            runInterruptible {
+                repositoryService.getRemoteVersions(dep.groupId, dep.artifactId, branchType)
+            }
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            logger.warn("获取远程版本失败: ${dep.groupId}:${dep.artifactId}", e)
+            Pair(null, null)
+        }
     }
 
     private data class ManagedDependency(
@@ -288,26 +368,18 @@ class DependencyVersionCheckDialog(
     }
 
     private fun parseCurrentDependencyManagement(currentPom: XmlFile?): Map<String, ManagedDependency> {
-        return compute<Map<String, ManagedDependency>, Throwable> {
-            val result = mutableMapOf<String, ManagedDependency>()
-
-            // 首先检查当前 POM 的 dependencyManagement
-            if (currentPom == null) return@compute result
-            val rootTag = currentPom.rootTag ?: return@compute result
-            val depMgmtTag = rootTag.findFirstSubTag("dependencyManagement")
-            val dependenciesTag = depMgmtTag?.findFirstSubTag("dependencies")
-
-            dependenciesTag?.findSubTags("dependency")?.forEach { depTag ->
-                val groupId = depTag.findFirstSubTag("groupId")?.value?.text
-                val artifactId = depTag.findFirstSubTag("artifactId")?.value?.text
-                val version = depTag.findFirstSubTag("version")?.value?.text
-                if (groupId != null && artifactId != null) {
-                    result["$groupId:$artifactId"] =
-                        ManagedDependency(groupId, artifactId, version, currentPom)
-                }
-            }
-            result
+        val result = mutableMapOf<String, ManagedDependency>()
+        val virtualFile = currentPom?.virtualFile ?: return result
+
+        PomDeclarationIndex.getFileDeclarations(project, virtualFile).forEach { (key, declarations) ->
+            // 同一构件声明多次时与 Maven 一致，以最后一处为准
+            val managed = declarations.lastOrNull { it.kind == PomDeclarationIndex.Kind.MANAGED_DEPENDENCY }
+                ?: return@forEach
+            result[key] = ManagedDependency(
+                key.substringBefore(':'), key.substringAfter(':'), managed.version, currentPom
+            )
         }
+        return result
     }
 
     private fun parseAllProperties(pomFile: XmlFile, parentPomFile: XmlFile?): Map<String, PropertyValue> {
@@ -317,33 +389,12 @@ class DependencyVersionCheckDialog(
     }
 
     /**
-     * 解析 POM 文件中的 properties
+     * 从索引读取 POM 文件中的 properties，项目自身的 version 记为 project.version
      */
     private fun parseProperties(pomFile: XmlFile?): Map<String, PropertyValue> {
-        val result = mutableMapOf<String, PropertyValue>()
-        if (pomFile == null) return result
-
-        // 包装在 ReadAction 中
-        return compute<Map<String, PropertyValue>, Throwable> {
-            val rootTag = pomFile.rootTag ?: return@compute result
-            val propertiesTag = rootTag.findFirstSubTag("properties")
-
-            propertiesTag?.children?.forEach { child ->
-                if (child is XmlTag) {
-                    val key = child.name
-                    val value = PropertyValue(child.value.text, pomFile)
-                    result[key] = value
-                }
-            }
-
-            // 添加内置属性
-            val projectVersion = rootTag.findFirstSubTag("version")?.value?.text
-            if (projectVersion != null) {
-                result["project.version"] = PropertyValue(projectVersion, pomFile)
-            }
-
-            result
-        }
+        val virtualFile = pomFile?.virtualFile ?: return emptyMap()
+        return PomPropertyIndex.getFileProperties(project, virtualFile)
+            .mapValues { (_, property) -> PropertyValue(property.value, pomFile) }
     }
 
     /**
@@ -368,33 +419,13 @@ class DependencyVersionCheckDialog(
         return Triple(version, managedDep?.dependencyPomFile, null)
     }
 
-    private fun refreshTable() {
-        try {
-            tableModel.rowCount = 0
-            dependencies.forEach { depInfo ->
-                tableModel.addRow(
-                    arrayOf(
-                        "${depInfo.groupId}:${depInfo.artifactId}",
-                        depInfo.currentVersion,
-                        depInfo.latestSnapshot ?: "无",
-                        depInfo.latestRelease ?: "无",
-                        depInfo.currentVersion  // 默认显示当前版本，用户可编辑
-                    )
-                )
-            }
-            dependencyTable.revalidate()
-            dependencyTable.repaint()
-        } catch (e: Exception) {
-            logger.warn("刷新依赖表格失败", e)
-        }
-    }
-
     override fun doOKAction() {
+        // 先提交正在编辑的单元格
+        if (dependencyTable.isEditing) dependencyTable.cellEditor.stopCellEditing()
         // 收集修改版本号列有变更的依赖
         val changedDependencies = mutableListOf<Triple<DependencyInfo, String, String>>()
-        for (i in 0 until tableModel.rowCount) {
-            val originalDep = dependencies[i]
-            val newVersion = tableModel.getValueAt(i, 4) as String?
+        for (originalDep in tableModel.dependencies) {
+            val newVersion = originalDep.targetVersion
             val currentVersion = originalDep.currentVersion ?: ""
 
             if (null != newVersion && newVersion != currentVersion && newVersion.isNotBlank()) {
@@ -484,10 +515,7 @@ class DependencyVersionCheckDialog(
 
     private fun updatePropertyVersion(updatePom: XmlFile?, propertyKey: String, newVersion: String): Boolean {
         if (updatePom == null) return false
-        val rootTag = updatePom.rootTag ?: return false
-        val propertiesTag = rootTag.findFirstSubTag("properties") ?: return false
-
-        val propertyTag = propertiesTag.findFirstSubTag(propertyKey) ?: return false
+        val propertyTag = versionService.findPropertyTag(updatePom, propertyKey) ?: return false
 
         return try {
             WriteCommandAction.runWriteCommandAction(project) {
@@ -506,17 +534,9 @@ class DependencyVersionCheckDialog(
         artifactId: String,
         newVersion: String
     ): Boolean {
-        val rootTag = updatePom.rootTag ?: return false
-        val depMgmtTag = rootTag.findFirstSubTag("dependencyManagement") ?: return false
-        val dependenciesTag = depMgmtTag.findFirstSubTag("dependencies") ?: return false
-
-        val targetDep = dependenciesTag.findSubTags("dependency").find { depTag ->
-            val depGroupId = depTag.findFirstSubTag("groupId")?.value?.text
-            val depArtifactId = depTag.findFirstSubTag("artifactId")?.value?.text
-            depGroupId == groupId && depArtifactId == artifactId
-        }
-
-        val versionTag = targetDep?.findFirstSubTag("version")
+        val versionTag = versionService.findDependencyVersionTags(
+            updatePom, groupId, artifactId, PomDeclarationIndex.Kind.MANAGED_DEPENDENCY
+        ).firstOrNull()
         if (versionTag != null) {
             try {
                 WriteCommandAction.runWriteCommandAction(project) {
@@ -536,4 +556,8 @@ class DependencyVersionCheckDialog(
     override fun getPreferredSize(): Dimension {
         return Dimension(800, 500)
     }
-}
\ No newline at end of file
+
+    companion object {
+        private const val LOADING_TEXT = "查询中..."
+    }
+}
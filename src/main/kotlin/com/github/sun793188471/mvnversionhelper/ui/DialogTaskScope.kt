@@ -0,0 +1,81 @@
+package com.github.sun793188471.mvnversionhelper.ui
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.util.Disposer
+import com.intellij.util.concurrency.AppExecutorUtil
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+
+/**
+ * 对话框发起的后台任务，随对话框一起释放
+ *
+ * 释放时取消尚未开始的任务，中断正在执行的任务（进行中的 HTTP 请求随之中止），
+ * 并执行登记的取消操作（如取消进度指示器、批量查询）。
+ * 中断只在任务执行期间发出，任务结束后清除中断标记再把线程还给线程池。
+ */
+class DialogTaskScope(parent: Disposable) : Disposable {
+
+    private val lock = Any()
+    private val running = HashSet<Thread>()
+    private val cancelActions = LinkedHashSet<() -> Unit>()
+    private var disposed = false
+
+    init {
+        Disposer.register(parent, this)
+    }
+
+    val isDisposed: Boolean get() = synchronized(lock) { disposed }
+
+    /**
+     * 在应用线程池中执行，释放时未开始的任务直接取消，执行中的任务被中断
+     */
+    fun <T> supplyAsync(action: () -> T): CompletableFuture<T> {
+        val result = CompletableFuture<T>()
+        AppExecutorUtil.getAppExecutorService().execute {
+            try {
+                result.complete(runInterruptibly(action))
+            } catch (e: Throwable) {
+                // 释放时被中断的任务可能抛出 InterruptedException 或 IOException，统一视为取消
+                if (e is CancellationException || isDisposed) result.cancel(false) else result.completeExceptionally(e)
+            }
+        }
+        return result
+    }
+
+    /**
+     * 在当前线程执行，执行期间对话框被释放时中断当前线程；已释放时抛出 CancellationException
+     */
+    fun <T> runInterruptibly(action: () -> T): T {
+        val thread = Thread.currentThread()
+        val entered = synchronized(lock) { !disposed && running.add(thread) }
+        if (!entered) throw CancellationException("对话框已关闭")
+        try {
+            return action()
+        } finally {
+            synchronized(lock) { running.remove(thread) }
+            // 注销后不会再被中断，清除释放时留下的中断标记
+            Thread.interrupted()
+        }
+    }
+
+    /**
+     * 登记释放时执行的取消操作；已释放时立即执行。返回的函数用于任务正常结束后注销
+     */
+    fun onCancel(action: () -> Unit): () -> Unit {
+        val runNow = synchronized(lock) {
+            if (!disposed) cancelActions.add(action)
+            disposed
+        }
+        if (runNow) action()
+        return { synchronized(lock) { cancelActions.remove(action) } }
+    }
+
+    override fun dispose() {
+        val actions = synchronized(lock) {
+            disposed = true
+            running.forEach { it.interrupt() }
+            cancelActions.toList().also { cancelActions.clear() }
+        }
+        actions.forEach { it() }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.sun793188471.mvnversionhelper.ui
+
+import com.github.sun793188471.mvnversionhelper.services.VersionKey
+import java.util.Comparator
+import javax.swing.RowFilter
+import javax.swing.table.AbstractTableModel
+import javax.swing.table.TableRowSorter
+
+/**
+ * 为排序和过滤提供预先计算好的键的表格模型
+ */
+interface SortableTableModel {
+
+    /**
+     * 排序键，行数据变化时由模型重新计算；返回 null 的行排在最前
+     */
+    fun getSortKey(row: Int, column: Int): Comparable<*>?
+
+    /**
+     * 过滤用的文本，已转为小写
+     */
+    fun getFilterText(row: Int): String
+
+    companion object {
+        /**
+         * 版本列的排序键，占位文本（如 "无"、"加载中..."）不参与版本比较
+         */
+        fun versionSortKey(version: String?): Comparable<*>? {
+            if (version.isNullOrEmpty() || !version[0].isDigit()) return null
+            return VersionKey.of(version)
+        }
+    }
+}
+
+/**
+ * 使用模型预先计算的键排序和过滤的 TableRowSorter
+ *
+ * 默认的 TableRowSorter 每次比较都调用 getValueAt 并按字符串排序，版本号会按字典序排列；
+ * 这里改为直接比较模型缓存的键，过滤时只做一次子串匹配。
+ */
+class KeyedTableRowSorter<M>(model: M) : TableRowSorter<M>(model)
+        where M : AbstractTableModel, M : SortableTableModel {
+
+    init {
+        modelWrapper = object : ModelWrapper<M, Int>() {
+            override fun getModel(): M = model
+            override fun getColumnCount(): Int = model.columnCount
+            override fun getRowCount(): Int = model.rowCount
+            override fun getValueAt(row: Int, column: Int): Any? = model.getSortKey(row, column)
+            override fun getStringValueAt(row: Int, column: Int): String = model.getValueAt(row, column)?.toString() ?: ""
+            override fun getIdentifier(row: Int): Int = row
+        }
+    }
+
+    override fun useToString(column: Int): Boolean = false
+
+    override fun getComparator(column: Int): Comparator<*> = NATURAL_ORDER
+
+    /**
+     * 按子串过滤行，空文本表示不过滤
+     */
+    fun setFilterText(text: String) {
+        val query = text.trim().lowercase()
+        rowFilter = if (query.isEmpty()) {
+            null
+        } else {
+            object : RowFilter<M, Int>() {
+                override fun include(entry: Entry<out M, out Int>): Boolean {
+                    return entry.model.getFilterText(entry.identifier).contains(query)
+                }
+            }
+        }
+    }
+
+    companion object {
+        @Suppress("UNCHECKED_CAST")
+        private val NATURAL_ORDER = Comparator<Any> { a, b -> (a as Comparable<Any>).compareTo(b) }
+    }
+}
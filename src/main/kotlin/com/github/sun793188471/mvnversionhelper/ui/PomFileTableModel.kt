@@ -0,0 +1,119 @@
+package com.github.sun793188471.mvnversionhelper.ui
+
+import javax.swing.JButton
+import javax.swing.table.AbstractTableModel
+
+/**
+ * 版本更新对话框的 POM 文件表格模型
+ *
+ * 直接以 PomFileInfo 列表作为数据，单元格值按需从行对象读取；
+ * 远端版本到达时原地更新行并只通知变更的行，不再清空重建整张表。
+ */
+class PomFileTableModel : AbstractTableModel(), SortableTableModel {
+
+    private var rows: List<VersionUpdateDialog.PomFileInfo> = emptyList()
+    private var sortKeys: Array<Array<Comparable<*>?>> = emptyArray()
+    private var filterTexts: Array<String> = emptyArray()
+
+    val pomFiles: List<VersionUpdateDialog.PomFileInfo> get() = rows
+
+    fun setRows(newRows: List<VersionUpdateDialog.PomFileInfo>) {
+        rows = newRows.toList()
+        sortKeys = Array(rows.size) { computeSortKeys(rows[it]) }
+        filterTexts = Array(rows.size) { computeFilterText(rows[it]) }
+        fireTableDataChanged()
+    }
+
+    fun getRow(row: Int): VersionUpdateDialog.PomFileInfo = rows[row]
+
+    /**
+     * 原地更新远端版本，不触发事件，由调用方合并通知
+     */
+    fun updateRemoteVersions(row: Int, remoteSnapshot: String, remoteRelease: String): Boolean {
+        if (row < 0 || row >= rows.size) return false
+        val pomInfo = rows[row]
+        pomInfo.remoteSnapshot = remoteSnapshot
+        pomInfo.remoteRelease = remoteRelease
+        sortKeys[row] = computeSortKeys(pomInfo)
+        filterTexts[row] = computeFilterText(pomInfo)
+        return true
+    }
+
+    fun setAllSelected(selected: Boolean) {
+        if (rows.isEmpty()) return
+        rows.forEachIndexed { index, pomInfo ->
+            pomInfo.isSelected = selected
+            sortKeys[index][COLUMN_SELECTED] = selected
+        }
+        fireTableRowsUpdated(0, rows.size - 1)
+    }
+
+    override fun getRowCount(): Int = rows.size
+
+    override fun getColumnCount(): Int = COLUMN_NAMES.size
+
+    override fun getColumnName(column: Int): String = COLUMN_NAMES[column]
+
+    override fun getColumnClass(columnIndex: Int): Class<*> {
+        return when (columnIndex) {
+            COLUMN_SELECTED -> java.lang.Boolean::class.java  // 第一列返回Boolean类型
+            COLUMN_ACTION -> JButton::class.java  // 操作按钮列
+            else -> String::class.java
+        }
+    }
+
+    override fun isCellEditable(rowIndex: Int, columnIndex: Int): Boolean {
+        return columnIndex == COLUMN_SELECTED || columnIndex == COLUMN_ACTION // 选择列和操作列可编辑
+    }
+
+    override fun getValueAt(rowIndex: Int, columnIndex: Int): Any? {
+        val pomInfo = rows[rowIndex]
+        return when (columnIndex) {
+            COLUMN_SELECTED -> pomInfo.isSelected
+            COLUMN_PATH -> pomInfo.path
+            COLUMN_LOCAL_VERSION -> pomInfo.localVersion
+            COLUMN_REMOTE_SNAPSHOT -> pomInfo.remoteSnapshot
+            COLUMN_REMOTE_RELEASE -> pomInfo.remoteRelease
+            else -> ACTION_TEXT
+        }
+    }
+
+    override fun setValueAt(aValue: Any?, rowIndex: Int, columnIndex: Int) {
+        if (columnIndex != COLUMN_SELECTED || rowIndex >= rows.size) return
+        val selected = aValue as? Boolean ?: return
+        rows[rowIndex].isSelected = selected
+        sortKeys[rowIndex][COLUMN_SELECTED] = selected
+        fireTableCellUpdated(rowIndex, columnIndex)
+    }
+
+    override fun getSortKey(row: Int, column: Int): Comparable<*>? = sortKeys[row][column]
+
+    override fun getFilterText(row: Int): String = filterTexts[row]
+
+    private fun computeSortKeys(pomInfo: VersionUpdateDialog.PomFileInfo): Array<Comparable<*>?> {
+        return arrayOf(
+            pomInfo.isSelected,
+            pomInfo.path.lowercase(),
+            SortableTableModel.versionSortKey(pomInfo.localVersion),
+            SortableTableModel.versionSortKey(pomInfo.remoteSnapshot),
+            SortableTableModel.versionSortKey(pomInfo.remoteRelease),
+            null
+        )
+    }
+
+    private fun computeFilterText(pomInfo: VersionUpdateDialog.PomFileInfo): String {
+        return "${pomInfo.path}\n${pomInfo.localVersion}\n${pomInfo.remoteSnapshot}\n${pomInfo.remoteRelease}".lowercase()
+    }
+
+    companion object {
+        const val COLUMN_SELECTED = 0
+        const val COLUMN_PATH = 1
+        const val COLUMN_LOCAL_VERSION = 2
+        const val COLUMN_REMOTE_SNAPSHOT = 3
+        const val COLUMN_REMOTE_RELEASE = 4
+        const val COLUMN_ACTION = 5
+        const val ACTION_TEXT = "检查依赖"
+
+        private val COLUMN_NAMES = arrayOf("选择", "POM位置", "本地版本", "远端SNAPSHOT", "远端RELEASE", "操作")
+    }
+}
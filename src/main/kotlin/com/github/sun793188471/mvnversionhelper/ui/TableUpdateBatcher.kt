@@ -0,0 +1,65 @@
+package com.github.sun793188471.mvnversionhelper.ui
+
+import com.intellij.openapi.Disposable
+import java.util.concurrent.ConcurrentLinkedQueue
+import javax.swing.Timer
+import javax.swing.table.AbstractTableModel
+
+/**
+ * 合并表格行更新
+ *
+ * 后台线程只提交不可变的更新结果，由 EDT 上的定时器每隔 intervalMs 批量取出并应用，
+ * 每批只触发一次覆盖全部变更行的 fireTableRowsUpdated，行数很多时重绘开销也不随更新次数增长。
+ * apply 在 EDT 上执行，直接修改模型数据而不触发事件，返回被更新的行号，返回 -1 表示忽略该更新。
+ */
+class TableUpdateBatcher<T>(
+    private val model: AbstractTableModel,
+    intervalMs: Int = DEFAULT_INTERVAL_MS,
+    private val apply: (T) -> Int
+) : Disposable {
+
+    private val queue = ConcurrentLinkedQueue<T>()
+    private val timer = Timer(intervalMs) { drain() }
+
+    @Volatile
+    private var disposed = false
+
+    /**
+     * 可在任意线程调用
+     */
+    fun publish(update: T) {
+        if (disposed) return
+        queue.add(update)
+        if (!timer.isRunning) timer.start()
+    }
+
+    private fun drain() {
+        var firstRow = Int.MAX_VALUE
+        var lastRow = -1
+        while (true) {
+            val update = queue.poll() ?: break
+            val row = apply(update)
+            if (row >= 0) {
+                firstRow = minOf(firstRow, row)
+                lastRow = maxOf(lastRow, row)
+            }
+        }
+        if (lastRow >= 0) {
+            model.fireTableRowsUpdated(firstRow, lastRow)
+        }
+
+        // 队列为空时停止定时器；停止后再检查一次，避免与 publish 并发时遗漏刚提交的更新
+        timer.stop()
+        if (queue.isNotEmpty() && !disposed) timer.start()
+    }
+
+    override fun dispose() {
+        disposed = true
+        timer.stop()
+        queue.clear()
+    }
+
+    companion object {
+        const val DEFAULT_INTERVAL_MS = 40
+    }
+}
@@ -1,29 +1,37 @@
 package com.github.sun793188471.mvnversionhelper.ui
 
 import com.github.sun793188471.mvnversionhelper.MyBundle
+import com.github.sun793188471.mvnversionhelper.services.MavenCoordinateProvider
 import com.github.sun793188471.mvnversionhelper.services.MavenRepositoryService
 import com.github.sun793188471.mvnversionhelper.services.MavenVersionService
 import com.github.sun793188471.mvnversionhelper.services.MavenVersionService.BranchType
+import com.github.sun793188471.mvnversionhelper.services.MavenWarmupService
+import com.github.sun793188471.mvnversionhelper.services.PomCoordinates
+import com.github.sun793188471.mvnversionhelper.services.PrioritizedBatchLookup
 import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ModalityState
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProcessCanceledException
 import com.intellij.openapi.progress.ProgressIndicator
 import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.progress.Task
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.ui.DialogWrapper
 import com.intellij.openapi.ui.Messages
-import com.intellij.psi.xml.XmlFile
-import com.intellij.psi.xml.XmlTag
+import com.intellij.openapi.util.Disposer
+import com.intellij.ui.DocumentAdapter
 import com.intellij.ui.components.JBCheckBox
 import com.intellij.ui.components.JBLabel
 import com.intellij.ui.components.JBScrollPane
 import com.intellij.ui.components.JBTextField
 import com.intellij.ui.table.JBTable
 import java.awt.*
-import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CancellationException
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
 import javax.swing.*
-import javax.swing.table.DefaultTableModel
+import javax.swing.event.DocumentEvent
 import javax.swing.table.TableCellRenderer
 
 class VersionUpdateDialog(
@@ -35,31 +43,65 @@ class VersionUpdateDialog(
     private lateinit var selectAllCheckbox: JBCheckBox
     private lateinit var projectVersionPanel: JPanel
     private lateinit var pomTable: JBTable
-    private lateinit var tableModel: DefaultTableModel
+    private val tableModel = PomFileTableModel()
+    private lateinit var rowSorter: KeyedTableRowSorter<PomFileTableModel>
+    private val filterField = JBTextField(20)
 
     private val repositoryService = MavenRepositoryService.getInstance(project)
+    // 对话框发起的后台查询，关闭对话框时一并取消
+    private val tasks = DialogTaskScope(disposable)
     private val logger = Logger.getInstance(VersionUpdateDialog::class.java)
 
-    private var pomFiles = versionService.findPomFiles()
-    private var realBranchName = versionService.getRealBranchName()
-    private var branchType = versionService.getBranchType(realBranchName)
-    private var currentProjectVersion = versionService.getCurrentProjectRemoteVersions(branchType, pomFiles)
-    private var parentFile: XmlFile? = null
+    // 有预热结果时直接使用；否则对话框先显示占位内容，POM 文件、分支和远端版本在后台并行加载
+    private val warmState = MavenWarmupService.getInstance(project).getWarmState()
+    @Volatile
+    private var pomFiles: List<PomCoordinates> = warmState?.pomFiles ?: emptyList()
+    @Volatile
+    private var realBranchName: String? = warmState?.realBranchName
+    @Volatile
+    private var branchType: BranchType = warmState?.branchType ?: BranchType.OTHER
+    @Volatile
+    private var currentProjectVersion: Pair<String?, String?> = warmState?.currentProjectVersion ?: Pair(null, null)
+    private var parentPom: PomCoordinates? = null
+
+    // POM 文件、分支信息和远端版本是否已加载完成，未完成时界面显示占位内容
+    private var pomFilesLoaded = warmState != null
+    private var branchLoaded = warmState != null
+    private var projectVersionLoaded = warmState != null
+
+    private lateinit var branchInfoPanel: JPanel
+    private val versionButtons = mutableListOf<JButton>()
 
     // 用于缓存版本信息，避免重复请求
     private val versionCache = ConcurrentHashMap<String, Pair<String?, String?>>()
 
-    // 数据类用于存储POM文件信息
+    // 数据类用于存储POM文件信息，只保存扫描出的坐标，修改或检查依赖时再取 PSI
     data class PomFileInfo(
-        val xmlFile: XmlFile,
+        val pom: PomCoordinates,
         val path: String,
         val localVersion: String,
-        var remoteSnapshot: String = "加载中...",
-        var remoteRelease: String = "加载中...",
+        var remoteSnapshot: String = LOADING_TEXT,
+        var remoteRelease: String = LOADING_TEXT,
         var isSelected: Boolean = true
     )
 
-    private val pomFileInfoList = mutableListOf<PomFileInfo>()
+    /**
+     * 后台查询到的远端版本，generation 与当前表格不一致时说明表格已重建，丢弃该结果
+     * tableModel 中的行只在 EDT 上读写，后台线程通过 tableUpdates 提交结果
+     */
+    private data class RowUpdate(
+        val generation: Int,
+        val row: Int,
+        val remoteSnapshot: String,
+        val remoteRelease: String
+    )
+
+    private var rowGeneration = 0
+    private lateinit var tableUpdates: TableUpdateBatcher<RowUpdate>
+
+    // 正在进行的远端版本查询，以及模型行号对应的 groupId:artifactId，用于让可见行插队；只在 EDT 上读写
+    private var remoteLookup: PrioritizedBatchLookup? = null
+    private var rowKeys: Array<String?> = emptyArray()
 
     init {
         title = "Update Maven Version"
@@ -76,7 +118,8 @@ class VersionUpdateDialog(
         gbc.gridy = 0
         gbc.fill = GridBagConstraints.HORIZONTAL
         gbc.weightx = 1.0
-        val branchInfoPanel = createBranchInfoPanel(realBranchName)
+        branchInfoPanel = JPanel(FlowLayout(FlowLayout.LEFT))
+        updateBranchInfoPanel()
         mainPanel.add(branchInfoPanel, gbc)
 
         // 项目版本信息面板
@@ -109,6 +152,7 @@ class VersionUpdateDialog(
             }
         }
         inputPanel.add(recommendButton)
+        versionButtons.add(recommendButton)
 
         // 选择最新RELEASE版本按钮
         val latestReleaseButton = JButton("最新RELEASE")
@@ -127,6 +171,7 @@ class VersionUpdateDialog(
             }
         }
         inputPanel.add(latestReleaseButton)
+        versionButtons.add(latestReleaseButton)
 
         // 选择最新SNAPSHOT版本按钮
         val latestSnapshotButton = JButton("最新SNAPSHOT")
@@ -145,6 +190,7 @@ class VersionUpdateDialog(
             }
         }
         inputPanel.add(latestSnapshotButton)
+        versionButtons.add(latestSnapshotButton)
 
         // 修改配置按钮的处理逻辑
         val configBtn = JButton("配置")
@@ -171,10 +217,19 @@ class VersionUpdateDialog(
         selectAllCheckbox = JBCheckBox("全选", true)
         selectAllCheckbox.addActionListener {
             val selected = selectAllCheckbox.isSelected
-            pomFileInfoList.forEach { it.isSelected = selected }
-            refreshTable()
+            tableModel.setAllSelected(selected)
+            updateSelectAllCheckboxState()
         }
         listHeaderPanel.add(selectAllCheckbox)
+
+        // 按路径或版本号过滤
+        listHeaderPanel.add(JBLabel("过滤:"))
+        filterField.document.addDocumentListener(object : DocumentAdapter() {
+            override fun textChanged(e: DocumentEvent) {
+                rowSorter.setFilterText(filterField.text)
+            }
+        })
+        listHeaderPanel.add(filterField)
         mainPanel.add(listHeaderPanel, gbc)
 
         // POM文件表格
@@ -185,11 +240,21 @@ class VersionUpdateDialog(
         createTable()
         val scrollPane = JBScrollPane(pomTable)
         scrollPane.preferredSize = Dimension(1200, 500)
+        // 滚动、排序或过滤后可见行变化，优先查询这些行
+        scrollPane.viewport.addChangeListener { prioritizeVisibleRows() }
+        rowSorter.addRowSorterListener { prioritizeVisibleRows() }
         mainPanel.add(scrollPane, gbc)
 
         // 在界面创建完成后加载信息
+        versionButtons.forEach { it.isEnabled = projectVersionLoaded }
         loadProjectVersionInfo()
         loadPomFiles()
+        if (warmState != null) {
+            loadRemoteVersionsAsync()
+        } else {
+            isOKActionEnabled = false
+            loadDialogDataAsync()
+        }
 
         return mainPanel
     }
@@ -207,7 +272,7 @@ class VersionUpdateDialog(
             return
         }
 
-        val selectedFiles = pomFileInfoList.filter { it.isSelected }.map { it.xmlFile }
+        val selectedFiles = tableModel.pomFiles.filter { it.isSelected }.map { it.pom }
         if (selectedFiles.isEmpty()) {
             ApplicationManager.getApplication().invokeLater {
                 Messages.showWarningDialog(
@@ -219,20 +284,39 @@ class VersionUpdateDialog(
             return
         }
 
+        // 反应堆中其余模块的 parent 和依赖引用随选中模块一起更新
+        val reactor = tableModel.pomFiles.map { it.pom }
         val task = object : Task.Backgroundable(project, "正在更新版本...", true) {
             override fun run(indicator: ProgressIndicator) {
-                var successCount = 0
-
-                selectedFiles.forEachIndexed { index, pomFile ->
-                    indicator.text = "更新文件 ${index + 1}/${selectedFiles.size}"
-                    indicator.fraction = index.toDouble() / selectedFiles.size
+                // 所有文件在一个写命令中修改，可以一次撤销；任何文件无法修改时都不修改
+                val result = try {
+                    versionService.updateVersions(selectedFiles, reactor, newVersion, indicator)
+                } catch (e: ProcessCanceledException) {
+                    throw e
+                } catch (e: Exception) {
+                    logger.warn("批量更新版本失败", e)
+                    ApplicationManager.getApplication().invokeLater {
+                        Messages.showErrorDialog(
+                            project,
+                            MyBundle.message("version.update.error", e.message ?: e.javaClass.simpleName),
+                            MyBundle.message("version.update.title")
+                        )
+                    }
+                    return
+                }
 
-                    if (versionService.updateVersion(pomFile, newVersion)) {
-                        successCount++
+                if (result.failures.isNotEmpty()) {
+                    val message = MyBundle.message("version.update.failed") + ":\n" + result.failures.joinToString("\n")
+                    ApplicationManager.getApplication().invokeLater {
+                        Messages.showErrorDialog(project, message, MyBundle.message("version.update.title"))
                     }
+                    return
                 }
 
-                val message = MyBundle.message("version.update.success", successCount, newVersion)
+                var message = MyBundle.message("version.update.success", result.updated, newVersion)
+                if (result.propagated > 0) {
+                    message += "\n" + MyBundle.message("version.update.propagated", result.propagated)
+                }
                 ApplicationManager.getApplication().invokeLater {
                     Messages.showInfoMessage(project, message, MyBundle.message("version.update.title"))
                     close(OK_EXIT_CODE)
@@ -253,54 +337,78 @@ class VersionUpdateDialog(
     private fun refreshData() {
         val task = object : Task.Backgroundable(project, "正在刷新数据...", true) {
             override fun run(indicator: ProgressIndicator) {
+                // 刷新期间关闭对话框时中断当前线程，放弃后续的查询
+                val unregister = tasks.onCancel { indicator.cancel() }
                 try {
-                    indicator.text = "清除缓存..."
-                    indicator.fraction = 0.1
-
-                    // 清除版本缓存
-                    versionCache.clear()
-                    logger.info("已清除版本缓存")
-
-                    indicator.text = "重新扫描 POM 文件..."
-                    indicator.fraction = 0.3
-
-                    // 重新获取 POM 文件列表
-                    val refreshedPomFiles = versionService.findPomFiles()
-                    pomFiles = refreshedPomFiles
-
-                    logger.info("重新扫描到 ${refreshedPomFiles.size} 个 POM 文件")
-
-                    indicator.text = "重新获取项目版本信息..."
-                    indicator.fraction = 0.5
-
-                    // 获取分支名称
-                    realBranchName = versionService.getRealBranchName()
-                    // 重新获取分支信息
-                    branchType = versionService.getBranchType(realBranchName)
-
-                    // 重新获取项目版本信息
-                    val refreshedProjectVersion = versionService.getCurrentProjectRemoteVersions(branchType, pomFiles)
-                    logger.info("重新获取项目版本信息: Release=${refreshedProjectVersion.first}, Snapshot=${refreshedProjectVersion.second}")
-
-                    indicator.text = "更新界面..."
-                    indicator.fraction = 0.8
-
-                    // 重新加载项目版本信息面板
-                    loadProjectVersionInfo()
-                    // 重新加载 POM 文件列表
-                    loadPomFiles()
+                    tasks.runInterruptibly {
+                        indicator.text = "清除缓存..."
+                        indicator.fraction = 0.1
+
+                        // 清除版本缓存
+                        versionCache.clear()
+                        repositoryService.invalidateMetadataCache()
+                        repositoryService.invalidateRepositoryUrls()
+                        logger.info("已清除版本缓存")
+
+                        indicator.text = "重新扫描 POM 文件..."
+                        indicator.fraction = 0.3
+
+                        // 重新获取 POM 文件列表
+                        val refreshedPomFiles = versionService.scanPomFiles()
+                        pomFiles = refreshedPomFiles
+
+                        logger.info("重新扫描到 ${refreshedPomFiles.size} 个 POM 文件")
+
+                        indicator.text = "重新获取项目版本信息..."
+                        indicator.fraction = 0.5
+
+                        // 获取分支名称
+                        realBranchName = versionService.getRealBranchName()
+                        // 重新获取分支信息
+                        branchType = versionService.getBranchType(realBranchName)
+
+                        // 重新获取项目版本信息
+                        val refreshedProjectVersion = versionService.getCurrentProjectRemoteVersions(branchType, pomFiles)
+                        currentProjectVersion = refreshedProjectVersion
+                        logger.info("重新获取项目版本信息: Release=${refreshedProjectVersion.first}, Snapshot=${refreshedProjectVersion.second}")
+
+                        indicator.text = "更新界面..."
+                        indicator.fraction = 0.8
+
+                        invokeOnEdt {
+                            pomFilesLoaded = true
+                            branchLoaded = true
+                            projectVersionLoaded = true
+                            isOKActionEnabled = true
+                            versionButtons.forEach { it.isEnabled = true }
+                            updateBranchInfoPanel()
+                            // 重新加载项目版本信息面板
+                            loadProjectVersionInfo()
+                            // 重新加载 POM 文件列表
+                            loadPomFiles()
+                            loadRemoteVersionsAsync()
+                        }
 
-                    indicator.fraction = 1.0
-                    logger.info("数据刷新完成")
+                        indicator.fraction = 1.0
+                        logger.info("数据刷新完成")
 
-                    ApplicationManager.getApplication().invokeLater {
-                        Messages.showInfoMessage(
-                            project,
-                            "数据刷新完成！\n扫描到 ${refreshedPomFiles.size} 个 POM 文件",
-                            "刷新成功"
-                        )
+                        ApplicationManager.getApplication().invokeLater {
+                            Messages.showInfoMessage(
+                                project,
+                                "数据刷新完成！\n扫描到 ${refreshedPomFiles.size} 个 POM 文件",
+                                "刷新成功"
+                            )
+                        }
                     }
+                } catch (e: CancellationException) {
+                    logger.info("对话框已关闭，取消刷新数据")
+                } catch (e: InterruptedException) {
+                    logger.info("对话框已关闭，取消刷新数据")
+                } catch (e: ProcessCanceledException) {
+                    throw e
                 } catch (e: Exception) {
+                    // 对话框关闭时中断的请求可能表现为 IOException，不再提示
+                    if (tasks.isDisposed) return
                     logger.warn("刷新数据时发生错误", e)
                     ApplicationManager.getApplication().invokeLater {
                         Messages.showErrorDialog(
@@ -309,6 +417,8 @@ class VersionUpdateDialog(
                             "刷新失败"
                         )
                     }
+                } finally {
+                    unregister()
                 }
             }
         }
@@ -317,10 +427,76 @@ class VersionUpdateDialog(
     }
 
 
+    /**
+     * 后台并行扫描 POM 文件和查询分支信息，二者都就绪后再查询当前项目的远端版本
+     * 每项结果到达后立即更新对应的界面区域
+     */
+    private fun loadDialogDataAsync() {
+        val pomFilesFuture = tasks.supplyAsync { versionService.scanPomFiles() }
+        val branchFuture = tasks.supplyAsync { versionService.getRealBranchName() }
+
+        pomFilesFuture.whenComplete { files, error ->
+            if (error != null && !tasks.isDisposed) logger.warn("扫描 POM 文件失败", error)
+            invokeOnEdt {
+                pomFiles = files ?: emptyList()
+                pomFilesLoaded = true
+                isOKActionEnabled = true
+                loadProjectVersionInfo()
+                loadPomFiles()
+            }
+        }
+
+        branchFuture.whenComplete { branchName, error ->
+            if (error != null && !tasks.isDisposed) logger.warn("获取分支信息失败", error)
+            val type = versionService.getBranchType(branchName)
+            invokeOnEdt {
+                realBranchName = branchName
+                branchType = type
+                branchLoaded = true
+                updateBranchInfoPanel()
+            }
+        }
+
+        pomFilesFuture.thenCombine(branchFuture) { files, branchName -> Pair(files, branchName) }
+            .thenCompose { (files, branchName) ->
+                tasks.supplyAsync {
+                    versionService.getCurrentProjectRemoteVersions(versionService.getBranchType(branchName), files)
+                }
+            }
+            .whenComplete { versions, error ->
+                if (error != null && !tasks.isDisposed) logger.warn("获取项目远端版本失败", error)
+                invokeOnEdt {
+                    currentProjectVersion = versions ?: Pair(null, null)
+                    projectVersionLoaded = true
+                    versionButtons.forEach { it.isEnabled = true }
+                    loadProjectVersionInfo()
+                    // 各模块的远端版本依赖分支类型，分支和 POM 文件都就绪后再查询
+                    if (!pomFilesFuture.isCompletedExceptionally) loadRemoteVersionsAsync()
+                }
+            }
+    }
+
+    /**
+     * 对话框关闭后不再更新界面；表格和面板只涉及 Swing 组件，模态对话框打开期间也要执行
+     */
+    private fun invokeOnEdt(action: () -> Unit) {
+        ApplicationManager.getApplication().invokeLater({
+            if (!isDisposed) action()
+        }, ModalityState.any())
+    }
+
     private fun loadProjectVersionInfo() {
+        if (!pomFilesLoaded) {
+            projectVersionPanel.removeAll()
+            projectVersionPanel.layout = FlowLayout(FlowLayout.LEFT)
+            projectVersionPanel.add(JBLabel("当前项目: $LOADING_TEXT"))
+            projectVersionPanel.revalidate()
+            projectVersionPanel.repaint()
+            return
+        }
         try {
             val (groupId, artifactId, parent) = versionService.getParentProjectInfo(pomFiles)
-            parentFile = parent
+            parentPom = parent
             projectVersionPanel.removeAll()
             projectVersionPanel.layout = FlowLayout(FlowLayout.LEFT)
 
@@ -328,7 +504,9 @@ class VersionUpdateDialog(
                 projectVersionPanel.add(JBLabel("当前项目: $groupId:$artifactId"))
                 projectVersionPanel.add(JBLabel(" | "))
 
-                if (currentProjectVersion.first != null) {
+                if (!projectVersionLoaded) {
+                    projectVersionPanel.add(JBLabel("Release: $LOADING_TEXT"))
+                } else if (currentProjectVersion.first != null) {
                     projectVersionPanel.add(JBLabel("Release: ${currentProjectVersion.first}"))
                 } else {
                     projectVersionPanel.add(JBLabel("Release: 无"))
@@ -336,7 +514,9 @@ class VersionUpdateDialog(
 
                 projectVersionPanel.add(JBLabel(" | "))
 
-                if (currentProjectVersion.second != null) {
+                if (!projectVersionLoaded) {
+                    projectVersionPanel.add(JBLabel("远端 SNAPSHOT: $LOADING_TEXT"))
+                } else if (currentProjectVersion.second != null) {
                     projectVersionPanel.add(JBLabel("远端 SNAPSHOT: ${currentProjectVersion.second}"))
                 } else {
                     projectVersionPanel.add(JBLabel("远端 SNAPSHOT: 无"))
@@ -356,11 +536,15 @@ class VersionUpdateDialog(
         }
     }
 
-    private fun createBranchInfoPanel(realBranchName: String?): JPanel {
-        val panel = JPanel(FlowLayout(FlowLayout.LEFT))
+    private fun updateBranchInfoPanel() {
+        val panel = branchInfoPanel
+        panel.removeAll()
         panel.add(JBLabel("分支信息: "))
 
-        if (realBranchName != null) {
+        val realBranchName = realBranchName
+        if (!branchLoaded) {
+            panel.add(JBLabel(LOADING_TEXT))
+        } else if (realBranchName != null) {
             panel.add(JBLabel("当前分支: $realBranchName"))
             panel.add(JBLabel(" | "))
             panel.add(JBLabel("分支类型: ${branchType.displayName}"))
@@ -377,10 +561,12 @@ class VersionUpdateDialog(
             panel.add(JBLabel("无法获取当前分支信息"))
         }
 
-        return panel
+        panel.revalidate()
+        panel.repaint()
     }
 
     private fun updateSelectAllCheckboxState() {
+        val pomFileInfoList = tableModel.pomFiles
         if (pomFileInfoList.isEmpty()) return
 
         val allSelected = pomFileInfoList.all { it.isSelected }
@@ -408,47 +594,28 @@ class VersionUpdateDialog(
 
 
     private fun loadPomFiles() {
-        pomFileInfoList.clear()
-
-        pomFiles.forEach { pomFile ->
-            val localVersion = getLocalVersion(pomFile)
-            val pomInfo = PomFileInfo(
-                xmlFile = pomFile,
-                path = pomFile.virtualFile.path,
-                localVersion = localVersion
+        rowGeneration++
+
+        // 已导入的模块显示 Maven 模型中插值后的版本（如 ${revision}），其余显示扫描出的版本
+        val coordinateProvider = MavenCoordinateProvider.getInstance(project)
+        val pomFileInfoList = pomFiles.map { pom ->
+            PomFileInfo(
+                pom = pom,
+                path = pom.path,
+                localVersion = coordinateProvider.getCoordinates(pom).version ?: "未知"
             )
-            pomFileInfoList.add(pomInfo)
         }
 
-        refreshTable()
-        // 异步加载远端版本信息
-        loadRemoteVersionsAsync()
-    }
-
-    private fun getLocalVersion(pomFile: XmlFile): String {
-        val rootTag = pomFile.rootTag ?: return "未知"
-        val versionTag = versionService.getCurrentVersion(pomFile)
-        return versionTag?.value?.text ?: "未知"
+        tableModel.setRows(pomFileInfoList)
+        updateSelectAllCheckboxState()
     }
 
     private fun createTable() {
-        val columnNames = arrayOf("选择", "POM位置", "本地版本", "远端SNAPSHOT", "远端RELEASE", "操作")
-
-        tableModel = object : DefaultTableModel(columnNames, 0) {
-            override fun isCellEditable(row: Int, column: Int): Boolean {
-                return column == 0 || column == 5 // 选择列和操作列可编辑
-            }
-
-            override fun getColumnClass(columnIndex: Int): Class<*> {
-                return when (columnIndex) {
-                    0 -> Boolean::class.java  // 第一列返回Boolean类型
-                    5 -> JButton::class.java  // 操作按钮列
-                    else -> String::class.java
-                }
-            }
-        }
-
         pomTable = JBTable(tableModel)
+        rowSorter = KeyedTableRowSorter(tableModel)
+        pomTable.rowSorter = rowSorter
+        tableUpdates = TableUpdateBatcher(tableModel) { update -> applyRowUpdate(update) }
+        Disposer.register(disposable, tableUpdates)
         // 改为按比例调整，让POM位置列可以自适应
         pomTable.autoResizeMode = JTable.AUTO_RESIZE_SUBSEQUENT_COLUMNS
         pomTable.rowHeight = 30
@@ -473,127 +640,142 @@ class VersionUpdateDialog(
 
         // 添加选择框变化监听
         tableModel.addTableModelListener { e ->
-            if (e.column == 0) {
-                val row = e.firstRow
-                if (row >= 0 && row < pomFileInfoList.size) {
-                    pomFileInfoList[row].isSelected = tableModel.getValueAt(row, 0) as Boolean
-                    updateSelectAllCheckboxState()
-                }
+            if (e.column == PomFileTableModel.COLUMN_SELECTED) {
+                updateSelectAllCheckboxState()
             }
         }
     }
 
-    private fun refreshTable() {
-        try {
-            tableModel.rowCount = 0
-            pomFileInfoList.forEach { pomInfo ->
-                tableModel.addRow(
-                    arrayOf(
-                        pomInfo.isSelected,
-                        pomInfo.path,
-                        pomInfo.localVersion,
-                        pomInfo.remoteSnapshot,
-                        pomInfo.remoteRelease,
-                        "检查依赖"
-                    )
-                )
-            }
-            pomTable.revalidate()
-            pomTable.repaint()
-            updateSelectAllCheckboxState()
-        } catch (e: Exception) {
-            logger.warn("刷新表格失败", e)
-        }
-    }
-
     private fun loadRemoteVersionsAsync() {
-        val task = object : Task.Backgroundable(project, "正在加载远端版本信息...", false) {
+        // 在 EDT 上取当前行和可见行的快照，后台线程不访问表格模型
+        val poms = tableModel.pomFiles.map { it.pom }
+        val visibleRows = visibleModelRows().toHashSet()
+        val generation = rowGeneration
+        remoteLookup?.cancel()
+        remoteLookup = null
+
+        val task = object : Task.Backgroundable(project, "正在加载远端版本信息...", true) {
             override fun run(indicator: ProgressIndicator) {
-                // 收集所有需要查询的模块信息
-                val moduleInfoList = mutableListOf<Triple<String, String, Int>>()
-                pomFileInfoList.forEachIndexed { index, pomInfo ->
-                    val rootTag = com.intellij.openapi.application.ReadAction.compute<XmlTag?, Throwable> {
-                        pomInfo.xmlFile.rootTag
-                    }
-                    if (rootTag != null) {
-                        val groupId = com.intellij.openapi.application.ReadAction.compute<String?, Throwable> {
-                            rootTag.findFirstSubTag("groupId")?.value?.text
-                                ?: rootTag.findFirstSubTag("parent")?.findFirstSubTag("groupId")?.value?.text
-                        }
-                        val artifactId = com.intellij.openapi.application.ReadAction.compute<String?, Throwable> {
-                            rootTag.findFirstSubTag("artifactId")?.value?.text
-                        }
-
+                // 对话框关闭时取消进度指示器，批量查询随之取消
+                val unregister = tasks.onCancel { indicator.cancel() }
+                try {
+                    collectAndLookup(indicator)
+                } finally {
+                    unregister()
+                }
+            }
 
-                        if (groupId != null && artifactId != null) {
-                            val cacheKey = "$groupId:$artifactId"
-                            if (!versionCache.containsKey(cacheKey)) {
-                                moduleInfoList.add(Triple(groupId, artifactId, index))
-                            } else {
-                                // 使用缓存数据立即更新
-                                val versions = versionCache[cacheKey]!!
-                                pomInfo.remoteRelease = versions.first ?: "无"
-                                pomInfo.remoteSnapshot = versions.second ?: "无"
-                                updateTableRow(index)
+            private fun collectAndLookup(indicator: ProgressIndicator) {
+                // 收集所有需要查询的模块信息，同一个 groupId:artifactId 可能对应多行
+                val keys = arrayOfNulls<String>(poms.size)
+                val visibleKeys = HashSet<String>()
+                val rowsByKey = mutableMapOf<String, MutableList<Int>>()
+                val coordinates = mutableListOf<MavenRepositoryService.ArtifactCoordinate>()
+                // 坐标优先取导入的 Maven 模型，未导入的模块使用扫描结果
+                val coordinateProvider = MavenCoordinateProvider.getInstance(project)
+                poms.forEachIndexed { index, pom ->
+                    indicator.checkCanceled()
+                    val module = coordinateProvider.getCoordinates(pom)
+                    val groupId = module.groupId
+                    val artifactId = module.artifactId
+                    if (groupId != null && artifactId != null) {
+                        val cacheKey = "$groupId:$artifactId"
+                        keys[index] = cacheKey
+                        if (index in visibleRows) visibleKeys.add(cacheKey)
+                        val cached = versionCache[cacheKey]
+                        if (cached == null) {
+                            val rows = rowsByKey.getOrPut(cacheKey) { mutableListOf() }
+                            if (rows.isEmpty()) {
+                                coordinates.add(MavenRepositoryService.ArtifactCoordinate(groupId, artifactId))
                             }
+                            rows.add(index)
+                        } else {
+                            // 使用缓存数据立即更新
+                            publishRowUpdate(generation, index, cached)
                         }
                     }
                 }
 
-                // 并行获取版本信息
-                val futures = moduleInfoList.mapIndexed { taskIndex, (groupId, artifactId, pomIndex) ->
-                    CompletableFuture.supplyAsync {
-                        try {
-                            indicator.text = "正在获取 $groupId:$artifactId 版本信息"
-                            indicator.fraction = taskIndex.toDouble() / moduleInfoList.size
-
-                            val versions = repositoryService.getRemoteVersions(groupId, artifactId, branchType)
-                            val cacheKey = "$groupId:$artifactId"
-                            versionCache[cacheKey] = versions
-
-                            // 更新对应的pomInfo
-                            val pomInfo = pomFileInfoList[pomIndex]
-                            pomInfo.remoteRelease = versions.first ?: "无"
-                            pomInfo.remoteSnapshot = versions.second ?: "无"
-
-                            // 更新表格行
-                            updateTableRow(pomIndex)
-
-                            return@supplyAsync true
-                        } catch (e: Exception) {
-                            logger.warn("获取版本信息失败: $groupId:$artifactId", e)
-                            // 更新为错误状态
-                            val pomInfo = pomFileInfoList[pomIndex]
-                            pomInfo.remoteRelease = "获取失败"
-                            pomInfo.remoteSnapshot = "获取失败"
-                            updateTableRow(pomIndex)
-                            return@supplyAsync false
-                        }
+                // 批量并发获取版本信息，当前可见的行先查询；按完成顺序提交更新，由 EDT 定时合并刷新表格
+                val orderedCoordinates = coordinates.sortedBy { if (it.key in visibleKeys) 0 else 1 }
+                val total = rowsByKey.size
+                val completed = AtomicInteger(0)
+                val batch = repositoryService.lookupBatch(orderedCoordinates, branchType) { coordinate, versions ->
+                    val cacheKey = coordinate.key
+                    versionCache[cacheKey] = versions
+                    indicator.text = "已获取 $cacheKey 版本信息"
+                    indicator.fraction = completed.incrementAndGet().toDouble() / total
+
+                    rowsByKey[cacheKey]?.forEach { pomIndex ->
+                        publishRowUpdate(generation, pomIndex, versions)
                     }
                 }
 
+                // 回到 EDT 登记批次；表格在此期间已重建时，这批结果不会再用到，直接取消
+                invokeOnEdt {
+                    if (generation == rowGeneration) {
+                        remoteLookup = batch
+                        rowKeys = keys
+                    } else {
+                        batch.cancel()
+                    }
+                }
+                // 对话框关闭时立即中断进行中的查询，不等进度指示器轮询
+                val cancelBatch = tasks.onCancel { batch.cancel() }
+
+                // 不设总超时，剩余的行在后台继续加载，直到全部完成或用户取消
                 try {
-                    CompletableFuture.allOf(*futures.toTypedArray())
-                        .get(30, java.util.concurrent.TimeUnit.SECONDS)
+                    ProgressIndicatorUtils.awaitWithCheckCanceled(batch.future, indicator)
                     logger.info("版本信息获取完成，缓存大小: ${versionCache.size}")
+                } catch (e: ProcessCanceledException) {
+                    batch.cancel()
+                    throw e
+                } catch (e: CancellationException) {
+                    logger.info("版本信息查询已取消，剩余 ${batch.pendingCount} 个构件未查询")
                 } catch (e: Exception) {
-                    logger.warn("获取版本信息超时或失败", e)
+                    logger.warn("获取版本信息失败", e)
+                } finally {
+                    cancelBatch()
                 }
             }
         }
         ProgressManager.getInstance().run(task)
     }
 
-    private fun updateTableRow(rowIndex: Int) {
-        try {
-            if (rowIndex >= 0 && rowIndex < pomFileInfoList.size) {
-                val pomInfo = pomFileInfoList[rowIndex]
-                tableModel.setValueAt(pomInfo.remoteSnapshot, rowIndex, 3)
-                tableModel.setValueAt(pomInfo.remoteRelease, rowIndex, 4)
-            }
-        } catch (e: Exception) {
-            logger.warn("更新表格行失败: $rowIndex", e)
-        }
+    /**
+     * 把当前可见行对应的构件移到查询队首
+     */
+    private fun prioritizeVisibleRows() {
+        val lookup = remoteLookup ?: return
+        if (lookup.future.isDone) return
+        val keys = rowKeys
+        val visibleKeys = visibleModelRows().mapNotNull { keys.getOrNull(it) }.distinct()
+        if (visibleKeys.isNotEmpty()) lookup.prioritize(visibleKeys)
+    }
+
+    /**
+     * 视口中可见的行，转换为模型行号；表格尚未显示时返回空列表
+     */
+    private fun visibleModelRows(): List<Int> {
+        val rect = pomTable.visibleRect
+        if (pomTable.rowCount == 0 || rect.height <= 0) return emptyList()
+        val first = pomTable.rowAtPoint(Point(0, rect.y)).coerceAtLeast(0)
+        var last = pomTable.rowAtPoint(Point(0, rect.y + rect.height - 1))
+        if (last < 0) last = pomTable.rowCount - 1
+        return (first..last).map { pomTable.convertRowIndexToModel(it) }
+    }
+
+    private fun publishRowUpdate(generation: Int, row: Int, versions: Pair<String?, String?>) {
+        tableUpdates.publish(RowUpdate(generation, row, versions.second ?: "无", versions.first ?: "无"))
+    }
+
+    /**
+     * 在 EDT 上应用一条更新，直接写入表格数据不逐格触发事件，返回更新的行号
+     */
+    private fun applyRowUpdate(update: RowUpdate): Int {
+        if (update.generation != rowGeneration) return -1
+        val updated = tableModel.updateRemoteVersions(update.row, update.remoteSnapshot, update.remoteRelease)
+        return if (updated) update.row else -1
     }
 
     // 复选框渲染器
@@ -655,12 +837,20 @@ class VersionUpdateDialog(
         }
 
         override fun getCellEditorValue(): Any {
-            if (isPushed && currentRow >= 0 && currentRow < pomFileInfoList.size) {
-                val pomInfo = pomFileInfoList[currentRow]
-                val depDialog = DependencyVersionCheckDialog(
-                    project, pomInfo.xmlFile, parentFile, versionService, branchType
-                )
-                depDialog.show()
+            if (isPushed && currentRow >= 0 && currentRow < pomTable.rowCount) {
+                // 表格可能已排序或过滤，按模型行号取数据
+                val pomInfo = tableModel.getRow(pomTable.convertRowIndexToModel(currentRow))
+                // 检查依赖需要读取 XML 结构，此时才取 PSI
+                val pomFile = versionService.findPsiFile(pomInfo.pom)
+                if (pomFile != null) {
+                    val parentFile = parentPom?.let { versionService.findPsiFile(it) }
+                    val depDialog = DependencyVersionCheckDialog(
+                        project, pomFile, parentFile, versionService, branchType
+                    )
+                    depDialog.show()
+                } else {
+                    logger.warn("POM 文件已失效: ${pomInfo.path}")
+                }
             }
             isPushed = false
             return "检查依赖"
@@ -671,4 +861,8 @@ class VersionUpdateDialog(
             return super.stopCellEditing()
         }
     }
-}
\ No newline at end of file
+
+    companion object {
+        private const val LOADING_TEXT = "加载中..."
+    }
+}
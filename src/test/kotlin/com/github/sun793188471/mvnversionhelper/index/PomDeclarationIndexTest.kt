@@ -0,0 +1,112 @@
+package com.github.sun793188471.mvnversionhelper.index
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+
+class PomDeclarationIndexTest : BasePlatformTestCase() {
+
+    fun testIndexesProjectParentAndDependencies() {
+        val text = """
+            <project>
+                <parent>
+                    <groupId>com.example</groupId>
+                    <artifactId>parent</artifactId>
+                    <version>1.0.0</version>
+                </parent>
+                <artifactId>app</artifactId>
+                <dependencies>
+                    <dependency>
+                        <groupId>com.example</groupId>
+                        <artifactId>lib</artifactId>
+                        <version> 2.0.0 </version>
+                    </dependency>
+                    <dependency>
+                        <groupId>org.other</groupId>
+                        <artifactId>managed</artifactId>
+                    </dependency>
+                </dependencies>
+                <dependencyManagement>
+                    <dependencies>
+                        <dependency>
+                            <groupId>org.other</groupId>
+                            <artifactId>managed</artifactId>
+                            <version>${'$'}{managed.version}</version>
+                        </dependency>
+                    </dependencies>
+                </dependencyManagement>
+            </project>
+        """.trimIndent()
+        val file = myFixture.addFileToProject("app/pom.xml", text).virtualFile
+
+        val declarations = PomDeclarationIndex.getFileDeclarations(project, file)
+
+        assertEquals(setOf("com.example:parent", "com.example:app", "com.example:lib", "org.other:managed"), declarations.keys)
+        assertEquals(
+            listOf(PomDeclarationIndex.Declaration(PomDeclarationIndex.Kind.PARENT, "1.0.0", text.indexOf("<parent>"), text.indexOf("<version>1.0.0"))),
+            declarations["com.example:parent"]
+        )
+        // 未声明 groupId 的模块继承 parent 的 groupId
+        assertEquals(
+            listOf(PomDeclarationIndex.Declaration(PomDeclarationIndex.Kind.PROJECT, null, 0, -1)),
+            declarations["com.example:app"]
+        )
+        assertEquals(
+            listOf(PomDeclarationIndex.Declaration(PomDeclarationIndex.Kind.DEPENDENCY, "2.0.0", text.indexOf("<dependency>"), text.indexOf("<version> 2.0.0"))),
+            declarations["com.example:lib"]
+        )
+        val managed = declarations["org.other:managed"]!!.associateBy { it.kind }
+        assertEquals(-1, managed.getValue(PomDeclarationIndex.Kind.DEPENDENCY).versionOffset)
+        assertEquals("\${managed.version}", managed.getValue(PomDeclarationIndex.Kind.MANAGED_DEPENDENCY).version)
+    }
+
+    fun testFindsDeclarationsAcrossPoms() {
+        val parent = myFixture.addFileToProject("pom.xml", pom("com.example", "parent", "1.0.0", dependency("com.example", "lib", "1.0.0")))
+        val app = myFixture.addFileToProject("app/pom.xml", pom("com.example", "app", "1.0.0", dependency("com.example", "lib", "1.1.0")))
+        myFixture.addFileToProject("lib/pom.xml", pom("com.example", "lib", "1.1.0", ""))
+
+        val declarations = PomDeclarationIndex.findDeclarations(project, "com.example", "lib")
+
+        assertEquals(3, declarations.size)
+        assertEquals("1.0.0", declarations.getValue(parent.virtualFile).single().version)
+        assertEquals(PomDeclarationIndex.Kind.DEPENDENCY, declarations.getValue(app.virtualFile).single().kind)
+        assertEquals("1.1.0", declarations.getValue(app.virtualFile).single().version)
+    }
+
+    fun testOnlyIndexesPomXml() {
+        myFixture.addFileToProject("other.xml", pom("com.example", "other", "1.0.0", ""))
+        myFixture.addFileToProject("settings/pom.xml", "<settings><groupId>com.example</groupId><artifactId>settings</artifactId></settings>")
+
+        assertEmpty(PomDeclarationIndex.findDeclarations(project, "com.example", "other").keys)
+        assertEmpty(PomDeclarationIndex.findDeclarations(project, "com.example", "settings").keys)
+    }
+
+    fun testUpdatesAfterDocumentEdit() {
+        val psiFile = myFixture.addFileToProject("pom.xml", pom("com.example", "app", "1.0.0", ""))
+        val document = PsiDocumentManager.getInstance(project).getDocument(psiFile)!!
+        WriteCommandAction.runWriteCommandAction(project) {
+            val start = document.text.indexOf("1.0.0")
+            document.replaceString(start, start + "1.0.0".length, "2.0.0")
+            PsiDocumentManager.getInstance(project).commitDocument(document)
+        }
+
+        val declaration = PomDeclarationIndex.getFileDeclarations(project, psiFile.virtualFile)["com.example:app"]!!.single()
+
+        assertEquals("2.0.0", declaration.version)
+    }
+
+    private fun pom(groupId: String, artifactId: String, version: String, dependencies: String): String {
+        return """
+            <project>
+                <groupId>$groupId</groupId>
+                <artifactId>$artifactId</artifactId>
+                <version>$version</version>
+                <dependencies>$dependencies</dependencies>
+            </project>
+        """.trimIndent()
+    }
+
+    private fun dependency(groupId: String, artifactId: String, version: String): String {
+        return "<dependency><groupId>$groupId</groupId><artifactId>$artifactId</artifactId><version>$version</version></dependency>"
+    }
+}
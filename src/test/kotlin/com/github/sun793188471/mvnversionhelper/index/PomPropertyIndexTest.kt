@@ -0,0 +1,57 @@
+package com.github.sun793188471.mvnversionhelper.index
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+
+class PomPropertyIndexTest : BasePlatformTestCase() {
+
+    fun testIndexesPropertiesAndProjectVersion() {
+        val text = """
+            <project>
+                <artifactId>app</artifactId>
+                <version>1.2.0</version>
+                <properties>
+                    <lib.version> 2.0.0 </lib.version>
+                    <java.version>17</java.version>
+                </properties>
+            </project>
+        """.trimIndent()
+        val file = myFixture.addFileToProject("pom.xml", text).virtualFile
+
+        val properties = PomPropertyIndex.getFileProperties(project, file)
+
+        assertEquals(
+            mapOf(
+                "lib.version" to PomPropertyIndex.Property("2.0.0", text.indexOf("<lib.version>")),
+                "java.version" to PomPropertyIndex.Property("17", text.indexOf("<java.version>")),
+                PomPropertyIndex.PROJECT_VERSION to PomPropertyIndex.Property("1.2.0", text.indexOf("<version>"))
+            ),
+            properties
+        )
+    }
+
+    fun testParentVersionIsNotProjectVersion() {
+        val file = myFixture.addFileToProject(
+            "pom.xml",
+            "<project><parent><artifactId>parent</artifactId><version>1.0.0</version></parent><artifactId>app</artifactId></project>"
+        ).virtualFile
+
+        assertEmpty(PomPropertyIndex.getFileProperties(project, file).keys)
+    }
+
+    fun testFindsDefinitionsAcrossPoms() {
+        val parent = myFixture.addFileToProject("pom.xml", pom("<lib.version>1.0.0</lib.version>"))
+        val app = myFixture.addFileToProject("app/pom.xml", pom("<lib.version>1.1.0</lib.version>"))
+        myFixture.addFileToProject("other/pom.xml", pom("<other.version>3.0.0</other.version>"))
+        myFixture.addFileToProject("lib.xml", pom("<lib.version>9.9.9</lib.version>"))
+
+        val definitions = PomPropertyIndex.findDefinitions(project, "lib.version")
+
+        assertEquals(setOf(parent.virtualFile, app.virtualFile), definitions.keys)
+        assertEquals("1.0.0", definitions.getValue(parent.virtualFile).value)
+        assertEquals("1.1.0", definitions.getValue(app.virtualFile).value)
+    }
+
+    private fun pom(properties: String): String {
+        return "<project><artifactId>app</artifactId><properties>$properties</properties></project>"
+    }
+}
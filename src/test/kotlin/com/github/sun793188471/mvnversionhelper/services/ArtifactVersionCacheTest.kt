@@ -0,0 +1,86 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+
+class ArtifactVersionCacheTest : BasePlatformTestCase() {
+
+    private val central = ArtifactVersionCache.repositorySetKey(listOf("https://repo.maven.apache.org/maven2/"))
+    private val internal = ArtifactVersionCache.repositorySetKey(
+        listOf("https://nexus.example.com/repository/public/", "https://repo.maven.apache.org/maven2/")
+    )
+    private lateinit var cache: ArtifactVersionCache
+    private lateinit var savedSettings: MavenVersionHelperAppSettings.State
+
+    override fun setUp() {
+        super.setUp()
+        savedSettings = MavenVersionHelperAppSettings.getInstance().getState().copy()
+        cache = ArtifactVersionCache()
+    }
+
+    override fun tearDown() {
+        try {
+            MavenVersionHelperAppSettings.getInstance().loadState(savedSettings)
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun testRepositorySetKeyIgnoresOrder() {
+        assertEquals(
+            internal,
+            ArtifactVersionCache.repositorySetKey(
+                listOf("https://repo.maven.apache.org/maven2/", "https://nexus.example.com/repository/public/")
+            )
+        )
+    }
+
+    fun testNegativeEntryDoesNotLeakToOtherRepositories() {
+        cache.put(central, "com.example", "internal-lib", "ANY", null)
+
+        val cached = cache.get(central, "com.example", "internal-lib", "ANY")
+        assertNotNull(cached)
+        assertNull(cached!!.index)
+        assertNull(cache.get(internal, "com.example", "internal-lib", "ANY"))
+    }
+
+    fun testEntriesAreSeparatedByRepositoriesAndScope() {
+        val centralIndex = index("1.0.0")
+        val internalIndex = index("1.0.0", "1.1.0")
+        cache.put(central, "com.example", "lib", "ANY", centralIndex)
+        cache.put(internal, "com.example", "lib", "ANY", internalIndex)
+
+        assertSame(centralIndex, cache.get(central, "com.example", "lib", "ANY")!!.index)
+        assertSame(internalIndex, cache.get(internal, "com.example", "lib", "ANY")!!.index)
+        assertNull(cache.get(central, "com.example", "lib", "SNAPSHOT"))
+    }
+
+    fun testDisabledNegativeCacheSkipsMisses() {
+        MavenVersionHelperAppSettings.getInstance().setNegativeCacheTtlMinutes(0)
+        cache.put(central, "com.example", "missing", "ANY", null)
+
+        assertNull(cache.get(central, "com.example", "missing", "ANY"))
+    }
+
+    fun testEntriesHitTwiceSurviveEviction() {
+        MavenVersionHelperAppSettings.getInstance().setVersionCacheMaxMemoryMb(1)
+        val hot = index("1.0.0")
+        cache.put(central, "com.example", "hot", "ANY", hot)
+        cache.get(central, "com.example", "hot", "ANY")
+
+        // 只访问一次的条目占满试用段后被淘汰，晋升到保护段的条目保留
+        val versions = List(200) { "1.0.$it" }.toTypedArray()
+        repeat(200) { cache.put(central, "com.example", "cold-$it", "ANY", index(*versions)) }
+
+        assertSame(hot, cache.get(central, "com.example", "hot", "ANY")!!.index)
+        assertNull(cache.get(central, "com.example", "cold-0", "ANY"))
+        assertTrue(cache.getStats().evictions > 0)
+        assertTrue(cache.getStats().weightBytes <= 1024 * 1024)
+    }
+
+    private fun index(vararg versions: String): ArtifactVersionIndex {
+        val builder = ArtifactVersionIndex.Builder()
+        versions.forEach { builder.addVersion(it) }
+        return builder.build()
+    }
+}
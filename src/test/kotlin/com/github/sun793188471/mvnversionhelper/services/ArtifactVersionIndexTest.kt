@@ -0,0 +1,67 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.services.ArtifactVersionIndex.VersionCategory
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class ArtifactVersionIndexTest {
+
+    @Test
+    fun groupsVersionsByCategory() {
+        val index = index(
+            "1.9.0", "1.10.0", "1.0.0-qa-SNAPSHOT", "1.1.0-uat-SNAPSHOT",
+            "1.2.0-123-SNAPSHOT", "1.2.0-45-SNAPSHOT", "1.3.0-SNAPSHOT"
+        )
+
+        assertEquals(listOf("1.9.0", "1.10.0"), index.sortedVersions(VersionCategory.RELEASE))
+        assertEquals(listOf("1.10.0"), index.latest(VersionCategory.RELEASE, 1))
+        assertEquals(listOf("1.0.0-qa-SNAPSHOT"), index.sortedVersions(VersionCategory.QA))
+        assertEquals(listOf("1.1.0-uat-SNAPSHOT"), index.sortedVersions(VersionCategory.UAT))
+        assertEquals(listOf("1.2.0-45-SNAPSHOT", "1.2.0-123-SNAPSHOT"), index.sortedVersions(VersionCategory.TASK))
+        assertEquals(listOf("1.2.0-123-SNAPSHOT"), index.snapshotsForTask("123"))
+        assertEquals("1.3.0-SNAPSHOT", index.latestSnapshot(null))
+        assertEquals("1.2.0-45-SNAPSHOT", index.latestSnapshot(MavenVersionService.BranchType.TASK))
+        assertTrue(index.isPublished("1.9.0"))
+        assertFalse(index.isPublished("1.9.1"))
+    }
+
+    @Test
+    fun duplicateVersionsAreKeptOnce() {
+        val index = index("1.0.0", "1.1.0-SNAPSHOT", "1.0.0", "1.1.0-SNAPSHOT")
+
+        assertEquals(listOf("1.0.0", "1.1.0-SNAPSHOT"), index.versions)
+        assertEquals(listOf("1.0.0"), index.sortedVersions(VersionCategory.RELEASE))
+        assertEquals(listOf("1.1.0-SNAPSHOT"), index.sortedVersions(VersionCategory.SNAPSHOT))
+    }
+
+    @Test
+    fun repeatedTaskVersionStillCountsAsLastSeen() {
+        val index = index("1.0.0-100-SNAPSHOT", "1.0.0-200-SNAPSHOT", "1.0.0-100-SNAPSHOT")
+
+        assertEquals(listOf("1.0.0-100-SNAPSHOT", "1.0.0-200-SNAPSHOT"), index.sortedVersions(VersionCategory.TASK))
+        assertEquals("1.0.0-100-SNAPSHOT", index.latestSnapshot(MavenVersionService.BranchType.TASK))
+    }
+
+    @Test
+    fun mergeDeduplicatesVersions() {
+        val local = index("1.0.0", "1.1.0", "1.2.0-SNAPSHOT", release = "1.1.0")
+        val remote = index("1.0.0", "1.1.0", "1.2.0", "1.2.0-SNAPSHOT", release = "1.2.0")
+
+        val merged = local.merge(remote)
+
+        assertEquals(listOf("1.0.0", "1.1.0", "1.2.0-SNAPSHOT", "1.2.0"), merged.versions)
+        assertEquals(listOf("1.0.0", "1.1.0", "1.2.0"), merged.sortedVersions(VersionCategory.RELEASE))
+        assertEquals(listOf("1.2.0-SNAPSHOT"), merged.sortedVersions(VersionCategory.SNAPSHOT))
+        assertEquals("1.2.0", merged.release)
+        assertEquals(merged.estimatedBytes(), local.merge(remote).merge(remote).estimatedBytes())
+    }
+
+    private fun index(vararg versions: String, release: String? = null): ArtifactVersionIndex {
+        val builder = ArtifactVersionIndex.Builder()
+        builder.release(release)
+        versions.forEach { builder.addVersion(it) }
+        return builder.build()
+    }
+}
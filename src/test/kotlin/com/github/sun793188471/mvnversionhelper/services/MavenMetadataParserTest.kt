@@ -0,0 +1,132 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import kotlin.random.Random
+
+/**
+ * 流式解析结果与原先基于正则的解析逐项比对
+ */
+class MavenMetadataParserTest {
+
+    private val branchTypes: List<MavenVersionService.BranchType?> =
+        MavenVersionService.BranchType.values().toList() + null
+
+    @Test
+    fun selectsLatestVersionForEachBranchType() {
+        val xml = metadata(
+            release = "1.2.0",
+            versions = listOf(
+                "1.0.0", "1.2.0", "1.3.0-SNAPSHOT", "1.10.0-qa-SNAPSHOT", "1.9.0-qa-SNAPSHOT",
+                "1.2.1-uat-SNAPSHOT", "1.4.0-20001-SNAPSHOT", "1.4.0-10001-SNAPSHOT"
+            )
+        )
+        val index = parse(xml)
+
+        assertEquals(Pair("1.2.0", "1.10.0-qa-SNAPSHOT"), index.select(null))
+        assertEquals(Pair("1.2.0", "1.10.0-qa-SNAPSHOT"), index.select(MavenVersionService.BranchType.QA))
+        assertEquals(Pair("1.2.0", "1.2.1-uat-SNAPSHOT"), index.select(MavenVersionService.BranchType.UAT))
+        // 任务号版本取最后出现的，不按版本号比较
+        assertEquals(Pair("1.2.0", "1.4.0-10001-SNAPSHOT"), index.select(MavenVersionService.BranchType.TASK))
+    }
+
+    @Test
+    fun keepsFirstReleaseAndIgnoresOtherElements() {
+        val xml = """
+            <metadata>
+              <groupId>com.example</groupId>
+              <artifactId>demo</artifactId>
+              <version>0.0.1</version>
+              <versioning>
+                <latest>2.0.0</latest>
+                <release> 2.0.0 </release>
+                <release>1.0.0</release>
+                <versions><version>2.0.0</version></versions>
+              </versioning>
+            </metadata>
+        """.trimIndent()
+
+        assertEquals(regexSelect(xml, null), parse(xml).select(null))
+        assertEquals("2.0.0", parse(xml).release)
+    }
+
+    @Test
+    fun emptyMetadataHasNoVersions() {
+        val index = parse("<metadata><versioning><versions/></versioning></metadata>")
+
+        assertNull(index.release)
+        branchTypes.forEach { assertEquals(Pair(null, null), index.select(it)) }
+    }
+
+    @Test
+    fun matchesRegexParserOnRandomMetadata() {
+        val random = Random(20240601)
+        repeat(500) {
+            val versions = List(random.nextInt(0, 40)) { randomVersion(random) }
+            val release = if (random.nextInt(4) == 0) null else versions.firstOrNull() ?: randomVersion(random)
+            val xml = metadata(release, versions)
+            val index = parse(xml)
+            branchTypes.forEach { branchType ->
+                assertEquals("$branchType: $xml", regexSelect(xml, branchType), index.select(branchType))
+            }
+        }
+    }
+
+    private fun parse(xml: String): ArtifactVersionIndex {
+        return MavenMetadataParser.parse(xml.byteInputStream())
+    }
+
+    private fun metadata(release: String?, versions: List<String>): String {
+        return buildString {
+            append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<metadata>\n  <versioning>\n")
+            release?.let { append("    <release>$it</release>\n") }
+            append("    <versions>\n")
+            versions.forEach { append("      <version>$it</version>\n") }
+            append("    </versions>\n  </versioning>\n</metadata>\n")
+        }
+    }
+
+    private fun randomVersion(random: Random): String {
+        val numbers = List(random.nextInt(1, 5)) { random.nextInt(0, 12) }.joinToString(".")
+        val suffix = when (random.nextInt(8)) {
+            0 -> ""
+            1 -> "-SNAPSHOT"
+            2 -> "-qa-SNAPSHOT"
+            3 -> "-uat-SNAPSHOT"
+            4 -> "-${random.nextInt(1000, 99999)}-SNAPSHOT"
+            5 -> "-${random.nextInt(1000, 99999)}-snapshot"
+            6 -> "-RC${random.nextInt(1, 4)}"
+            else -> "-beta-SNAPSHOT"
+        }
+        return numbers + suffix
+    }
+
+    /**
+     * 原先 MavenRepositoryService.parseVersionsFromMetadata 的正则实现，作为比对基准
+     */
+    private fun regexSelect(xmlContent: String, branchType: MavenVersionService.BranchType?): Pair<String?, String?> {
+        val releaseVersion = Regex("<release>(.*?)</release>").find(xmlContent)?.groupValues?.get(1)?.trim()
+        val snapshotVersions = Regex("<version>(.*?)</version>").findAll(xmlContent)
+            .map { it.groupValues[1] }
+            .filter { it.endsWith("-SNAPSHOT", ignoreCase = true) }
+            .toList()
+
+        val latestSnapshot = when (branchType) {
+            MavenVersionService.BranchType.QA ->
+                snapshotVersions.filter { it.contains("qa", ignoreCase = true) }.maxWithOrNull(VersionComparator())
+
+            MavenVersionService.BranchType.UAT ->
+                snapshotVersions.filter { it.contains("uat", ignoreCase = true) }.maxWithOrNull(VersionComparator())
+
+            MavenVersionService.BranchType.TASK -> snapshotVersions.lastOrNull { version ->
+                Regex("-\\d+-SNAPSHOT$", RegexOption.IGNORE_CASE).containsMatchIn(version) &&
+                        !version.contains("qa", ignoreCase = true) &&
+                        !version.contains("uat", ignoreCase = true)
+            }
+
+            else -> snapshotVersions.maxWithOrNull(VersionComparator())
+        }
+        return Pair(releaseVersion, latestSnapshot)
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.services.RepositoryCircuitBreaker.BreakerState
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings.RepositoryLookupMode
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperSettings
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 通过本地桩仓库端到端验证超时推导、熔断与恢复、多仓库竞速
+ *
+ * 桩仓库可以注入延迟、5xx 和不返回响应头的挂起请求。每个测试使用不同的 groupId，
+ * 不受本地仓库、元数据缓存和内存版本缓存中已有结果的影响。
+ */
+class MavenRepositoryServiceStubServerTest : BasePlatformTestCase() {
+
+    private lateinit var savedSettings: MavenVersionHelperAppSettings.State
+    private var wasOffline = false
+    private val repositories = mutableListOf<StubRepository>()
+    private lateinit var groupId: String
+
+    override fun runInDispatchThread(): Boolean = false
+
+    override fun setUp() {
+        super.setUp()
+        val settings = MavenVersionHelperAppSettings.getInstance()
+        savedSettings = settings.getState().copy()
+        settings.setRepositoryLookupMode(RepositoryLookupMode.SEQUENTIAL)
+        settings.setCircuitBreakerFailureThreshold(2)
+        settings.setCircuitBreakerCooldownSeconds(1)
+        val projectSettings = MavenVersionHelperSettings.getInstance(project)
+        wasOffline = projectSettings.isOfflineMode()
+        projectSettings.setOfflineMode(false)
+        RepositoryCircuitBreaker.getInstance().reset()
+        groupId = "com.example.stub${System.nanoTime()}"
+    }
+
+    override fun tearDown() {
+        try {
+            repositories.forEach { it.stop() }
+            MavenRepositoryService.getInstance(project).invalidateRepositoryUrls()
+            RepositoryCircuitBreaker.getInstance().reset()
+            MavenVersionHelperSettings.getInstance(project).setOfflineMode(wasOffline)
+            MavenVersionHelperAppSettings.getInstance().loadState(savedSettings)
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun testTimeoutIsDerivedFromObservedLatencyAndWidensAfterAHang() {
+        val repository = startRepository()
+        val service = serviceFor(repository)
+        val latencyTracker = RepositoryLatencyTracker.getInstance()
+
+        repository.behavior = Behavior.Slow(100)
+        repeat(5) { assertEquals(EXPECTED_VERSIONS, service.getRemoteVersions(groupId, "slow$it")) }
+        // p99 约 100ms，乘以倍数后仍低于下限
+        assertEquals(1500L, latencyTracker.timeoutFor(repository.url))
+
+        repository.behavior = Behavior.Hang
+        val start = System.currentTimeMillis()
+        assertEquals(Pair(null, null), service.getRemoteVersions(groupId, "hang"))
+        val elapsed = System.currentTimeMillis() - start
+        assertTrue("挂起的请求应在推导出的超时后放弃，实际耗时 ${elapsed}ms", elapsed in 1500L until 5000L)
+
+        // 超时按超时值计入样本，下一次请求的超时随之放宽
+        assertEquals(6000L, latencyTracker.timeoutFor(repository.url))
+        assertEquals(BreakerState.CLOSED, RepositoryCircuitBreaker.getInstance().getStatus(repository.url).state)
+    }
+
+    fun testBreakerOpensOnServerErrorsAndRecoversThroughHalfOpenTrial() {
+        val repository = startRepository()
+        val service = serviceFor(repository)
+        val breaker = RepositoryCircuitBreaker.getInstance()
+
+        repository.behavior = Behavior.ServerError
+        assertEquals(Pair(null, null), service.getRemoteVersions(groupId, "error1"))
+        assertEquals(BreakerState.CLOSED, breaker.getStatus(repository.url).state)
+        assertEquals(Pair(null, null), service.getRemoteVersions(groupId, "error2"))
+        assertEquals(BreakerState.OPEN, breaker.getStatus(repository.url).state)
+
+        // 熔断期间不再访问仓库
+        val requestsWhileOpen = repository.requests.get()
+        repository.behavior = Behavior.Slow(0)
+        assertEquals(Pair(null, null), service.getRemoteVersions(groupId, "open"))
+        assertEquals(requestsWhileOpen, repository.requests.get())
+
+        // 冷却结束后放行一个试探请求，成功后恢复
+        Thread.sleep(1100)
+        assertEquals(EXPECTED_VERSIONS, service.getRemoteVersions(groupId, "trial"))
+        assertEquals(requestsWhileOpen + 1, repository.requests.get())
+        assertEquals(BreakerState.CLOSED, breaker.getStatus(repository.url).state)
+        assertEquals(EXPECTED_VERSIONS, service.getRemoteVersions(groupId, "recovered"))
+    }
+
+    fun testFailedTrialReopensTheBreaker() {
+        val repository = startRepository()
+        val service = serviceFor(repository)
+        val breaker = RepositoryCircuitBreaker.getInstance()
+
+        repository.behavior = Behavior.ServerError
+        service.getRemoteVersions(groupId, "error1")
+        service.getRemoteVersions(groupId, "error2")
+        assertEquals(BreakerState.OPEN, breaker.getStatus(repository.url).state)
+
+        Thread.sleep(1100)
+        assertEquals(Pair(null, null), service.getRemoteVersions(groupId, "trial"))
+        assertEquals(BreakerState.OPEN, breaker.getStatus(repository.url).state)
+    }
+
+    fun testParallelRaceFallsThroughToHealthyRepository() {
+        MavenVersionHelperAppSettings.getInstance().setRepositoryLookupMode(RepositoryLookupMode.PARALLEL)
+        val failing = startRepository().apply { behavior = Behavior.ServerError }
+        val hanging = startRepository().apply { behavior = Behavior.Hang }
+        val healthy = startRepository().apply { behavior = Behavior.Slow(200) }
+        val service = serviceFor(failing, hanging, healthy)
+
+        val start = System.currentTimeMillis()
+        assertEquals(EXPECTED_VERSIONS, service.getRemoteVersions(groupId, "race"))
+        // 不等挂起的仓库超时
+        assertTrue(System.currentTimeMillis() - start < 5000)
+        assertEquals(1, healthy.requests.get())
+    }
+
+    fun testHedgedRaceFallsThroughFailingAndHangingRepositories() {
+        MavenVersionHelperAppSettings.getInstance().setRepositoryLookupMode(RepositoryLookupMode.HEDGED)
+        val failing = startRepository().apply { behavior = Behavior.ServerError }
+        val hanging = startRepository().apply { behavior = Behavior.Hang }
+        val healthy = startRepository().apply { behavior = Behavior.Slow(0) }
+        val service = serviceFor(failing, hanging, healthy)
+
+        // 失败的仓库立即切换到下一个；挂起的仓库超过对冲阈值后再请求健康的仓库
+        assertEquals(EXPECTED_VERSIONS, service.getRemoteVersions(groupId, "hedged"))
+        assertEquals(1, failing.requests.get())
+        assertEquals(1, healthy.requests.get())
+    }
+
+    fun testBackgroundPrefetchWaitsForForegroundBatch() {
+        val repository = startRepository().apply { behavior = Behavior.Slow(1000) }
+        val service = serviceFor(repository)
+
+        val foreground = service.lookupBatch(listOf(MavenRepositoryService.ArtifactCoordinate(groupId, "dialog"))) { _, _ -> }
+        val prefetch = service.prefetchInBackground(listOf(MavenRepositoryService.ArtifactCoordinate(groupId, "warmup")))
+
+        // 前台批次进行中，预取不发请求
+        Thread.sleep(300)
+        assertEquals(1, repository.requests.get())
+        assertFalse(prefetch.future.isDone)
+
+        foreground.future.get(10, TimeUnit.SECONDS)
+        prefetch.future.get(10, TimeUnit.SECONDS)
+        assertEquals(2, repository.requests.get())
+    }
+
+    private fun serviceFor(vararg repositories: StubRepository): MavenRepositoryService {
+        val service = MavenRepositoryService.getInstance(project)
+        service.setRepositoryUrls(repositories.map { it.url })
+        return service
+    }
+
+    private fun startRepository(): StubRepository {
+        return StubRepository().also { repositories.add(it) }
+    }
+
+    private sealed class Behavior {
+        class Slow(val delayMillis: Long) : Behavior()
+        object ServerError : Behavior()
+        object Hang : Behavior()
+    }
+
+    /**
+     * 本地桩仓库，对任意 maven-metadata.xml 请求按当前行为响应
+     */
+    private class StubRepository {
+        @Volatile
+        var behavior: Behavior = Behavior.Slow(0)
+        val requests = AtomicInteger()
+
+        private val released = CountDownLatch(1)
+        private val executor: ExecutorService = Executors.newCachedThreadPool()
+        private val server = HttpServer.create(InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0).apply {
+            createContext("/") { exchange ->
+                try {
+                    handle(exchange)
+                } finally {
+                    exchange.close()
+                }
+            }
+            executor = this@StubRepository.executor
+            start()
+        }
+
+        // 端口可能被之前的测试用过，路径再加上唯一后缀，熔断和耗时统计不会沿用旧仓库的记录
+        val url: String = "http://127.0.0.1:${server.address.port}/maven2-${System.nanoTime()}/"
+
+        private fun handle(exchange: HttpExchange) {
+            requests.incrementAndGet()
+            when (val current = behavior) {
+                is Behavior.Slow -> {
+                    Thread.sleep(current.delayMillis)
+                    val body = METADATA.toByteArray()
+                    exchange.sendResponseHeaders(200, body.size.toLong())
+                    exchange.responseBody.write(body)
+                }
+                Behavior.ServerError -> exchange.sendResponseHeaders(503, -1)
+                // 不返回响应头，直到测试结束
+                Behavior.Hang -> released.await(30, TimeUnit.SECONDS)
+            }
+        }
+
+        fun stop() {
+            released.countDown()
+            server.stop(0)
+            executor.shutdownNow()
+        }
+    }
+
+    companion object {
+        private val EXPECTED_VERSIONS = Pair("1.2.0", "1.3.0-SNAPSHOT")
+
+        private val METADATA = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <metadata>
+              <versioning>
+                <release>1.2.0</release>
+                <versions>
+                  <version>1.0.0</version>
+                  <version>1.2.0</version>
+                  <version>1.3.0-SNAPSHOT</version>
+                </versions>
+              </versioning>
+            </metadata>
+        """.trimIndent()
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.components.service
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import com.intellij.testFramework.runInEdtAndGet
+import com.intellij.testFramework.runInEdtAndWait
+
+/**
+ * updateVersions 要么修改全部位置，要么一个文件都不修改
+ *
+ * updateVersions 需要在后台线程调用，测试本身不在 EDT 上运行。
+ */
+class MavenVersionServiceTest : BasePlatformTestCase() {
+
+    override fun runInDispatchThread(): Boolean = false
+
+    fun testUpdatesAllSelectedPoms() {
+        val app = addPom("app/pom.xml", pom("app", "<version>1.0.0</version>"))
+        val lib = addPom("lib/pom.xml", pom("lib", "<version> 1.0.0 </version>"))
+
+        val result = updateVersions(listOf(app, lib), listOf(app, lib), "1.1.0")
+
+        assertEquals(MavenVersionService.BulkUpdateResult(2, 0, emptyList()), result)
+        assertEquals(pom("app", "<version>1.1.0</version>"), text(app.file))
+        assertEquals(pom("lib", "<version> 1.1.0 </version>"), text(lib.file))
+    }
+
+    fun testNothingChangesWhenAVersionCannotBeLocated() {
+        val app = addPom("app/pom.xml", pom("app", "<version>1.0.0</version>"))
+        val noVersion = addPom("lib/pom.xml", pom("lib", ""))
+
+        val result = updateVersions(listOf(app, noVersion), listOf(app, noVersion), "1.1.0")
+
+        assertEquals(MavenVersionService.BulkUpdateResult(0, 0, listOf(noVersion.path)), result)
+        assertEquals(pom("app", "<version>1.0.0</version>"), text(app.file))
+    }
+
+    fun testNothingChangesWhenASelectedPomIsReadOnly() {
+        val app = addPom("app/pom.xml", pom("app", "<version>1.0.0</version>"))
+        val lib = addPom("lib/pom.xml", pom("lib", "<version>1.0.0</version>"))
+        setReadOnly(lib.file)
+
+        val result = updateVersions(listOf(app, lib), listOf(app, lib), "1.1.0")
+
+        assertEquals(listOf(lib.path), result.failures)
+        assertEquals(0, result.updated)
+        assertEquals(pom("app", "<version>1.0.0</version>"), text(app.file))
+    }
+
+    fun testNothingChangesWhenAPropagatedReferenceIsReadOnly() {
+        val parent = addPom("pom.xml", pom("parent", "<version>1.0.0</version>"))
+        val child = addPom("child/pom.xml", pom("child", "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0.0</version></parent>"))
+        setReadOnly(child.file)
+
+        val result = updateVersions(listOf(parent), listOf(parent, child), "1.1.0")
+
+        assertEquals(MavenVersionService.BulkUpdateResult(0, 0, listOf(child.path)), result)
+        assertEquals(pom("parent", "<version>1.0.0</version>"), text(parent.file))
+    }
+
+    fun testUpdatesPropagatedReferencesTogether() {
+        val parent = addPom("pom.xml", pom("parent", "<version>1.0.0</version>"))
+        val child = addPom("child/pom.xml", pom("child", "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0.0</version></parent>"))
+
+        val result = updateVersions(listOf(parent), listOf(parent, child), "1.1.0")
+
+        assertEquals(MavenVersionService.BulkUpdateResult(1, 1, emptyList()), result)
+        assertEquals(pom("parent", "<version>1.1.0</version>"), text(parent.file))
+        assertEquals(
+            pom("child", "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.1.0</version></parent>"),
+            text(child.file)
+        )
+    }
+
+    private fun updateVersions(
+        poms: List<PomCoordinates>,
+        reactor: List<PomCoordinates>,
+        newVersion: String
+    ): MavenVersionService.BulkUpdateResult {
+        return project.service<MavenVersionService>().updateVersions(poms, reactor, newVersion, EmptyProgressIndicator())
+    }
+
+    private fun addPom(path: String, text: String): PomCoordinates {
+        val file = runInEdtAndGet { myFixture.addFileToProject(path, text).virtualFile }
+        return PomCoordinateParser.parse(file)
+    }
+
+    private fun setReadOnly(file: VirtualFile) {
+        runInEdtAndWait { WriteAction.run<Throwable> { file.isWritable = false } }
+    }
+
+    private fun text(file: VirtualFile): String {
+        return ReadAction.compute<String, Throwable> { FileDocumentManager.getInstance().getDocument(file)!!.text }
+    }
+
+    private fun pom(artifactId: String, content: String): String {
+        return "<project><groupId>com.example</groupId><artifactId>$artifactId</artifactId>$content</project>"
+    }
+}
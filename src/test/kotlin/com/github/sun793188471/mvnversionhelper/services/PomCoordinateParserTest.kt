@@ -0,0 +1,129 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.fileEditor.FileDocumentManager
+import com.intellij.testFramework.LightVirtualFile
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+
+class PomCoordinateParserTest : BasePlatformTestCase() {
+
+    fun testReadsTopLevelAndParentCoordinates() {
+        val pom = parse(
+            """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <project xmlns="http://maven.apache.org/POM/4.0.0">
+                <modelVersion>4.0.0</modelVersion>
+                <parent>
+                    <groupId>com.example</groupId>
+                    <artifactId>parent</artifactId>
+                    <version>1.0.0-SNAPSHOT</version>
+                    <relativePath>../pom.xml</relativePath>
+                </parent>
+                <groupId> com.example.biz </groupId>
+                <artifactId>module-biz</artifactId>
+                <version>1.2.0</version>
+                <packaging>jar</packaging>
+            </project>
+            """.trimIndent()
+        )
+
+        assertEquals("com.example.biz", pom.groupId)
+        assertEquals("module-biz", pom.artifactId)
+        assertEquals("1.2.0", pom.version)
+        assertEquals("jar", pom.packaging)
+        assertEquals("com.example", pom.parentGroupId)
+        assertEquals("parent", pom.parentArtifactId)
+        assertEquals("1.0.0-SNAPSHOT", pom.parentVersion)
+        assertEquals("com.example.biz:module-biz", pom.key)
+    }
+
+    fun testInheritsGroupIdAndVersionFromParent() {
+        val pom = parse(
+            """
+            <project>
+                <parent>
+                    <groupId>com.example</groupId>
+                    <artifactId>parent</artifactId>
+                    <version>2.0.0</version>
+                </parent>
+                <artifactId>child</artifactId>
+            </project>
+            """.trimIndent()
+        )
+
+        assertNull(pom.groupId)
+        assertNull(pom.version)
+        assertEquals("com.example", pom.effectiveGroupId)
+        assertEquals("2.0.0", pom.effectiveVersion)
+        assertEquals("com.example:child", pom.key)
+    }
+
+    fun testIgnoresNestedCoordinates() {
+        val pom = parse(
+            """
+            <project>
+                <properties>
+                    <version>9.9.9</version>
+                </properties>
+                <dependencies>
+                    <dependency>
+                        <groupId>org.other</groupId>
+                        <artifactId>lib</artifactId>
+                        <version>3.0.0</version>
+                    </dependency>
+                </dependencies>
+                <build><plugins><plugin><artifactId>maven-compiler-plugin</artifactId></plugin></plugins></build>
+                <groupId>com.example</groupId>
+                <artifactId>app</artifactId>
+                <version>1.0.0</version>
+            </project>
+            """.trimIndent()
+        )
+
+        assertEquals("com.example", pom.groupId)
+        assertEquals("app", pom.artifactId)
+        assertEquals("1.0.0", pom.version)
+        assertNull(pom.parentArtifactId)
+    }
+
+    fun testEmptyElementsAreTreatedAsUndeclared() {
+        val pom = parse("<project><groupId/><artifactId>app</artifactId><version>  </version></project>")
+
+        assertNull(pom.groupId)
+        assertNull(pom.version)
+        assertEquals("app", pom.artifactId)
+    }
+
+    fun testNonProjectRootIsUnresolved() {
+        val pom = parse("<settings><groupId>com.example</groupId></settings>")
+
+        assertNull(pom.groupId)
+        assertNull(pom.artifactId)
+        assertNull(pom.key)
+    }
+
+    fun testMalformedXmlIsUnresolved() {
+        val pom = parse("<project><groupId>com.example</groupId><artifactId>app")
+
+        assertNull(pom.artifactId)
+        assertNull(pom.key)
+    }
+
+    fun testReadsUnsavedDocumentText() {
+        val file = LightVirtualFile("pom.xml", "<project><groupId>com.example</groupId><artifactId>app</artifactId><version>1.0.0</version></project>")
+        val document = FileDocumentManager.getInstance().getDocument(file)!!
+        WriteCommandAction.runWriteCommandAction(project) {
+            document.setText("<project><groupId>com.example</groupId><artifactId>app</artifactId><version>1.1.0</version></project>")
+        }
+
+        val pom = PomCoordinateParser.parse(file)
+
+        assertEquals("1.1.0", pom.version)
+        assertEquals(document.modificationStamp, pom.stamp)
+        assertEquals(document.modificationStamp, PomCoordinateParser.currentStamp(file))
+    }
+
+    private fun parse(text: String): PomCoordinates {
+        return PomCoordinateParser.parse(LightVirtualFile("pom.xml", text))
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class PrioritizedBatchLookupTest {
+
+    private val executor: ExecutorService = Executors.newCachedThreadPool()
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun looksUpInSubmissionOrderAndCompletes() {
+        val order = Collections.synchronizedList(mutableListOf<String>())
+        val batch = PrioritizedBatchLookup(coordinates("a", "b", "c")) { order.add(it.artifactId) }
+
+        batch.start(executor, 1)
+        batch.future.get(5, TimeUnit.SECONDS)
+
+        assertEquals(listOf("a", "b", "c"), order)
+        assertEquals(0, batch.pendingCount)
+    }
+
+    @Test
+    fun emptyBatchIsCompleteImmediately() {
+        val batch = PrioritizedBatchLookup(emptyList()) { throw AssertionError("不应查询") }
+
+        assertTrue(batch.future.isDone)
+    }
+
+    @Test
+    fun prioritizedKeysAreLookedUpFirst() {
+        val order = Collections.synchronizedList(mutableListOf<String>())
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val batch = PrioritizedBatchLookup(coordinates("a", "b", "c", "d", "e")) {
+            order.add(it.artifactId)
+            if (it.artifactId == "a") {
+                started.countDown()
+                release.await()
+            }
+        }
+
+        batch.start(executor, 1)
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        // 正在查询的 a 和不存在的 key 被忽略，列表中靠前的先查询
+        batch.prioritize(listOf("g:a", "g:d", "g:x", "g:c"))
+        release.countDown()
+        batch.future.get(5, TimeUnit.SECONDS)
+
+        assertEquals(listOf("a", "d", "c", "b", "e"), order)
+    }
+
+    @Test
+    fun failedLookupDoesNotStopTheBatch() {
+        val order = Collections.synchronizedList(mutableListOf<String>())
+        val batch = PrioritizedBatchLookup(coordinates("a", "b")) {
+            order.add(it.artifactId)
+            if (it.artifactId == "a") throw IllegalStateException("查询失败")
+        }
+
+        batch.start(executor, 1)
+        batch.future.get(5, TimeUnit.SECONDS)
+
+        assertEquals(listOf("a", "b"), order)
+    }
+
+    @Test
+    fun cancelInterruptsRunningLookupsAndDropsPending() {
+        val order = Collections.synchronizedList(mutableListOf<String>())
+        val started = CountDownLatch(2)
+        val interrupted = CountDownLatch(2)
+        val batch = PrioritizedBatchLookup(coordinates("a", "b", "c", "d")) {
+            order.add(it.artifactId)
+            started.countDown()
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30))
+            } catch (e: InterruptedException) {
+                interrupted.countDown()
+            }
+        }
+
+        batch.start(executor, 2)
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        batch.cancel()
+
+        assertTrue("正在进行的查询应被中断", interrupted.await(5, TimeUnit.SECONDS))
+        assertTrue(batch.future.isCancelled)
+        assertEquals(0, batch.pendingCount)
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS))
+        assertEquals(setOf("a", "b"), order.toSet())
+    }
+
+    @Test
+    fun workerThreadIsNotLeftInterruptedAfterCancel() {
+        val started = CountDownLatch(1)
+        val batch = PrioritizedBatchLookup(coordinates("a", "b")) {
+            started.countDown()
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30))
+            } catch (e: InterruptedException) {
+                // 保留中断标记，由工作任务结束时清除
+                Thread.currentThread().interrupt()
+            }
+        }
+        val single = Executors.newSingleThreadExecutor()
+        try {
+            batch.start(single, 1)
+            assertTrue(started.await(5, TimeUnit.SECONDS))
+            batch.cancel()
+
+            // 线程池复用同一个线程，后续任务不应带着取消留下的中断标记
+            val interruptedAfterwards = single.submit<Boolean> { Thread.currentThread().isInterrupted }
+            assertEquals(false, interruptedAfterwards.get(5, TimeUnit.SECONDS))
+        } finally {
+            single.shutdownNow()
+        }
+    }
+
+    private fun coordinates(vararg artifactIds: String): List<MavenRepositoryService.ArtifactCoordinate> {
+        return artifactIds.map { MavenRepositoryService.ArtifactCoordinate("g", it) }
+    }
+}
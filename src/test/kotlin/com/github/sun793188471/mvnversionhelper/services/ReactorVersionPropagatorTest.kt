@@ -0,0 +1,142 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import com.intellij.testFramework.runInEdtAndGet
+import com.intellij.util.concurrency.AppExecutorUtil
+
+/**
+ * 反应堆版本传播：parent 版本、写死版本号的依赖、通过属性引用的依赖
+ *
+ * 传播在线程池中执行读操作，测试本身不在 EDT 上运行。
+ */
+class ReactorVersionPropagatorTest : BasePlatformTestCase() {
+
+    override fun runInDispatchThread(): Boolean = false
+
+    fun testPropagatesThroughChildrenWithoutOwnVersion() {
+        val parent = addPom("pom.xml", pom("parent", version = "1.0.0"))
+        val childText = pom("child", parent = "parent" to "1.0.0")
+        val child = addPom("child/pom.xml", childText)
+        val grandchildText = pom("grandchild", parent = "child" to "1.0.0")
+        val grandchild = addPom("child/grandchild/pom.xml", grandchildText)
+
+        val edits = propagate(listOf(parent, child, grandchild), parent, "1.0.0")
+
+        assertEquals(
+            setOf(
+                child.path to parentVersionOffset(childText),
+                grandchild.path to parentVersionOffset(grandchildText)
+            ),
+            locations(edits)
+        )
+        edits.forEach { assertEquals("1.0.0", it.oldText) }
+    }
+
+    fun testChildWithOwnVersionStopsPropagation() {
+        val parent = addPom("pom.xml", pom("parent", version = "1.0.0"))
+        val childText = pom("child", version = "2.0.0", parent = "parent" to "1.0.0")
+        val child = addPom("child/pom.xml", childText)
+        val grandchild = addPom("child/grandchild/pom.xml", pom("grandchild", parent = "child" to "2.0.0"))
+        // parent 版本已经不是旧版本的子模块不修改
+        val stale = addPom("stale/pom.xml", pom("stale", parent = "parent" to "0.9.0"))
+
+        val edits = propagate(listOf(parent, child, grandchild, stale), parent, "1.0.0")
+
+        assertEquals(setOf(child.path to parentVersionOffset(childText)), locations(edits))
+    }
+
+    fun testUpdatesHardcodedDependencyVersions() {
+        val lib = addPom("lib/pom.xml", pom("lib", version = "1.0.0"))
+        val appText = pom(
+            "app", version = "3.0.0",
+            dependencies = dependency("lib", "1.0.0"),
+            managedDependencies = dependency("lib", "1.0.0")
+        )
+        val app = addPom("app/pom.xml", appText)
+        // 依赖的是其他版本，不修改
+        val old = addPom("old/pom.xml", pom("old", version = "3.0.0", dependencies = dependency("lib", "0.9.0")))
+
+        val edits = propagate(listOf(lib, app, old), lib, "1.0.0")
+
+        val dependencyVersion = appText.indexOf("<version>1.0.0")
+        val managedVersion = appText.indexOf("<version>1.0.0", dependencyVersion + 1)
+        assertEquals(
+            setOf(app.path to dependencyVersion + "<version>".length, app.path to managedVersion + "<version>".length),
+            locations(edits)
+        )
+    }
+
+    fun testUpdatesPropertyDefinedInParentChain() {
+        val parentText = pom("parent", version = "5.0.0", properties = "<lib.version>1.0.0</lib.version><other.version>1.0.0</other.version>")
+        val parent = addPom("pom.xml", parentText)
+        val lib = addPom("lib/pom.xml", pom("lib", version = "1.0.0"))
+        val app = addPom(
+            "app/pom.xml",
+            pom(
+                "app", parent = "parent" to "5.0.0",
+                dependencies = dependency("lib", "\${lib.version}"),
+                managedDependencies = dependency("lib", "\${project.version}")
+            )
+        )
+
+        val edits = propagate(listOf(parent, lib, app), lib, "1.0.0")
+
+        // 属性定义在 parent 中，修改属性值而不是引用处；project.version 随模块版本变化，不修改
+        assertEquals(setOf(parent.path to parentText.indexOf("<lib.version>") + "<lib.version>".length), locations(edits))
+    }
+
+    fun testIgnoresPropertyWithDifferentValue() {
+        val lib = addPom("lib/pom.xml", pom("lib", version = "1.0.0"))
+        addPom(
+            "app/pom.xml",
+            pom("app", version = "3.0.0", properties = "<lib.version>0.9.0</lib.version>", dependencies = dependency("lib", "\${lib.version}"))
+        )
+
+        assertEmpty(propagate(listOf(lib), lib, "1.0.0"))
+    }
+
+    private fun propagate(reactor: List<PomCoordinates>, root: PomCoordinates, oldVersion: String): List<VersionEdit> {
+        val propagator = ReactorVersionPropagator(project, reactor, AppExecutorUtil.getAppExecutorService())
+        return propagator.propagate(listOf(ReactorVersionPropagator.Bump(root, oldVersion)), EmptyProgressIndicator())
+    }
+
+    private fun locations(edits: List<VersionEdit>): Set<Pair<String, Int>> {
+        return edits.map { it.path to it.startOffset }.toSet()
+    }
+
+    private fun parentVersionOffset(text: String): Int {
+        return text.indexOf("<version>", text.indexOf("<parent>")) + "<version>".length
+    }
+
+    private fun addPom(path: String, text: String): PomCoordinates {
+        val file = runInEdtAndGet { myFixture.addFileToProject(path, text).virtualFile }
+        return PomCoordinateParser.parse(file)
+    }
+
+    private fun pom(
+        artifactId: String,
+        version: String? = null,
+        parent: Pair<String, String>? = null,
+        properties: String = "",
+        dependencies: String = "",
+        managedDependencies: String = ""
+    ): String {
+        return buildString {
+            append("<project>")
+            parent?.let { (parentArtifactId, parentVersion) ->
+                append("<parent><groupId>com.example</groupId><artifactId>$parentArtifactId</artifactId><version>$parentVersion</version></parent>")
+            }
+            append("<groupId>com.example</groupId><artifactId>$artifactId</artifactId>")
+            version?.let { append("<version>$it</version>") }
+            append("<properties>$properties</properties>")
+            append("<dependencies>$dependencies</dependencies>")
+            append("<dependencyManagement><dependencies>$managedDependencies</dependencies></dependencyManagement>")
+            append("</project>")
+        }
+    }
+
+    private fun dependency(artifactId: String, version: String): String {
+        return "<dependency><groupId>com.example</groupId><artifactId>$artifactId</artifactId><version>$version</version></dependency>"
+    }
+}
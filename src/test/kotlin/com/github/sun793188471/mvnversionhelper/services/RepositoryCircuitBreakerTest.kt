@@ -0,0 +1,100 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import com.github.sun793188471.mvnversionhelper.services.RepositoryCircuitBreaker.BreakerState
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperAppSettings
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+
+class RepositoryCircuitBreakerTest : BasePlatformTestCase() {
+
+    private val repoUrl = "https://repo.example.com/maven2/"
+    private lateinit var breaker: RepositoryCircuitBreaker
+    private lateinit var savedSettings: MavenVersionHelperAppSettings.State
+
+    override fun setUp() {
+        super.setUp()
+        val settings = MavenVersionHelperAppSettings.getInstance()
+        savedSettings = settings.getState().copy()
+        settings.setCircuitBreakerFailureThreshold(2)
+        settings.setCircuitBreakerCooldownSeconds(60)
+        breaker = RepositoryCircuitBreaker()
+    }
+
+    override fun tearDown() {
+        try {
+            MavenVersionHelperAppSettings.getInstance().loadState(savedSettings)
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun testOpensAfterConsecutiveFailures() {
+        assertTrue(breaker.allowRequest(repoUrl))
+        breaker.recordFailure(repoUrl)
+        assertEquals(BreakerState.CLOSED, breaker.getStatus(repoUrl).state)
+        assertTrue(breaker.allowRequest(repoUrl))
+
+        breaker.recordFailure(repoUrl)
+        val status = breaker.getStatus(repoUrl)
+        assertEquals(BreakerState.OPEN, status.state)
+        assertEquals(2, status.consecutiveFailures)
+        assertNotNull(status.retryAt)
+        assertFalse(breaker.allowRequest(repoUrl))
+    }
+
+    fun testSuccessResetsFailureCount() {
+        breaker.recordFailure(repoUrl)
+        breaker.recordSuccess(repoUrl)
+        breaker.recordFailure(repoUrl)
+
+        assertEquals(BreakerState.CLOSED, breaker.getStatus(repoUrl).state)
+        assertEquals(1, breaker.getStatus(repoUrl).consecutiveFailures)
+    }
+
+    fun testHalfOpenAllowsSingleTrialAfterCooldown() {
+        open()
+        MavenVersionHelperAppSettings.getInstance().setCircuitBreakerCooldownSeconds(0)
+
+        assertTrue(breaker.allowRequest(repoUrl))
+        assertEquals(BreakerState.HALF_OPEN, breaker.getStatus(repoUrl).state)
+        assertFalse(breaker.allowRequest(repoUrl))
+
+        breaker.recordSuccess(repoUrl)
+        assertEquals(BreakerState.CLOSED, breaker.getStatus(repoUrl).state)
+        assertTrue(breaker.allowRequest(repoUrl))
+    }
+
+    fun testFailedTrialReopens() {
+        open()
+        MavenVersionHelperAppSettings.getInstance().setCircuitBreakerCooldownSeconds(0)
+        assertTrue(breaker.allowRequest(repoUrl))
+
+        MavenVersionHelperAppSettings.getInstance().setCircuitBreakerCooldownSeconds(60)
+        breaker.recordFailure(repoUrl)
+        assertEquals(BreakerState.OPEN, breaker.getStatus(repoUrl).state)
+        assertFalse(breaker.allowRequest(repoUrl))
+    }
+
+    fun testCancelledTrialReleasesSlot() {
+        open()
+        MavenVersionHelperAppSettings.getInstance().setCircuitBreakerCooldownSeconds(0)
+        assertTrue(breaker.allowRequest(repoUrl))
+        assertFalse(breaker.allowRequest(repoUrl))
+
+        // 取消不计为失败，仍处于半开状态，下一个请求可以继续试探
+        breaker.recordCancelled(repoUrl)
+        assertEquals(BreakerState.HALF_OPEN, breaker.getStatus(repoUrl).state)
+        assertEquals(2, breaker.getStatus(repoUrl).consecutiveFailures)
+        assertTrue(breaker.allowRequest(repoUrl))
+    }
+
+    fun testRepositoriesAreIndependent() {
+        open()
+        assertTrue(breaker.allowRequest("https://mirror.example.com/maven2/"))
+        assertEquals(listOf(repoUrl), breaker.getAllStatus().map { it.repoUrl })
+    }
+
+    private fun open() {
+        repeat(2) { breaker.recordFailure(repoUrl) }
+        assertEquals(BreakerState.OPEN, breaker.getStatus(repoUrl).state)
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class RepositoryLatencyTrackerTest {
+
+    private val repoUrl = "https://repo.example.com/maven2/"
+
+    @Test
+    fun usesDefaultTimeoutUntilEnoughSamples() {
+        val tracker = RepositoryLatencyTracker()
+        assertEquals(15000L, tracker.timeoutFor(repoUrl))
+
+        repeat(4) { tracker.record(repoUrl, 100) }
+        assertEquals(15000L, tracker.timeoutFor(repoUrl))
+
+        tracker.record(repoUrl, 100)
+        assertEquals(1500L, tracker.timeoutFor(repoUrl))
+    }
+
+    @Test
+    fun timeoutIsMultipleOfP99WithinBounds() {
+        val tracker = RepositoryLatencyTracker()
+        repeat(10) { tracker.record(repoUrl, 500) }
+        tracker.record(repoUrl, 2000)
+        assertEquals(8000L, tracker.timeoutFor(repoUrl))
+
+        tracker.record(repoUrl, 10000)
+        assertEquals(15000L, tracker.timeoutFor(repoUrl))
+    }
+
+    @Test
+    fun oldSamplesLeaveTheWindow() {
+        val tracker = RepositoryLatencyTracker()
+        tracker.record(repoUrl, 3000)
+        repeat(63) { tracker.record(repoUrl, 50) }
+        assertEquals(12000L, tracker.timeoutFor(repoUrl))
+
+        // 窗口保留最近 64 个样本，慢请求被挤出后超时回落到下限
+        tracker.record(repoUrl, 50)
+        assertEquals(1500L, tracker.timeoutFor(repoUrl))
+    }
+
+    @Test
+    fun timeoutsWidenTheTimeoutUpToTheCap() {
+        val tracker = RepositoryLatencyTracker()
+        repeat(10) { tracker.record(repoUrl, 100) }
+        assertEquals(1500L, tracker.timeoutFor(repoUrl))
+
+        // 仓库变慢后每次都超时，超时值计入样本，超时逐步放宽直到上限
+        tracker.recordTimeout(repoUrl, 1500)
+        assertEquals(6000L, tracker.timeoutFor(repoUrl))
+        tracker.recordTimeout(repoUrl, 6000)
+        assertEquals(15000L, tracker.timeoutFor(repoUrl))
+    }
+
+    @Test
+    fun repositoriesAreTrackedSeparately() {
+        val tracker = RepositoryLatencyTracker()
+        val otherUrl = "https://mirror.example.com/maven2/"
+        repeat(10) { tracker.record(repoUrl, 3000) }
+
+        assertEquals(12000L, tracker.timeoutFor(repoUrl))
+        assertEquals(15000L, tracker.timeoutFor(otherUrl))
+        assertNull(tracker.averageLatency(otherUrl))
+        assertEquals(listOf(repoUrl), tracker.getAllStats().map { it.repoUrl })
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+class RepositoryRaceTest {
+
+    private val scheduler: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor()
+    private val workers: ExecutorService = Executors.newFixedThreadPool(4)
+
+    private val candidates = listOf("repo-a", "repo-b", "repo-c", "repo-d")
+
+    @After
+    fun tearDown() {
+        scheduler.shutdownNow()
+        workers.shutdownNow()
+    }
+
+    @Test
+    fun raceFindsTheOnlyRepositoryThatHasTheArtifact() {
+        // 第一个仓库在其他线程上立即失败，结束时间随机落在发起第二个请求的前后
+        val candidates = listOf("repo-a", "repo-b")
+        repeat(20000) { iteration ->
+            val spinNanos = (iteration % 200) * 10L
+            val race = RepositoryRace(candidates, scheduler, null) { repoUrl ->
+                if (repoUrl == candidates.last()) {
+                    CompletableFuture.completedFuture(repoUrl)
+                } else {
+                    CompletableFuture.supplyAsync({
+                        val deadline = System.nanoTime() + spinNanos
+                        while (System.nanoTime() < deadline) Thread.onSpinWait()
+                        null
+                    }, workers)
+                }
+            }
+            assertEquals("第 $iteration 次", candidates.last(), race.start().get(5, TimeUnit.SECONDS))
+        }
+    }
+
+    @Test
+    fun raceFindsArtifactAfterSynchronousFailures() {
+        val race = RepositoryRace(candidates, scheduler, null) { repoUrl ->
+            if (repoUrl == candidates.last()) CompletableFuture.completedFuture(repoUrl) else CompletableFuture.completedFuture(null)
+        }
+
+        assertEquals(candidates.last(), race.start().get(5, TimeUnit.SECONDS))
+    }
+
+    @Test
+    fun hedgedRaceFallsThroughInstantFailures() {
+        repeat(2000) {
+            val race = RepositoryRace(candidates, scheduler, { 0L }) { repoUrl ->
+                when (repoUrl) {
+                    candidates.last() -> CompletableFuture.supplyAsync({ repoUrl }, workers)
+                    candidates.first() -> throw IllegalStateException("熔断")
+                    else -> CompletableFuture.supplyAsync({ null }, workers)
+                }
+            }
+            assertEquals(candidates.last(), race.start().get(5, TimeUnit.SECONDS))
+        }
+    }
+
+    @Test
+    fun allRepositoriesFailingCompletesWithNull() {
+        val race = RepositoryRace(candidates, scheduler, null) { _ ->
+            CompletableFuture.supplyAsync<String?>({ throw IllegalStateException("404") }, workers)
+        }
+
+        assertNull(race.start().get(5, TimeUnit.SECONDS))
+    }
+
+    @Test
+    fun emptyCandidatesCompleteWithNull() {
+        val race = RepositoryRace<String>(emptyList(), scheduler, null) { throw AssertionError("不应发起请求") }
+
+        assertNull(race.start().get(5, TimeUnit.SECONDS))
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+
+class SingleFlightTest {
+
+    private val singleFlight = SingleFlight<String, String>()
+    private val executor: ExecutorService = Executors.newCachedThreadPool()
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun concurrentCallersShareOneExecution() {
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val leader = executor.submit<String> {
+            singleFlight.execute("key") {
+                started.countDown()
+                release.await()
+                "value"
+            }
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        val follower = executor.submit<String> {
+            singleFlight.execute("key") { throw AssertionError("不应再次执行") }
+        }
+        awaitCoalesced(1)
+        release.countDown()
+
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS))
+        assertEquals("value", follower.get(5, TimeUnit.SECONDS))
+        assertEquals(SingleFlight.Stats(requests = 2, executions = 1, coalesced = 1, inFlight = 0), singleFlight.getStats())
+    }
+
+    @Test
+    fun resultIsNotCachedAfterCompletion() {
+        assertEquals("first", singleFlight.execute("key") { "first" })
+        assertEquals("second", singleFlight.execute("key") { "second" })
+        assertEquals(2, singleFlight.getStats().executions)
+    }
+
+    @Test
+    fun waitersReceiveTheLeadersException() {
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val failure = IllegalStateException("查询失败")
+        val leader = executor.submit<String> {
+            singleFlight.execute("key") {
+                started.countDown()
+                release.await()
+                throw failure
+            }
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        val follower = executor.submit<String> {
+            singleFlight.execute("key") { "unused" }
+        }
+        awaitCoalesced(1)
+        release.countDown()
+
+        assertSame(failure, causeOf(leader))
+        assertSame(failure, causeOf(follower))
+    }
+
+    @Test
+    fun waiterRetriesWhenTheLeaderIsInterrupted() {
+        val leaderThread = AtomicReference<Thread>()
+        val started = CountDownLatch(1)
+        val leader = executor.submit<String> {
+            singleFlight.execute("key") {
+                leaderThread.set(Thread.currentThread())
+                started.countDown()
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30))
+                "leader"
+            }
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        val follower = executor.submit<String> {
+            singleFlight.execute("key") { "follower" }
+        }
+        awaitCoalesced(1)
+        leaderThread.get().interrupt()
+
+        // 执行者被中断不影响等待方，等待方重新执行一次并得到自己的结果
+        assertTrue(causeOf(leader) is InterruptedException)
+        assertEquals("follower", follower.get(5, TimeUnit.SECONDS))
+        assertEquals(2, singleFlight.getStats().executions)
+        assertEquals(0, singleFlight.getStats().inFlight)
+    }
+
+    @Test
+    fun interruptedWaiterGivesUpWithoutAffectingTheLeader() {
+        val started = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val leader = executor.submit<String> {
+            singleFlight.execute("key") {
+                started.countDown()
+                release.await()
+                "leader"
+            }
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS))
+        val waiterThread = AtomicReference<Thread>()
+        val follower = executor.submit<String> {
+            waiterThread.set(Thread.currentThread())
+            singleFlight.execute("key") { "follower" }
+        }
+        awaitCoalesced(1)
+        waiterThread.get().interrupt()
+
+        assertTrue(causeOf(follower) is InterruptedException)
+        release.countDown()
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS))
+        assertEquals(1, singleFlight.getStats().executions)
+    }
+
+    /**
+     * 等待方在 execute 中登记后 coalesced 计数加一，之后才进入等待
+     */
+    private fun awaitCoalesced(count: Long) {
+        val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5)
+        while (singleFlight.getStats().coalesced < count) {
+            if (System.nanoTime() > deadline) fail("等待方没有合并到进行中的请求")
+            Thread.sleep(1)
+        }
+    }
+
+    private fun causeOf(future: Future<*>): Throwable? {
+        return try {
+            future.get(5, TimeUnit.SECONDS)
+            null
+        } catch (e: ExecutionException) {
+            e.cause
+        }
+    }
+}
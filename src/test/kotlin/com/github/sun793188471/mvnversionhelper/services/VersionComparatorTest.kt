@@ -0,0 +1,141 @@
+package com.github.sun793188471.mvnversionhelper.services
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import kotlin.math.sign
+import kotlin.random.Random
+
+class VersionComparatorTest {
+
+    private val comparator = VersionComparator()
+
+    @Test
+    fun comparesNumberSegmentsNumerically() {
+        assertOrdered("1.9", "1.10")
+        assertOrdered("1.9.9", "1.10.0")
+        assertOrdered("1.2.3.99-qa-SNAPSHOT", "1.2.3.100-qa-SNAPSHOT")
+        assertOrdered("2", "10")
+        assertEquals(0, comparator.compare("1.0", "1.0.0"))
+    }
+
+    @Test
+    fun versionWithoutQualifierIsHigher() {
+        assertOrdered("1.0-alpha", "1.0")
+        assertOrdered("1.0-rc", "1.0")
+        assertOrdered("1.0-sp", "1.0")
+        assertOrdered("1.0", "1.0.1-alpha")
+    }
+
+    @Test
+    fun textQualifiersCompareAlphabetically() {
+        assertOrdered("1.0-alpha", "1.0-beta")
+        assertOrdered("1.0-beta", "1.0-rc")
+        assertOrdered("1.0-rc", "1.0-sp")
+        assertOrdered("1.0-qa-SNAPSHOT", "1.0-uat-SNAPSHOT")
+    }
+
+    @Test
+    fun qualifierWithNumberIsHigherThanPlainText() {
+        // 限定符中第一段数字视为任务号，有任务号的版本更高，任务号之间按数值比较
+        assertOrdered("1.0-sp", "1.0-rc1")
+        assertOrdered("1.0-beta2", "1.0-alpha10")
+        assertOrdered("1.0-9-SNAPSHOT", "1.0-10-SNAPSHOT")
+        assertOrdered("1.0-100-SNAPSHOT", "1.0-200-SNAPSHOT")
+    }
+
+    @Test
+    fun snapshotSuffixIsIgnored() {
+        assertEquals(0, comparator.compare("1.0-SNAPSHOT", "1.0"))
+        assertEquals(0, comparator.compare("1.0-snapshot", "1.0-SNAPSHOT"))
+        assertOrdered("1.0", "1.1-SNAPSHOT")
+        assertOrdered("1.0-alpha-SNAPSHOT", "1.0-beta-SNAPSHOT")
+    }
+
+    @Test
+    fun comparatorAndKeyOrderAgree() {
+        val random = Random(42)
+        val versions = List(300) { randomVersion(random) }
+        for (v1 in versions) {
+            for (v2 in versions) {
+                val byComparator = comparator.compare(v1, v2).sign
+                assertEquals("$v1 vs $v2", byComparator, VersionKey.of(v1).compareTo(VersionKey.of(v2)).sign)
+                assertEquals("$v1 vs $v2", -byComparator, comparator.compare(v2, v1).sign)
+            }
+        }
+        assertEquals(versions.sortedWith(comparator), versions.sortedBy { VersionKey.of(it) })
+    }
+
+    @Test
+    fun matchesRegexComparator() {
+        val reference = RegexVersionComparator()
+        val random = Random(7)
+        val versions = List(300) { randomVersion(random) } + listOf(
+            "", "-", "1..2", "1.0-", "1.0-SNAPSHOT\n", "99999999999.1", "1.0-99999999999-SNAPSHOT", "v1.0"
+        )
+        for (v1 in versions) {
+            for (v2 in versions) {
+                assertEquals("$v1 vs $v2", reference.compare(v1, v2).sign, comparator.compare(v1, v2).sign)
+            }
+        }
+    }
+
+    private fun assertOrdered(lower: String, higher: String) {
+        assertTrue("$lower < $higher", comparator.compare(lower, higher) < 0)
+        assertTrue("$higher > $lower", comparator.compare(higher, lower) > 0)
+    }
+
+    private fun randomVersion(random: Random): String {
+        val numbers = List(random.nextInt(1, 5)) { random.nextInt(0, 15) }.joinToString(".")
+        val qualifier = when (random.nextInt(9)) {
+            0 -> ""
+            1 -> "-alpha"
+            2 -> "-beta${random.nextInt(1, 3)}"
+            3 -> "-rc"
+            4 -> "-sp${random.nextInt(1, 3)}"
+            5 -> "-qa"
+            6 -> "-uat"
+            7 -> "-${random.nextInt(100, 3000)}"
+            else -> "-RELEASE"
+        }
+        val snapshot = if (random.nextBoolean()) "-SNAPSHOT" else ""
+        return numbers + qualifier + snapshot
+    }
+
+    /**
+     * 改用预解析排序键之前的正则实现，作为比对基准
+     */
+    private class RegexVersionComparator : Comparator<String> {
+        override fun compare(v1: String, v2: String): Int {
+            val (numbers1, qualifier1) = parse(v1)
+            val (numbers2, qualifier2) = parse(v2)
+            for (i in 0 until maxOf(numbers1.size, numbers2.size)) {
+                val comparison = numbers1.getOrElse(i) { 0 }.compareTo(numbers2.getOrElse(i) { 0 })
+                if (comparison != 0) return comparison
+            }
+            if (qualifier1.isEmpty() && qualifier2.isEmpty()) return 0
+            if (qualifier1.isEmpty()) return 1
+            if (qualifier2.isEmpty()) return -1
+
+            val task1 = Regex("(\\d+)").find(qualifier1)?.value?.toIntOrNull()
+            val task2 = Regex("(\\d+)").find(qualifier2)?.value?.toIntOrNull()
+            return when {
+                task1 != null && task2 != null -> task1.compareTo(task2)
+                task1 != null -> 1
+                task2 != null -> -1
+                else -> qualifier1.compareTo(qualifier2)
+            }
+        }
+
+        private fun parse(version: String): Pair<List<Int>, String> {
+            val parts = version.replace(Regex("-SNAPSHOT$", RegexOption.IGNORE_CASE), "").split(Regex("[-.]"))
+            val numbers = mutableListOf<Int>()
+            val qualifierParts = mutableListOf<String>()
+            for (part in parts) {
+                val number = part.toIntOrNull()
+                if (number != null && qualifierParts.isEmpty()) numbers.add(number) else qualifierParts.add(part)
+            }
+            return Pair(numbers, qualifierParts.joinToString("-"))
+        }
+    }
+}
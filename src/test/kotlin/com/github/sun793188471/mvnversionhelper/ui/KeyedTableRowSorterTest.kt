@@ -0,0 +1,95 @@
+package com.github.sun793188471.mvnversionhelper.ui
+
+import com.github.sun793188471.mvnversionhelper.ui.DependencyVersionCheckDialog.DependencyInfo
+import com.github.sun793188471.mvnversionhelper.ui.DependencyVersionCheckDialog.VersionLocation
+import com.github.sun793188471.mvnversionhelper.ui.DependencyVersionCheckDialog.VersionLocationType
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import javax.swing.RowSorter
+import javax.swing.SortOrder
+
+class KeyedTableRowSorterTest {
+
+    private lateinit var model: DependencyTableModel
+    private lateinit var sorter: KeyedTableRowSorter<DependencyTableModel>
+
+    @Before
+    fun setUp() {
+        model = DependencyTableModel("加载中...")
+        model.setRows(
+            listOf(
+                dependency("lib-a", "1.9.0"),
+                dependency("lib-b", "1.10.0"),
+                dependency("lib-c", "1.2.0"),
+                dependency("lib-d", "1.10.0-rc1")
+            )
+        )
+        sorter = KeyedTableRowSorter(model)
+    }
+
+    @Test
+    fun sortsVersionColumnByVersionNotText() {
+        sort(DependencyTableModel.COLUMN_CURRENT_VERSION, SortOrder.ASCENDING)
+        assertEquals(listOf("1.2.0", "1.9.0", "1.10.0-rc1", "1.10.0"), viewColumn(DependencyTableModel.COLUMN_CURRENT_VERSION))
+
+        sort(DependencyTableModel.COLUMN_CURRENT_VERSION, SortOrder.DESCENDING)
+        assertEquals(listOf("1.10.0", "1.10.0-rc1", "1.9.0", "1.2.0"), viewColumn(DependencyTableModel.COLUMN_CURRENT_VERSION))
+    }
+
+    @Test
+    fun placeholdersSortBeforeVersions() {
+        model.updateRemoteVersions(0, "2.0.0", null)
+        model.updateRemoteVersions(1, "1.11.0", null)
+        model.updateRemoteVersions(3, null, "1.12.0-SNAPSHOT")
+        sort(DependencyTableModel.COLUMN_LATEST_RELEASE, SortOrder.ASCENDING)
+
+        // lib-c 还在加载，lib-d 已加载但没有 release，二者都排在版本之前
+        val releases = viewColumn(DependencyTableModel.COLUMN_LATEST_RELEASE)
+        assertEquals(setOf("加载中...", "无"), releases.take(2).toSet())
+        assertEquals(listOf("1.11.0", "2.0.0"), releases.drop(2))
+    }
+
+    @Test
+    fun resortsAfterInPlaceUpdate() {
+        sort(DependencyTableModel.COLUMN_LATEST_RELEASE, SortOrder.DESCENDING)
+        model.updateRemoteVersions(2, "3.0.0", null)
+        model.updateRemoteVersions(0, "3.0.1", null)
+        sorter.allRowsChanged()
+
+        assertEquals("com.example:lib-a", model.getValueAt(sorter.convertRowIndexToModel(0), DependencyTableModel.COLUMN_DEPENDENCY))
+        assertEquals("com.example:lib-c", model.getValueAt(sorter.convertRowIndexToModel(1), DependencyTableModel.COLUMN_DEPENDENCY))
+    }
+
+    @Test
+    fun filtersBySubstringIgnoringCase() {
+        sorter.setFilterText(" LIB-B ")
+        assertEquals(1, sorter.viewRowCount)
+        assertEquals(1, sorter.convertRowIndexToModel(0))
+
+        sorter.setFilterText("1.10")
+        assertEquals(2, sorter.viewRowCount)
+
+        sorter.setFilterText("")
+        assertEquals(4, sorter.viewRowCount)
+    }
+
+    private fun sort(column: Int, order: SortOrder) {
+        sorter.sortKeys = listOf(RowSorter.SortKey(column, order))
+    }
+
+    private fun viewColumn(column: Int): List<Any?> {
+        return (0 until sorter.viewRowCount).map { model.getValueAt(sorter.convertRowIndexToModel(it), column) }
+    }
+
+    private fun dependency(artifactId: String, version: String): DependencyInfo {
+        return DependencyInfo(
+            groupId = "com.example",
+            artifactId = artifactId,
+            currentVersion = version,
+            latestSnapshot = null,
+            latestRelease = null,
+            versionLocation = VersionLocation(VersionLocationType.DEPENDENCY_DIRECT)
+        )
+    }
+}
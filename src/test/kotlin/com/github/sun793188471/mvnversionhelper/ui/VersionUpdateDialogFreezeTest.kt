@@ -0,0 +1,117 @@
+package com.github.sun793188471.mvnversionhelper.ui
+
+import com.github.sun793188471.mvnversionhelper.services.MavenVersionService
+import com.github.sun793188471.mvnversionhelper.settings.MavenVersionHelperSettings
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.components.service
+import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.testFramework.fixtures.BasePlatformTestCase
+import com.intellij.testFramework.runInEdtAndGet
+import com.intellij.testFramework.runInEdtAndWait
+import com.intellij.util.concurrency.AppExecutorUtil
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 打开版本更新对话框及其后台加载期间，EDT 不应被阻塞超过阈值
+ *
+ * 测试本身不在 EDT 上运行：后台定时向 EDT 投递探测任务，记录投递到执行的最大延迟。
+ */
+class VersionUpdateDialogFreezeTest : BasePlatformTestCase() {
+
+    private var wasOffline = false
+
+    override fun runInDispatchThread(): Boolean = false
+
+    override fun setUp() {
+        super.setUp()
+        // 离线模式只读取本地仓库，测试不访问网络
+        val settings = MavenVersionHelperSettings.getInstance(project)
+        wasOffline = settings.isOfflineMode()
+        settings.setOfflineMode(true)
+
+        runInEdtAndWait {
+            myFixture.addFileToProject("pom.xml", pom("parent", "<packaging>pom</packaging>"))
+            repeat(MODULE_COUNT) { i ->
+                myFixture.addFileToProject("module$i/pom.xml", pom("module$i", parent()))
+            }
+        }
+    }
+
+    override fun tearDown() {
+        try {
+            MavenVersionHelperSettings.getInstance(project).setOfflineMode(wasOffline)
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun testDialogNeverBlocksEdt() {
+        val maxDelayMillis = AtomicLong()
+        val probe = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay({
+            val postedAt = System.nanoTime()
+            ApplicationManager.getApplication().invokeLater({
+                val delay = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - postedAt)
+                maxDelayMillis.accumulateAndGet(delay) { a, b -> maxOf(a, b) }
+            }, ModalityState.any())
+        }, 0, PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+
+        var dialog: VersionUpdateDialog? = null
+        var constructionMillis = 0L
+        try {
+            runInEdtAndWait {
+                val start = System.nanoTime()
+                dialog = VersionUpdateDialog(project, project.service<MavenVersionService>())
+                constructionMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+            }
+
+            // 等待 POM 列表加载完成，再观察一段时间，覆盖各模块远端版本的查询
+            val deadline = System.currentTimeMillis() + LOAD_TIMEOUT_MILLIS
+            while (!runInEdtAndGet { dialog!!.isOKActionEnabled }) {
+                assertTrue("对话框数据未在 ${LOAD_TIMEOUT_MILLIS}ms 内加载完成", System.currentTimeMillis() < deadline)
+                Thread.sleep(PROBE_INTERVAL_MILLIS)
+            }
+            Thread.sleep(SETTLE_MILLIS)
+        } finally {
+            probe.cancel(false)
+            runInEdtAndWait { dialog?.close(DialogWrapper.CANCEL_EXIT_CODE) }
+        }
+
+        assertTrue("构造对话框耗时 ${constructionMillis}ms", constructionMillis < FREEZE_THRESHOLD_MILLIS)
+        assertTrue("EDT 最长被阻塞 ${maxDelayMillis.get()}ms", maxDelayMillis.get() < FREEZE_THRESHOLD_MILLIS)
+    }
+
+    private fun pom(artifactId: String, body: String): String = """
+        <project>
+          <modelVersion>4.0.0</modelVersion>
+          $body
+          <groupId>com.example</groupId>
+          <artifactId>$artifactId</artifactId>
+          <version>1.0.0-SNAPSHOT</version>
+          <dependencies>
+            <dependency>
+              <groupId>com.example</groupId>
+              <artifactId>library</artifactId>
+              <version>2.0.0</version>
+            </dependency>
+          </dependencies>
+        </project>
+    """.trimIndent()
+
+    private fun parent(): String = """
+        <parent>
+          <groupId>com.example</groupId>
+          <artifactId>parent</artifactId>
+          <version>1.0.0-SNAPSHOT</version>
+        </parent>
+    """.trimIndent()
+
+    companion object {
+        private const val MODULE_COUNT = 200
+        private const val PROBE_INTERVAL_MILLIS = 10L
+        private const val SETTLE_MILLIS = 1000L
+        private const val LOAD_TIMEOUT_MILLIS = 30000L
+        private const val FREEZE_THRESHOLD_MILLIS = 300L
+    }
+}